@@ -6,6 +6,7 @@ import androidx.lifecycle.Lifecycle;
 import androidx.lifecycle.LifecycleEventObserver;
 import androidx.lifecycle.ProcessLifecycleOwner;
 
+import org.example.semscan.service.AttendanceOutbox;
 import org.example.semscan.utils.CrashHandler;
 import org.example.semscan.utils.PreferencesManager;
 import org.example.semscan.utils.Logger;
@@ -31,6 +32,9 @@ public class SemScanApplication extends Application {
         // Create notification channels for FCM
         NotificationHelper.createNotificationChannels(this);
 
+        // Replay any attendance submissions left in the outbox by a previous run
+        AttendanceOutbox.getInstance(this).drainSoon();
+
         // Register lifecycle observer for proper resource cleanup
         // This is more reliable than onTerminate() which is rarely called on real devices
         ProcessLifecycleOwner.get().getLifecycle().addObserver(
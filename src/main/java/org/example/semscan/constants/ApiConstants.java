@@ -91,6 +91,18 @@ public class ApiConstants {
     public static final int READ_TIMEOUT_SECONDS = 10;        // Fallback default - use ConfigManager.getReadTimeoutSeconds()
     public static final int WRITE_TIMEOUT_SECONDS = 10;       // Fallback default - use ConfigManager.getWriteTimeoutSeconds()
     
+    // Shared OkHttpClient core (see ApiClient) - kept alive across Retrofit rebuilds
+    public static final int HTTP_MAX_IDLE_CONNECTIONS = 8;
+    public static final long HTTP_KEEP_ALIVE_MINUTES = 5;
+    public static final int HTTP_MAX_REQUESTS = 32;
+    public static final int HTTP_MAX_REQUESTS_PER_HOST = 8;  // Single backend host - OkHttp default is 5
+    public static final int TLS_SESSION_CACHE_SIZE = 32;
+    public static final int TLS_SESSION_TIMEOUT_SECONDS = 24 * 60 * 60;
+    
+    // On-disk HTTP cache for read endpoints (see StaleWhileRevalidateInterceptor)
+    public static final String HTTP_CACHE_DIR_NAME = "http_cache";
+    public static final long HTTP_CACHE_SIZE_BYTES = 10L * 1024 * 1024; // 10 MB
+    
     // =============================================
     // ERROR CODES
     // =============================================
@@ -1,6 +1,9 @@
 package org.example.semscan.data.api;
 
 import android.content.Context;
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
@@ -9,29 +12,32 @@ import org.example.semscan.constants.ApiConstants;
 import org.example.semscan.utils.ConfigManager;
 
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
+import java.io.File;
 import java.security.cert.X509Certificate;
 import java.security.SecureRandom;
 
 public class ApiClient {
     private static final String DEFAULT_BASE_URL = ApiConstants.SERVER_URL;
-    private static ApiClient instance;
-    private ApiService apiService;
-    private String currentBaseUrl;
-    private Context context;
+    // Immutable (baseUrl, ApiService) snapshot - read without locking, republished on URL change
+    private static volatile ApiClient instance;
+    private static OkHttpClient sharedHttpClient; // Process-wide core, survives ApiClient rebuilds
+    // Shared across rebuilds so @SingleFlight calls coalesce process-wide
+    private static final SingleFlightCallAdapterFactory SINGLE_FLIGHT = new SingleFlightCallAdapterFactory();
+    private final ApiService apiService;
+    private final String currentBaseUrl;
+    private final Context context;
     
-    private ApiClient(Context context) {
+    private ApiClient(Context context, String baseUrl) {
         this.context = context.getApplicationContext();
-        // Use ConfigManager if available, otherwise fallback to hardcoded URL
-        // This handles circular dependency: ConfigManager needs ApiClient, ApiClient needs ConfigManager
-        String baseUrl = getServerUrlFromConfig(context);
-        currentBaseUrl = normalizeBaseUrl(baseUrl);
+        this.currentBaseUrl = baseUrl;
         
         // Log the current API URL for debugging
         android.util.Log.i("ApiClient", "Current API Base URL: " + currentBaseUrl);
         
-        createApiService();
+        this.apiService = createApiService();
     }
     
     /**
@@ -39,59 +45,119 @@ public class ApiClient {
      * This handles the circular dependency: ConfigManager needs ApiClient to fetch config,
      * but ApiClient needs ConfigManager for the URL. First call uses hardcoded URL.
      */
-    private String getServerUrlFromConfig(Context context) {
+    private static String resolveBaseUrl(Context context) {
         try {
             ConfigManager configManager = ConfigManager.getInstance(context);
             String configUrl = configManager.getServerUrl();
             if (configUrl != null && !configUrl.trim().isEmpty()) {
-                return configUrl;
+                return normalizeBaseUrl(configUrl);
             }
         } catch (Exception e) {
             // ConfigManager not ready yet - use hardcoded default
             android.util.Log.d("ApiClient", "ConfigManager not ready, using hardcoded URL: " + e.getMessage());
         }
-        return DEFAULT_BASE_URL;
+        return normalizeBaseUrl(DEFAULT_BASE_URL);
     }
     
-    private void createApiService() {
-        // Standard HTTP logging for Android Logcat (with password sanitization)
+    private ApiService createApiService() {
+        // Get timeout values from ConfigManager if available, otherwise use hardcoded defaults
+        int connectionTimeout = getTimeoutFromConfig(context, "connection");
+        int readTimeout = getTimeoutFromConfig(context, "read");
+        int writeTimeout = getTimeoutFromConfig(context, "write");
+        
+        // Derive from the shared client so the connection pool, dispatcher and TLS sessions
+        // survive Retrofit rebuilds (URL change / recreateInstance). Only timeouts differ per build.
+        OkHttpClient client = getSharedHttpClient(context).newBuilder()
+                .connectTimeout(connectionTimeout, java.util.concurrent.TimeUnit.SECONDS)
+                .readTimeout(readTimeout, java.util.concurrent.TimeUnit.SECONDS)
+                .writeTimeout(writeTimeout, java.util.concurrent.TimeUnit.SECONDS)
+                .build();
+        
+        android.util.Log.i("ApiClient", "Creating Retrofit with base URL: " + currentBaseUrl);
+        
+        Retrofit retrofit = new Retrofit.Builder()
+                .baseUrl(currentBaseUrl)
+                .client(client)
+                .addCallAdapterFactory(SINGLE_FLIGHT)
+                .addConverterFactory(GsonConverterFactory.create())
+                .build();
+        
+        return retrofit.create(ApiService.class);
+    }
+    
+    /**
+     * Get the process-wide OkHttpClient core, building it on first use.
+     * Holds the interceptor chain, a sized ConnectionPool, Dispatcher limits and a single
+     * SSLContext (whose client session cache allows TLS session resumption).
+     * Per-base-URL clients are derived from it with newBuilder(), which shares all of these.
+     */
+    private static synchronized OkHttpClient getSharedHttpClient(Context context) {
+        if (sharedHttpClient != null) {
+            return sharedHttpClient;
+        }
+        Context appContext = context.getApplicationContext();
+        
+        // Standard HTTP logging for Android Logcat (passwords and QR token secrets redacted)
         HttpLoggingInterceptor httpLogging = new HttpLoggingInterceptor(new HttpLoggingInterceptor.Logger() {
             @Override
             public void log(String message) {
-                // Sanitize passwords before logging
-                String sanitized = sanitizePasswords(message);
+                // Sanitize secrets before logging
+                String sanitized = ApiLoggingInterceptor.sanitizeSecrets(message);
                 android.util.Log.i("OkHttp", sanitized);
             }
         });
         httpLogging.setLevel(HttpLoggingInterceptor.Level.BODY);
         
         // Custom interceptor for ServerLogger (app_logs) - logs request/response bodies
-        ApiLoggingInterceptor apiLogging = new ApiLoggingInterceptor(context);
+        ApiLoggingInterceptor apiLogging = new ApiLoggingInterceptor(appContext);
 
         // Auth interceptor for detecting 401/403 responses and broadcasting session expired
-        AuthInterceptor authInterceptor = new AuthInterceptor(context);
+        AuthInterceptor authInterceptor = new AuthInterceptor(appContext);
 
         // Device info interceptor to send device/app info to server for logging
-        DeviceInfoInterceptor deviceInfoInterceptor = new DeviceInfoInterceptor(context);
+        DeviceInfoInterceptor deviceInfoInterceptor = new DeviceInfoInterceptor(appContext);
 
-        // Configure SSL for self-signed certificates
-        // Note: This trusts user certificates (configured in network_security_config.xml)
-        // For production, use proper certificate pinning
-        
-        // Get timeout values from ConfigManager if available, otherwise use hardcoded defaults
-        int connectionTimeout = getTimeoutFromConfig(context, "connection");
-        int readTimeout = getTimeoutFromConfig(context, "read");
-        int writeTimeout = getTimeoutFromConfig(context, "write");
+        // Serve rarely-changing read endpoints from the disk cache while revalidating in the background
+        StaleWhileRevalidateInterceptor staleWhileRevalidate = new StaleWhileRevalidateInterceptor();
+
+        // Jittered retries for idempotent calls, wrapped around a per-host circuit breaker so each
+        // attempt is counted and an overloaded backend gets fail-fast instead of more traffic
+        RetryInterceptor retryInterceptor = new RetryInterceptor();
+        CircuitBreakerInterceptor circuitBreaker = new CircuitBreakerInterceptor();
+
+        // Bounded on-disk HTTP cache - OkHttp revalidates entries with If-None-Match / If-Modified-Since
+        Cache httpCache = new Cache(
+                new File(appContext.getCacheDir(), ApiConstants.HTTP_CACHE_DIR_NAME),
+                ApiConstants.HTTP_CACHE_SIZE_BYTES);
+
+        // Keep warm connections to the backend between screens and across rebuilds
+        ConnectionPool connectionPool = new ConnectionPool(
+                ApiConstants.HTTP_MAX_IDLE_CONNECTIONS,
+                ApiConstants.HTTP_KEEP_ALIVE_MINUTES,
+                java.util.concurrent.TimeUnit.MINUTES);
+
+        // Cap concurrent calls so a burst of screens/log uploads doesn't open a socket per call
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(ApiConstants.HTTP_MAX_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(ApiConstants.HTTP_MAX_REQUESTS_PER_HOST);
         
         OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder()
                 .addInterceptor(deviceInfoInterceptor) // Add device info headers first
                 .addInterceptor(httpLogging)     // Android Logcat logging
                 .addInterceptor(apiLogging)      // ServerLogger (app_logs) logging
+                .addInterceptor(staleWhileRevalidate) // After logging so cache probes aren't logged
+                .addInterceptor(retryInterceptor) // Idempotent methods only, decorrelated jitter
+                .addInterceptor(circuitBreaker)   // Fail fast while the backend is overloaded
                 .addInterceptor(authInterceptor) // Session expiration detection (401/403)
-                .connectTimeout(connectionTimeout, java.util.concurrent.TimeUnit.SECONDS)
-                .readTimeout(readTimeout, java.util.concurrent.TimeUnit.SECONDS)
-                .writeTimeout(writeTimeout, java.util.concurrent.TimeUnit.SECONDS);
+                .addInterceptor(new GzipRequestInterceptor(appContext)) // Compress log uploads (after logging)
+                .addNetworkInterceptor(new CacheHeadersInterceptor()) // Make read endpoints cacheable
+                .cache(httpCache)
+                .connectionPool(connectionPool)
+                .dispatcher(dispatcher);
         
+        // Configure SSL for self-signed certificates
+        // Note: This trusts user certificates (configured in network_security_config.xml)
+        // For production, use proper certificate pinning
         // Trust self-signed certificates (for testing/development)
         // The network_security_config.xml allows user certificates
         // This is needed because Android's default SSL context may not trust self-signed certs
@@ -117,46 +183,59 @@ public class ApiClient {
             
             SSLContext sslContext = SSLContext.getInstance("TLS");
             sslContext.init(null, trustAllCerts, new SecureRandom());
+            // One SSLContext for the whole process - its session cache lets reconnects resume TLS
+            SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+            if (sessionContext != null) {
+                sessionContext.setSessionCacheSize(ApiConstants.TLS_SESSION_CACHE_SIZE);
+                sessionContext.setSessionTimeout(ApiConstants.TLS_SESSION_TIMEOUT_SECONDS);
+            }
             clientBuilder.sslSocketFactory(sslContext.getSocketFactory(), (X509TrustManager) trustAllCerts[0]);
             clientBuilder.hostnameVerifier((hostname, session) -> true);
         } catch (Exception e) {
             android.util.Log.e("ApiClient", "Failed to configure SSL for self-signed certificates", e);
         }
         
-        OkHttpClient client = clientBuilder.build();
-        
-        android.util.Log.i("ApiClient", "Creating Retrofit with base URL: " + currentBaseUrl);
-        
-        Retrofit retrofit = new Retrofit.Builder()
-                .baseUrl(currentBaseUrl)
-                .client(client)
-                .addConverterFactory(GsonConverterFactory.create())
-                .build();
-        
-        apiService = retrofit.create(ApiService.class);
+        sharedHttpClient = clientBuilder.build();
+        staleWhileRevalidate.attach(sharedHttpClient);
+        android.util.Log.i("ApiClient", "Created shared OkHttpClient core (pool=" + ApiConstants.HTTP_MAX_IDLE_CONNECTIONS
+                + ", maxRequests=" + ApiConstants.HTTP_MAX_REQUESTS
+                + ", maxPerHost=" + ApiConstants.HTTP_MAX_REQUESTS_PER_HOST + ")");
+        return sharedHttpClient;
     }
     
-    public static synchronized ApiClient getInstance(Context context) {
-        // Get current URL from ConfigManager if available, otherwise use hardcoded default
-        String currentUrl;
-        try {
-            ConfigManager configManager = ConfigManager.getInstance(context);
-            String configUrl = configManager.getServerUrl();
-            currentUrl = (configUrl != null && !configUrl.trim().isEmpty()) 
-                ? normalizeBaseUrl(configUrl) 
-                : normalizeBaseUrl(DEFAULT_BASE_URL);
-        } catch (Exception e) {
-            // ConfigManager not ready yet - use hardcoded default
-            currentUrl = normalizeBaseUrl(DEFAULT_BASE_URL);
+    /**
+     * Get the current ApiClient.
+     * Fast path is a single volatile read - the server URL is only re-resolved when
+     * ConfigManager publishes a config change (see onConfigChanged) or on recreateInstance().
+     */
+    public static ApiClient getInstance(Context context) {
+        ApiClient snapshot = instance;
+        if (snapshot != null) {
+            return snapshot;
         }
+        return publishForCurrentConfig(context, false);
+    }
+    
+    /**
+     * Re-resolve the server URL and publish a new instance if it changed.
+     * Called by ConfigManager after a fresh config has been cached.
+     */
+    public static void onConfigChanged(Context context) {
+        publishForCurrentConfig(context, false);
+    }
+    
+    private static synchronized ApiClient publishForCurrentConfig(Context context, boolean force) {
+        String currentUrl = resolveBaseUrl(context);
+        ApiClient snapshot = instance;
         
         // If instance is null or URL has changed, create new instance
-        if (instance == null || !instance.currentBaseUrl.equals(currentUrl)) {
+        if (force || snapshot == null || !snapshot.currentBaseUrl.equals(currentUrl)) {
             android.util.Log.i("ApiClient", "Creating new instance - URL changed from " + 
-                (instance != null ? instance.currentBaseUrl : "null") + " to " + currentUrl);
-            instance = new ApiClient(context);
+                (snapshot != null ? snapshot.currentBaseUrl : "null") + " to " + currentUrl);
+            snapshot = new ApiClient(context, currentUrl);
+            instance = snapshot;
         }
-        return instance;
+        return snapshot;
     }
     
     /**
@@ -193,9 +272,8 @@ public class ApiClient {
     /**
      * Force recreation of ApiClient instance (useful when config changes)
      */
-    public static synchronized void recreateInstance(Context context) {
-        instance = null;
-        getInstance(context);
+    public static void recreateInstance(Context context) {
+        publishForCurrentConfig(context, true);
     }
     
     public ApiService getApiService() {
@@ -216,25 +294,4 @@ public class ApiClient {
         }
         return trimmed;
     }
-    
-    /**
-     * Sanitize passwords from JSON strings to prevent logging sensitive data.
-     * Replaces password values with "***" while preserving JSON structure.
-     */
-    private static String sanitizePasswords(String message) {
-        if (message == null || message.trim().isEmpty()) {
-            return message;
-        }
-        
-        // Pattern to match "password":"value" or "password": "value" in JSON
-        // Handles escaped quotes and any characters in the password value
-        // CASE_INSENSITIVE handles "password", "Password", "PASSWORD", etc.
-        java.util.regex.Pattern passwordPattern = java.util.regex.Pattern.compile(
-            "\"password\"\\s*:\\s*\"(?:[^\"\\\\]|\\\\.)*\"",
-            java.util.regex.Pattern.CASE_INSENSITIVE
-        );
-        
-        java.util.regex.Matcher matcher = passwordPattern.matcher(message);
-        return matcher.replaceAll("\"password\":\"***\"");
-    }
 }
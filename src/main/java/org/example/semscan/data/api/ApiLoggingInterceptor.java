@@ -119,26 +119,24 @@ public class ApiLoggingInterceptor implements Interceptor {
         return "API" + suffix;
     }
 
+    // "password":"...", "qrSecret":"..." (per-session QR signing key), "qrSignature":"..." in JSON.
+    // Handles escaped quotes and any characters in the value; CASE_INSENSITIVE handles "Password" etc.
+    private static final Pattern SECRET_PATTERN = Pattern.compile(
+        "\"(password|qrSecret|qrSignature)\"\\s*:\\s*\"(?:[^\"\\\\]|\\\\.)*\"",
+        Pattern.CASE_INSENSITIVE
+    );
+
     /**
-     * Sanitize passwords from JSON strings to prevent logging sensitive data.
-     * Replaces password values with "***" while preserving JSON structure.
+     * Sanitize secrets from JSON strings to prevent logging sensitive data.
+     * Replaces password and QR token key/signature values with "***" while preserving JSON structure.
+     * Also used by ApiClient for the Logcat HttpLoggingInterceptor.
      */
-    private String sanitizePasswords(String jsonString) {
+    static String sanitizeSecrets(String jsonString) {
         if (jsonString == null || jsonString.trim().isEmpty()) {
             return jsonString;
         }
-        
-        // Pattern to match "password":"value" or "password": "value" in JSON
-        // Handles escaped quotes and any characters in the password value
-        // CASE_INSENSITIVE handles "password", "Password", "PASSWORD", etc.
-        // Matches: "password":"any value here" or "password": "any value here"
-        Pattern passwordPattern = Pattern.compile(
-            "\"password\"\\s*:\\s*\"(?:[^\"\\\\]|\\\\.)*\"",
-            Pattern.CASE_INSENSITIVE
-        );
-        
-        Matcher matcher = passwordPattern.matcher(jsonString);
-        return matcher.replaceAll("\"password\":\"***\"");
+        Matcher matcher = SECRET_PATTERN.matcher(jsonString);
+        return matcher.replaceAll("\"$1\":\"***\"");
     }
     
     @Override
@@ -170,8 +168,8 @@ public class ApiLoggingInterceptor implements Interceptor {
             requestBody = new String(bodyBytes, charset);
             
             if (requestBody != null && !requestBody.isEmpty()) {
-                // Sanitize passwords before logging
-                String sanitizedRequestBody = sanitizePasswords(requestBody);
+                // Sanitize secrets before logging
+                String sanitizedRequestBody = sanitizeSecrets(requestBody);
                 
                 // Always log to Android Logcat (with sanitized password)
                 String requestLog = String.format("Request Body: %s", sanitizedRequestBody);
@@ -194,7 +192,7 @@ public class ApiLoggingInterceptor implements Interceptor {
         // Log request details (with sanitized password)
         String requestDetails = String.format("Request: %s %s", method, path);
         if (requestBody != null && !requestBody.isEmpty()) {
-            String sanitizedRequestBody = sanitizePasswords(requestBody);
+            String sanitizedRequestBody = sanitizeSecrets(requestBody);
             requestDetails += " - Body: " + sanitizedRequestBody;
         }
         
@@ -233,7 +231,7 @@ public class ApiLoggingInterceptor implements Interceptor {
             // Always log to Android Logcat (with sanitized password if present)
             if (responseBodyString != null && !responseBodyString.isEmpty()) {
                 // Sanitize passwords from response body as well (in case server returns password)
-                String sanitizedResponseBody = sanitizePasswords(responseBodyString);
+                String sanitizedResponseBody = sanitizeSecrets(responseBodyString);
                 String responseLog = String.format("Response Body: %s", sanitizedResponseBody);
                 Log.i(TAG, method + " " + url + " - " + responseLog);
                 
@@ -260,7 +258,7 @@ public class ApiLoggingInterceptor implements Interceptor {
         int statusCode = response.code();
         String responseDetails = String.format("Status: %d, Duration: %dms", statusCode, duration);
         if (responseBodyString != null && !responseBodyString.isEmpty()) {
-            String sanitizedResponseBody = sanitizePasswords(responseBodyString);
+            String sanitizedResponseBody = sanitizeSecrets(responseBodyString);
             responseDetails += " - Body: " + sanitizedResponseBody;
         }
         
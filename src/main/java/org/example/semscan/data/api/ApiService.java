@@ -46,6 +46,15 @@ public interface ApiService {
     Call<Boolean> hasAttended(@Query("sessionId") Long sessionId,
                               @Query("studentUsername") String studentUsername);
 
+    /**
+     * @param since attendanceTime ("yyyy-MM-dd'T'HH:mm:ss", server time); only records at or after it
+     * are returned. Null for the full history. Servers that don't support the filter yet ignore it
+     * and return everything.
+     */
+    @GET("api/v1/attendance/student/{username}")
+    Call<List<Attendance>> getAttendanceByStudent(@Path("username") String username,
+                                                  @Query("since") String since);
+
     // =============================
     // Manual attendance workflow
     // =============================
@@ -68,6 +77,8 @@ public interface ApiService {
     // Presenter home + slot catalog
     // =============================
 
+    // Opened from several presenter screens at once - concurrent identical calls share one request
+    @SingleFlight
     @GET("api/v1/presenters/{username}/home")
     Call<PresenterHomeResponse> getPresenterHome(@Path("username") String username);
 
@@ -193,6 +204,11 @@ public interface ApiService {
         public String studentUsername;
         public String method;   // QR_SCAN | MANUAL | MANUAL_REQUEST | PROXY
         public long timestampMs;
+        public long sentAtMs;    // Device clock when this attempt was sent - lets the server correct for clock skew
+        public String clientRequestId; // Idempotency key - kept unchanged when the outbox replays this request
+        public Long qrTimeStep;   // Rotating QR token time step (null for the static QR)
+        public String qrSignature; // Rotating QR token signature, verified by the server
+                                   // against timestampMs (outbox replays arrive after the step is over)
 
         public SubmitAttendanceRequest(Long sessionId, String studentUsername, long timestampMs) {
             this(sessionId, studentUsername, "QR_SCAN", timestampMs);
@@ -203,6 +219,8 @@ public interface ApiService {
             this.studentUsername = studentUsername != null ? studentUsername.trim().toLowerCase() : null;
             this.method = method;
             this.timestampMs = timestampMs;
+            this.sentAtMs = timestampMs;
+            this.clientRequestId = java.util.UUID.randomUUID().toString();
         }
     }
 
@@ -329,6 +347,8 @@ public interface ApiService {
         public boolean alreadyOpen;
         public Long sessionId;
         public String qrPayload;
+        public String qrSecret;       // Per-session key for rotating QR tokens (null = static QR)
+        public Integer qrStepSeconds; // Rotation period for rotating QR tokens
     }
 
     class PresenterRegisterRequest {
@@ -368,6 +388,8 @@ public interface ApiService {
         public Long sessionId;
         public String qrPayload; // Legacy field - kept for backward compatibility
         public QrContent qrContent; // New nested structure
+        public String qrSecret;       // Per-session key for rotating QR tokens (null = static QR)
+        public Integer qrStepSeconds; // Rotation period for rotating QR tokens
         public ServerInfo serverInfo;
         public Metadata metadata;
         
@@ -643,6 +665,7 @@ public interface ApiService {
         public int waitingListLimitPerSlot;
         public int phdCapacityWeight;
         public boolean manualAttendanceEnabled;
+        public boolean compactLogUploads; // Backend accepts gzip bodies and the batch envelope on POST /api/v1/logs
     }
 
     // =============================
@@ -0,0 +1,60 @@
+package org.example.semscan.data.api;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * OkHttp network interceptor that makes the read endpoints handled by
+ * {@link StaleWhileRevalidateInterceptor} cacheable when the backend does not send caching headers.
+ *
+ * Responses get "Cache-Control: private, max-age=0": always stale, so every use is revalidated
+ * (If-None-Match when the backend sends an ETag), but still storable and servable with max-stale.
+ * Explicit Cache-Control headers from the backend are left untouched.
+ *
+ * Responses that can carry a session's qrSecret (presenter home, open attendance, attendance QR)
+ * get "Cache-Control: no-store" instead, whatever the backend sent, so the signing key never
+ * reaches the disk cache.
+ */
+public class CacheHeadersInterceptor implements Interceptor {
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+
+        if (carriesQrSecret(request.url().encodedPath())) {
+            return response.newBuilder()
+                    .removeHeader("Pragma")
+                    .header("Cache-Control", "no-store")
+                    .build();
+        }
+
+        if (!"GET".equals(request.method())
+                || response.code() != 200
+                || StaleWhileRevalidateInterceptor.staleWindowSeconds(request.url().encodedPath()) < 0
+                || response.header("Cache-Control") != null) {
+            return response;
+        }
+
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .header("Cache-Control", "private, max-age=0")
+                .build();
+    }
+
+    /**
+     * Paths whose responses may include qrSecret (see ApiService.AttendancePanel / PresenterAttendanceOpenResponse)
+     */
+    static boolean carriesQrSecret(String path) {
+        if (path == null || !path.startsWith("/api/v1/presenters/")) {
+            return false;
+        }
+        return path.endsWith("/home") || path.endsWith("/attendance/open") || path.endsWith("/attendance/qr");
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.semscan.data.api;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Per-host circuit breaker for the OkHttp chain.
+ *
+ * After FAILURE_THRESHOLD consecutive overload failures (IOException or 429/502/503/504) the
+ * circuit opens and requests to that host fail fast with {@link CircuitOpenException} instead of
+ * adding load. After a jittered cooldown one probe request is let through (half-open): success
+ * closes the circuit, failure re-opens it with a doubled cooldown (up to MAX_COOLDOWN_MS).
+ */
+public class CircuitBreakerInterceptor implements Interceptor {
+    private static final String TAG = "CircuitBreaker";
+
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final long BASE_COOLDOWN_MS = 10000; // 10s
+    private static final long MAX_COOLDOWN_MS = 60000;  // 60s
+
+    private final Map<String, HostCircuit> circuits = new ConcurrentHashMap<>();
+
+    /**
+     * Thrown instead of calling the backend while its circuit is open
+     */
+    public static class CircuitOpenException extends IOException {
+        public CircuitOpenException(String host, long retryInMs) {
+            super("Circuit open for " + host + " - retry in " + retryInMs + "ms");
+        }
+    }
+
+    private static final class HostCircuit {
+        int consecutiveFailures;
+        long openUntilMs;       // 0 = closed
+        long cooldownMs = BASE_COOLDOWN_MS;
+        boolean probeInFlight;  // Half-open: a single request is testing the backend
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (request.cacheControl().onlyIfCached()) {
+            return chain.proceed(request); // Served from disk cache, says nothing about the backend
+        }
+        String host = request.url().host() + ":" + request.url().port();
+        HostCircuit circuit = circuits.computeIfAbsent(host, h -> new HostCircuit());
+
+        boolean isProbe;
+        synchronized (circuit) {
+            long now = System.currentTimeMillis();
+            if (circuit.openUntilMs > now) {
+                throw new CircuitOpenException(host, circuit.openUntilMs - now);
+            }
+            if (circuit.openUntilMs != 0) {
+                // Cooldown elapsed - let exactly one probe through
+                if (circuit.probeInFlight) {
+                    throw new CircuitOpenException(host, 0);
+                }
+                circuit.probeInFlight = true;
+                isProbe = true;
+            } else {
+                isProbe = false;
+            }
+        }
+
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            if (chain.call().isCanceled()) {
+                release(circuit, isProbe);
+            } else {
+                recordFailure(host, circuit, isProbe);
+            }
+            throw e;
+        }
+
+        if (isOverloadStatus(response.code())) {
+            recordFailure(host, circuit, isProbe);
+        } else {
+            recordSuccess(host, circuit, isProbe);
+        }
+        return response;
+    }
+
+    private static boolean isOverloadStatus(int code) {
+        return code == 429 || code == 502 || code == 503 || code == 504;
+    }
+
+    private void recordSuccess(String host, HostCircuit circuit, boolean isProbe) {
+        synchronized (circuit) {
+            if (circuit.openUntilMs != 0 && isProbe) {
+                Log.i(TAG, "Circuit closed for " + host);
+            }
+            circuit.consecutiveFailures = 0;
+            circuit.openUntilMs = 0;
+            circuit.cooldownMs = BASE_COOLDOWN_MS;
+            if (isProbe) {
+                circuit.probeInFlight = false;
+            }
+        }
+    }
+
+    private void recordFailure(String host, HostCircuit circuit, boolean isProbe) {
+        synchronized (circuit) {
+            circuit.consecutiveFailures++;
+            if (isProbe) {
+                circuit.probeInFlight = false;
+                circuit.cooldownMs = Math.min(MAX_COOLDOWN_MS, circuit.cooldownMs * 2);
+            } else if (circuit.consecutiveFailures < FAILURE_THRESHOLD || circuit.openUntilMs != 0) {
+                return;
+            }
+            // Jitter the cooldown (75%-125%) so devices don't all probe at the same moment
+            long cooldown = (long) (circuit.cooldownMs * (0.75 + ThreadLocalRandom.current().nextDouble() * 0.5));
+            circuit.openUntilMs = System.currentTimeMillis() + cooldown;
+            Log.w(TAG, "Circuit opened for " + host + " after " + circuit.consecutiveFailures
+                    + " consecutive failures - cooling down " + cooldown + "ms");
+        }
+    }
+
+    private void release(HostCircuit circuit, boolean isProbe) {
+        if (!isProbe) {
+            return;
+        }
+        synchronized (circuit) {
+            circuit.probeInFlight = false;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.semscan.data.api;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.example.semscan.utils.ConfigManager;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * OkHttp interceptor that gzips the request body of batched log uploads (POST /api/v1/logs).
+ *
+ * Log batches are repetitive JSON and compress well, which saves radio time on cellular.
+ * The body is compressed into a buffer first so Content-Length stays known (no chunked upload).
+ * Registered after the logging interceptors so Logcat still shows the plain JSON.
+ * Only active once the mobile config reports compactLogUploads; older backends reject gzip bodies.
+ */
+public class GzipRequestInterceptor implements Interceptor {
+    private static final String LOGS_PATH = "/api/v1/logs";
+
+    private final Context context;
+
+    public GzipRequestInterceptor(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        RequestBody body = request.body();
+        if (body == null
+                || request.header("Content-Encoding") != null
+                || !LOGS_PATH.equals(request.url().encodedPath())
+                || !ConfigManager.getInstance(context).isCompactLogUploadEnabled()) {
+            return chain.proceed(request);
+        }
+
+        return chain.proceed(request.newBuilder()
+                .header("Content-Encoding", "gzip")
+                .method(request.method(), gzip(body))
+                .build());
+    }
+
+    private static RequestBody gzip(RequestBody body) throws IOException {
+        Buffer compressed = new Buffer();
+        try (BufferedSink gzipSink = Okio.buffer(new GzipSink(compressed))) {
+            body.writeTo(gzipSink);
+        }
+        return new RequestBody() {
+            @Nullable
+            @Override
+            public MediaType contentType() {
+                return body.contentType();
+            }
+
+            @Override
+            public long contentLength() {
+                return compressed.size();
+            }
+
+            @Override
+            public void writeTo(@NonNull BufferedSink sink) {
+                // Retries/redirects may write the body again, so copy rather than drain the buffer
+                compressed.copyTo(sink.getBuffer(), 0, compressed.size());
+            }
+        };
+    }
+}
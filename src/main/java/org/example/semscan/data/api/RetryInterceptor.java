@@ -0,0 +1,126 @@
+package org.example.semscan.data.api;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * OkHttp interceptor that retries idempotent requests (GET, HEAD, PUT, OPTIONS) on transient
+ * failures with decorrelated jitter: each delay is random between BASE_DELAY_MS and 3x the
+ * previous delay, capped at MAX_DELAY_MS. Randomized delays keep hundreds of devices from
+ * retrying in lockstep when the backend is overloaded.
+ *
+ * The wait sleeps on the OkHttp dispatcher thread (5 per host), so the delays are kept short and
+ * one request never waits more than MAX_TOTAL_DELAY_MS in total; longer outages are left to the
+ * callers and the circuit breaker.
+ *
+ * Retried: IOExceptions (except cancellation and an open circuit) and 429/502/503/504.
+ * POST/PATCH/DELETE are never retried here - a DELETE that reached the server before the
+ * connection dropped (registration/waiting list cancel) would answer 404 on the retry.
+ * Attendance replays go through AttendanceOutbox instead.
+ */
+public class RetryInterceptor implements Interceptor {
+    private static final String TAG = "RetryInterceptor";
+
+    private static final int MAX_RETRIES = 2;
+    private static final long BASE_DELAY_MS = 200;
+    private static final long MAX_DELAY_MS = 1000;
+    private static final long MAX_TOTAL_DELAY_MS = 1500;
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        // Cache-only probes (StaleWhileRevalidateInterceptor) answer 504 locally - nothing to retry
+        if (!isIdempotent(request.method()) || request.cacheControl().onlyIfCached()) {
+            return chain.proceed(request);
+        }
+
+        long delayMs = BASE_DELAY_MS;
+        long totalDelayMs = 0;
+        for (int attempt = 0; ; attempt++) {
+            Response response = null;
+            IOException failure = null;
+            try {
+                response = chain.proceed(request);
+            } catch (CircuitBreakerInterceptor.CircuitOpenException e) {
+                throw e; // Backend is shedding load - never retry into an open circuit
+            } catch (IOException e) {
+                failure = e;
+            }
+
+            boolean retryable = failure != null
+                    ? !chain.call().isCanceled()
+                    : isRetryableStatus(response.code());
+            if (!retryable || attempt >= MAX_RETRIES) {
+                if (failure != null) {
+                    throw failure;
+                }
+                return response;
+            }
+
+            delayMs = nextDelay(delayMs);
+            Long retryAfterMs = response != null ? parseRetryAfterMs(response.header("Retry-After")) : null;
+            if (retryAfterMs != null) {
+                delayMs = Math.max(delayMs, retryAfterMs);
+            }
+            if (delayMs > MAX_DELAY_MS || totalDelayMs + delayMs > MAX_TOTAL_DELAY_MS) {
+                // Longer pause than we are willing to block a dispatcher thread for
+                if (failure != null) {
+                    throw failure;
+                }
+                return response;
+            }
+            totalDelayMs += delayMs;
+            if (response != null) {
+                response.close();
+            }
+
+            Log.w(TAG, "Retrying " + request.method() + " " + request.url().encodedPath()
+                    + " (attempt " + (attempt + 2) + ") in " + delayMs + "ms - "
+                    + (failure != null ? failure.getClass().getSimpleName() : "HTTP " + response.code()));
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to retry");
+            }
+        }
+    }
+
+    private static boolean isIdempotent(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "PUT".equals(method)
+                || "OPTIONS".equals(method);
+    }
+
+    private static boolean isRetryableStatus(int code) {
+        return code == 429 || code == 502 || code == 503 || code == 504;
+    }
+
+    private static long nextDelay(long previousDelayMs) {
+        long upper = Math.min(MAX_DELAY_MS, previousDelayMs * 3);
+        return ThreadLocalRandom.current().nextLong(BASE_DELAY_MS, Math.max(BASE_DELAY_MS, upper) + 1);
+    }
+
+    /**
+     * Retry-After in delta-seconds form; HTTP-date form is ignored
+     */
+    private static Long parseRetryAfterMs(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim()) * 1000L;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
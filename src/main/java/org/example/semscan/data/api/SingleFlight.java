@@ -0,0 +1,22 @@
+package org.example.semscan.data.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an {@link ApiService} GET method whose concurrent identical calls should be coalesced.
+ *
+ * While a call for a given method + URL (path and query arguments) is in flight, further calls
+ * with the same key join it instead of hitting the network: one request, one Gson parse, and
+ * every caller receives the same Response object. Callers must treat the body as read-only.
+ *
+ * @see SingleFlightCallAdapterFactory
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SingleFlight {
+}
@@ -0,0 +1,239 @@
+package org.example.semscan.data.api;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+/**
+ * Retrofit CallAdapter.Factory that coalesces concurrent calls to {@link SingleFlight} methods.
+ *
+ * Only enqueue() is coalesced - execute() always runs its own request. Callbacks are delivered
+ * through the wrapped default adapter, so they still arrive on the main thread. Error responses
+ * get a separate copy of the error body per caller; a successful body is shared.
+ * A caller that cancels is detached (and gets onFailure "Canceled" when the flight ends);
+ * the underlying request is only cancelled once every caller has cancelled.
+ */
+public final class SingleFlightCallAdapterFactory extends CallAdapter.Factory {
+
+    private final Object lock = new Object();
+    private final Map<String, Flight<?>> inFlight = new HashMap<>();
+
+    @Override
+    public CallAdapter<?, ?> get(@NonNull Type returnType, @NonNull Annotation[] annotations, @NonNull Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class || !isSingleFlight(annotations)) {
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        final CallAdapter<Object, Object> delegate =
+                (CallAdapter<Object, Object>) retrofit.nextCallAdapter(this, returnType, annotations);
+        return new CallAdapter<Object, Call<Object>>() {
+            @NonNull
+            @Override
+            public Type responseType() {
+                return delegate.responseType();
+            }
+
+            @NonNull
+            @Override
+            @SuppressWarnings("unchecked")
+            public Call<Object> adapt(@NonNull Call<Object> call) {
+                return new SingleFlightCall<>((Call<Object>) delegate.adapt(call));
+            }
+        };
+    }
+
+    private static boolean isSingleFlight(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof SingleFlight) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String keyOf(Request request) {
+        return request.method() + " " + request.url();
+    }
+
+    /**
+     * One network call shared by every caller that joined while it was in flight
+     */
+    private final class Flight<T> implements Callback<T> {
+        private final String key;
+        private final Call<T> call;
+        private final Map<SingleFlightCall<T>, Callback<T>> callers = new LinkedHashMap<>();
+        private final List<SingleFlightCall<T>> canceledCallers = new ArrayList<>();
+
+        Flight(String key, Call<T> call) {
+            this.key = key;
+            this.call = call;
+        }
+
+        @Override
+        public void onResponse(@NonNull Call<T> call, @NonNull Response<T> response) {
+            Map<SingleFlightCall<T>, Callback<T>> waiters = finish();
+            byte[] errorBytes = null;
+            MediaType errorType = null;
+            if (!response.isSuccessful() && response.errorBody() != null) {
+                // Each caller reads errorBody() itself, so copy it once and hand out fresh bodies.
+                // Retrofit has already buffered error bodies, this doesn't touch the network.
+                ResponseBody errorBody = response.errorBody();
+                errorType = errorBody.contentType();
+                try {
+                    errorBytes = errorBody.bytes();
+                } catch (IOException e) {
+                    errorBytes = new byte[0];
+                }
+            }
+            for (Map.Entry<SingleFlightCall<T>, Callback<T>> entry : waiters.entrySet()) {
+                if (entry.getKey().isCanceled()) {
+                    entry.getValue().onFailure(entry.getKey(), new IOException("Canceled"));
+                } else if (errorBytes != null) {
+                    entry.getValue().onResponse(entry.getKey(),
+                            Response.<T>error(ResponseBody.create(errorType, errorBytes), response.raw()));
+                } else {
+                    entry.getValue().onResponse(entry.getKey(), response);
+                }
+            }
+        }
+
+        @Override
+        public void onFailure(@NonNull Call<T> call, @NonNull Throwable t) {
+            for (Map.Entry<SingleFlightCall<T>, Callback<T>> entry : finish().entrySet()) {
+                entry.getValue().onFailure(entry.getKey(), t);
+            }
+        }
+
+        private Map<SingleFlightCall<T>, Callback<T>> finish() {
+            synchronized (lock) {
+                if (inFlight.get(key) == this) {
+                    inFlight.remove(key);
+                }
+                return new LinkedHashMap<>(callers);
+            }
+        }
+    }
+
+    /**
+     * Call handed to ApiService users; joins or starts a Flight on enqueue()
+     */
+    private final class SingleFlightCall<T> implements Call<T> {
+        private final Call<T> delegate;
+        private Flight<T> flight;
+        private volatile boolean executed;
+        private volatile boolean canceled;
+
+        SingleFlightCall(Call<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void enqueue(@NonNull Callback<T> callback) {
+            boolean start = false;
+            synchronized (lock) {
+                if (executed) {
+                    throw new IllegalStateException("Already executed.");
+                }
+                executed = true;
+                String key = keyOf(delegate.request());
+                Flight<T> existing = (Flight<T>) inFlight.get(key);
+                if (existing != null) {
+                    flight = existing;
+                } else {
+                    flight = new Flight<>(key, delegate);
+                    inFlight.put(key, flight);
+                    start = true;
+                }
+                flight.callers.put(this, callback);
+            }
+            if (start) {
+                flight.call.enqueue(flight);
+            }
+        }
+
+        @NonNull
+        @Override
+        public Response<T> execute() throws IOException {
+            synchronized (lock) {
+                if (executed) {
+                    throw new IllegalStateException("Already executed.");
+                }
+                executed = true;
+            }
+            return delegate.execute();
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed;
+        }
+
+        @Override
+        public void cancel() {
+            Call<T> toCancel = null;
+            synchronized (lock) {
+                if (canceled) {
+                    return;
+                }
+                canceled = true;
+                if (flight == null) {
+                    toCancel = delegate;
+                } else {
+                    flight.canceledCallers.add(this);
+                    if (flight.canceledCallers.size() == flight.callers.size()) {
+                        // Nobody is waiting for the result any more
+                        if (inFlight.get(flight.key) == flight) {
+                            inFlight.remove(flight.key);
+                        }
+                        toCancel = flight.call;
+                    }
+                }
+            }
+            if (toCancel != null) {
+                toCancel.cancel();
+            }
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @NonNull
+        @Override
+        public Call<T> clone() {
+            return new SingleFlightCall<>(delegate.clone());
+        }
+
+        @NonNull
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+
+        @NonNull
+        @Override
+        public Timeout timeout() {
+            return delegate.timeout();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.semscan.data.api;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.CacheControl;
+import okhttp3.Callback;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * OkHttp application interceptor that serves rarely-changing read endpoints from the HTTP cache
+ * while revalidating them in the background (stale-while-revalidate).
+ *
+ * Flow for a whitelisted GET:
+ * 1. Try the disk cache only (only-if-cached + max-stale = endpoint window)
+ * 2. Hit: return it immediately and fire one background conditional request
+ *    (max-age=0 makes OkHttp send If-None-Match / If-Modified-Since; a 304 just refreshes the entry)
+ * 3. Miss: normal network request (still conditional if an older entry exists)
+ *
+ * Any successful mutating request (POST/PUT/PATCH/DELETE) invalidates stale serving, so screens
+ * that refresh right after register/cancel/open always see the network result.
+ */
+public class StaleWhileRevalidateInterceptor implements Interceptor {
+    private static final String TAG = "StaleWhileRevalidate";
+    private static final String HEADER_REVALIDATE = "X-SemScan-Revalidate";
+    private static final String LOGS_PATH = "/api/v1/logs";
+
+    private final Set<String> inFlightRevalidations = ConcurrentHashMap.newKeySet();
+    private volatile OkHttpClient client; // Set by ApiClient once the shared client is built
+    private volatile long lastMutationAtMs = 0L;
+
+    /**
+     * Attach the client used for background revalidation calls
+     */
+    public void attach(OkHttpClient client) {
+        this.client = client;
+    }
+
+    /**
+     * How long (seconds) a cached response for this path may be served stale, or -1 if the path
+     * must always go to the network.
+     */
+    static int staleWindowSeconds(String path) {
+        if (path == null) {
+            return -1;
+        }
+        if (path.equals("/api/v1/config/mobile")) {
+            return 24 * 60 * 60; // Config changes at most a few times a semester
+        }
+        if (path.equals("/api/announcement")) {
+            return 60 * 60;
+        }
+        if (path.equals("/api/v1/slots")) {
+            return 60;
+        }
+        // Presenter home is not listed: it can carry the session's qrSecret and is never stored
+        // (CacheHeadersInterceptor); SlotCardRepository keeps a copy without the secret instead.
+        // Open sessions are not listed either: the student home gate and the scanner decide from
+        // them, and a just-opened or just-closed session must show up immediately.
+        return -1;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+
+        // Background revalidation issued by this interceptor - go straight to the (conditional) network path
+        if (request.header(HEADER_REVALIDATE) != null) {
+            return chain.proceed(request.newBuilder().removeHeader(HEADER_REVALIDATE).build());
+        }
+
+        if (!"GET".equals(request.method())) {
+            Response response = chain.proceed(request);
+            if (response.isSuccessful() && !LOGS_PATH.equals(request.url().encodedPath())) {
+                lastMutationAtMs = System.currentTimeMillis();
+            }
+            return response;
+        }
+
+        int staleWindow = staleWindowSeconds(request.url().encodedPath());
+        if (staleWindow < 0 || request.cacheControl().noCache()) {
+            return chain.proceed(request);
+        }
+
+        Request cacheOnly = request.newBuilder()
+                .cacheControl(new CacheControl.Builder()
+                        .onlyIfCached()
+                        .maxStale(staleWindow, TimeUnit.SECONDS)
+                        .build())
+                .build();
+        Response cached = chain.proceed(cacheOnly);
+
+        // 504 = nothing usable in cache; also ignore entries older than the last mutation
+        if (cached.code() == 504 || cached.receivedResponseAtMillis() <= lastMutationAtMs) {
+            cached.close();
+            return chain.proceed(request);
+        }
+
+        String warning = cached.header("Warning");
+        if (warning != null && warning.startsWith("110")) {
+            revalidateInBackground(request);
+        }
+        return cached;
+    }
+
+    private void revalidateInBackground(Request request) {
+        OkHttpClient revalidationClient = client;
+        String url = request.url().toString();
+        if (revalidationClient == null || !inFlightRevalidations.add(url)) {
+            return;
+        }
+
+        Request revalidation = request.newBuilder()
+                .header(HEADER_REVALIDATE, "1")
+                .cacheControl(new CacheControl.Builder().maxAge(0, TimeUnit.SECONDS).build())
+                .build();
+        revalidationClient.newCall(revalidation).enqueue(new Callback() {
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                inFlightRevalidations.remove(url);
+                // Reading the body to the end commits the refreshed entry to the cache
+                try {
+                    if (response.body() != null) {
+                        response.body().string();
+                    }
+                } catch (IOException e) {
+                    Log.w(TAG, "Failed to read revalidation response for " + url, e);
+                } finally {
+                    response.close();
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                inFlightRevalidations.remove(url);
+                Log.w(TAG, "Background revalidation failed for " + url + ": " + e.getMessage());
+            }
+        });
+    }
+}
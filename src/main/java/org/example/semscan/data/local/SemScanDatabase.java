@@ -0,0 +1,185 @@
+package org.example.semscan.data.local;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import org.example.semscan.utils.Logger;
+
+/**
+ * Local SQLite database for data that must survive process death.
+ *
+ * Tables:
+ * - attendance_outbox: QR attendance submissions waiting to be (re)sent (see AttendanceOutbox)
+ * - sessions, attendance, slot_cards, presenter_home, manual_requests: last known server data,
+ *   shown immediately on screen open and refreshed from the network (see data.repository).
+ *   Rows keep the server JSON in a payload column; the other columns are for lookups and ordering.
+ *
+ * Versions:
+ * 1 - attendance_outbox
+ * 2 - cache tables
+ * 3 - attendance_outbox.qr_time_step / qr_signature (rotating QR token of the queued scan)
+ * 4 - attendance.timestamp_ms is the server's attendanceTime read as UTC (was device time zone);
+ *     cached attendance rows are dropped and re-fetched
+ */
+public class SemScanDatabase extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "semscan.db";
+    private static final int DATABASE_VERSION = 4;
+
+    // attendance_outbox
+    public static final String TABLE_ATTENDANCE_OUTBOX = "attendance_outbox";
+    public static final String COL_ID = "_id";
+    public static final String COL_CLIENT_REQUEST_ID = "client_request_id";
+    public static final String COL_SESSION_ID = "session_id";
+    public static final String COL_STUDENT_USERNAME = "student_username";
+    public static final String COL_METHOD = "method";
+    public static final String COL_TIMESTAMP_MS = "timestamp_ms";
+    public static final String COL_CREATED_AT = "created_at";
+    public static final String COL_ATTEMPTS = "attempts";
+    public static final String COL_NEXT_ATTEMPT_AT = "next_attempt_at";
+    public static final String COL_LAST_DELAY_MS = "last_delay_ms";
+    public static final String COL_QR_TIME_STEP = "qr_time_step";
+    public static final String COL_QR_SIGNATURE = "qr_signature";
+
+    // Columns shared by the cache tables
+    public static final String COL_OWNER_USERNAME = "owner_username"; // User the row was fetched for
+    public static final String COL_POSITION = "position";             // Order in the server response
+    public static final String COL_PAYLOAD = "payload";               // Server JSON of the row
+    public static final String COL_UPDATED_AT = "updated_at";
+
+    // sessions (open sessions as last returned by the server)
+    public static final String TABLE_SESSIONS = "sessions";
+    public static final String COL_STATUS = "status";
+    public static final String COL_START_TIME = "start_time";
+
+    // attendance (a student's attendance history)
+    public static final String TABLE_ATTENDANCE = "attendance";
+    public static final String COL_ATTENDANCE_ID = "attendance_id";
+    public static final String COL_ATTENDANCE_TIME = "attendance_time";
+
+    // slot_cards + presenter_home (presenter home response, split into catalog rows and the rest)
+    public static final String TABLE_SLOT_CARDS = "slot_cards";
+    public static final String COL_SLOT_ID = "slot_id";
+    public static final String TABLE_PRESENTER_HOME = "presenter_home";
+
+    // manual_requests (manual attendance requests this device submitted)
+    public static final String TABLE_MANUAL_REQUESTS = "manual_requests";
+    public static final String COL_REQUEST_STATUS = "request_status";
+
+    private static SemScanDatabase instance;
+
+    private SemScanDatabase(Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    public static synchronized SemScanDatabase getInstance(Context context) {
+        if (instance == null) {
+            instance = new SemScanDatabase(context);
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        createAttendanceOutbox(db);
+        createCacheTables(db);
+        Logger.i(Logger.TAG_APP_START, "Created local database " + DATABASE_NAME + " v" + DATABASE_VERSION);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        Logger.i(Logger.TAG_APP_START, "Upgrading local database from v" + oldVersion + " to v" + newVersion);
+        if (oldVersion < 2) {
+            createCacheTables(db);
+        }
+        if (oldVersion < 3) {
+            db.execSQL("ALTER TABLE " + TABLE_ATTENDANCE_OUTBOX + " ADD COLUMN " + COL_QR_TIME_STEP + " INTEGER");
+            db.execSQL("ALTER TABLE " + TABLE_ATTENDANCE_OUTBOX + " ADD COLUMN " + COL_QR_SIGNATURE + " TEXT");
+        }
+        if (oldVersion == 2 || oldVersion == 3) {
+            db.delete(TABLE_ATTENDANCE, null, null);
+        }
+    }
+
+    /**
+     * Drop every cached server response (logout). The outbox is kept: queued submissions still
+     * belong to the student who scanned and are delivered as such.
+     */
+    public void clearCacheTables() {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (String table : new String[]{TABLE_SESSIONS, TABLE_ATTENDANCE, TABLE_SLOT_CARDS,
+                    TABLE_PRESENTER_HOME, TABLE_MANUAL_REQUESTS}) {
+                db.delete(table, null, null);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private void createAttendanceOutbox(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_ATTENDANCE_OUTBOX + " ("
+                + COL_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COL_CLIENT_REQUEST_ID + " TEXT NOT NULL UNIQUE, "
+                + COL_SESSION_ID + " INTEGER NOT NULL, "
+                + COL_STUDENT_USERNAME + " TEXT NOT NULL, "
+                + COL_METHOD + " TEXT NOT NULL, "
+                + COL_TIMESTAMP_MS + " INTEGER NOT NULL, "
+                + COL_CREATED_AT + " INTEGER NOT NULL, "
+                + COL_ATTEMPTS + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_NEXT_ATTEMPT_AT + " INTEGER NOT NULL, "
+                + COL_LAST_DELAY_MS + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_QR_TIME_STEP + " INTEGER, "
+                + COL_QR_SIGNATURE + " TEXT)");
+        db.execSQL("CREATE INDEX idx_outbox_next_attempt ON " + TABLE_ATTENDANCE_OUTBOX
+                + " (" + COL_NEXT_ATTEMPT_AT + ")");
+    }
+
+    private void createCacheTables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_SESSIONS + " ("
+                + COL_SESSION_ID + " INTEGER PRIMARY KEY, "
+                + COL_STATUS + " TEXT, "
+                + COL_START_TIME + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_POSITION + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_PAYLOAD + " TEXT NOT NULL, "
+                + COL_UPDATED_AT + " INTEGER NOT NULL)");
+
+        db.execSQL("CREATE TABLE " + TABLE_ATTENDANCE + " ("
+                + COL_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COL_ATTENDANCE_ID + " INTEGER UNIQUE, "
+                + COL_SESSION_ID + " INTEGER, "
+                + COL_STUDENT_USERNAME + " TEXT NOT NULL, "
+                + COL_ATTENDANCE_TIME + " TEXT, "
+                + COL_TIMESTAMP_MS + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_PAYLOAD + " TEXT NOT NULL, "
+                + COL_UPDATED_AT + " INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX idx_attendance_student_time ON " + TABLE_ATTENDANCE
+                + " (" + COL_STUDENT_USERNAME + ", " + COL_TIMESTAMP_MS + ")");
+
+        db.execSQL("CREATE TABLE " + TABLE_SLOT_CARDS + " ("
+                + COL_OWNER_USERNAME + " TEXT NOT NULL, "
+                + COL_SLOT_ID + " INTEGER NOT NULL, "
+                + COL_POSITION + " INTEGER NOT NULL, "
+                + COL_PAYLOAD + " TEXT NOT NULL, "
+                + COL_UPDATED_AT + " INTEGER NOT NULL, "
+                + "PRIMARY KEY (" + COL_OWNER_USERNAME + ", " + COL_SLOT_ID + "))");
+
+        db.execSQL("CREATE TABLE " + TABLE_PRESENTER_HOME + " ("
+                + COL_OWNER_USERNAME + " TEXT PRIMARY KEY, "
+                + COL_PAYLOAD + " TEXT NOT NULL, "
+                + COL_UPDATED_AT + " INTEGER NOT NULL)");
+
+        db.execSQL("CREATE TABLE " + TABLE_MANUAL_REQUESTS + " ("
+                + COL_ATTENDANCE_ID + " INTEGER PRIMARY KEY, "
+                + COL_SESSION_ID + " INTEGER, "
+                + COL_STUDENT_USERNAME + " TEXT, "
+                + COL_REQUEST_STATUS + " TEXT, "
+                + COL_PAYLOAD + " TEXT NOT NULL, "
+                + COL_UPDATED_AT + " INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX idx_manual_requests_student ON " + TABLE_MANUAL_REQUESTS
+                + " (" + COL_STUDENT_USERNAME + ", " + COL_SESSION_ID + ")");
+    }
+}
@@ -5,6 +5,16 @@ import com.google.gson.annotations.SerializedName;
 public class QRPayload {
     @SerializedName("sessionId")
     private Long sessionId;
+
+    // Rotating signed token fields (absent in the static {"sessionId":N} QR) - see QrTokenSigner
+    @SerializedName("t")
+    private Long timeStep;
+
+    @SerializedName("p")
+    private Integer stepSeconds;
+
+    @SerializedName("sig")
+    private String signature;
     
     public QRPayload() {}
     
@@ -20,10 +30,39 @@ public class QRPayload {
         this.sessionId = sessionId;
     }
     
+    public Long getTimeStep() {
+        return timeStep;
+    }
+
+    public void setTimeStep(Long timeStep) {
+        this.timeStep = timeStep;
+    }
+
+    public Integer getStepSeconds() {
+        return stepSeconds;
+    }
+
+    public void setStepSeconds(Integer stepSeconds) {
+        this.stepSeconds = stepSeconds;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public void setSignature(String signature) {
+        this.signature = signature;
+    }
+
+    public boolean isSigned() {
+        return timeStep != null && signature != null;
+    }
+    
     @Override
     public String toString() {
         return "QRPayload{" +
                 "sessionId='" + sessionId + '\'' +
+                ", timeStep=" + timeStep +
                 '}';
     }
 }
@@ -0,0 +1,125 @@
+package org.example.semscan.data.repository;
+
+import com.google.gson.Gson;
+
+import org.example.semscan.data.model.Attendance;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * What one attendance sync response changes in a student's stored history.
+ *
+ * A response to a windowed request ("since") holds every record from the window start on, so
+ * stored rows inside the window that are missing from it were deleted on the server. A response
+ * holding records older than the window start means the server ignored the filter; it is then
+ * treated as the full history and every stored row missing from it is deleted.
+ *
+ * Times are the server's zone-less attendanceTime read as UTC, so they compare and shift
+ * consistently whatever the device time zone is; they are never shown as instants.
+ */
+final class AttendanceMerge {
+
+    private static final String TIME_PATTERN = "yyyy-MM-dd'T'HH:mm:ss";
+
+    /**
+     * A stored row as the merge needs it
+     */
+    static final class StoredRow {
+        final long timestampMs;
+        final String payload;
+
+        StoredRow(long timestampMs, String payload) {
+            this.timestampMs = timestampMs;
+            this.payload = payload;
+        }
+    }
+
+    final boolean fullList;
+    final List<Attendance> inserts = new ArrayList<>();
+    final List<Attendance> updates = new ArrayList<>();
+    final List<Long> deletes = new ArrayList<>();
+
+    private AttendanceMerge(boolean fullList) {
+        this.fullList = fullList;
+    }
+
+    /**
+     * @param stored attendanceId -> stored row for the student
+     * @param sinceMs window start sent with the request (see parseTime), null for a full fetch
+     */
+    static AttendanceMerge plan(Map<Long, StoredRow> stored, List<Attendance> records, Long sinceMs, Gson gson) {
+        boolean fullList = sinceMs == null;
+        if (!fullList) {
+            for (Attendance record : records) {
+                long time = record != null ? parseTime(record.getAttendanceTime()) : 0;
+                if (time > 0 && time < sinceMs) {
+                    // Older than the window: the server ignored "since" and sent everything
+                    fullList = true;
+                    break;
+                }
+            }
+        }
+
+        AttendanceMerge merge = new AttendanceMerge(fullList);
+        Set<Long> seen = new HashSet<>();
+        for (Attendance record : records) {
+            if (record == null || record.getAttendanceId() == null || !seen.add(record.getAttendanceId())) {
+                continue;
+            }
+            StoredRow previous = stored.get(record.getAttendanceId());
+            if (previous == null) {
+                merge.inserts.add(record);
+            } else if (!gson.toJson(record).equals(previous.payload)) {
+                merge.updates.add(record);
+            }
+        }
+        for (Map.Entry<Long, StoredRow> row : stored.entrySet()) {
+            if (seen.contains(row.getKey())) {
+                continue;
+            }
+            if (fullList || row.getValue().timestampMs >= sinceMs) {
+                merge.deletes.add(row.getKey());
+            }
+        }
+        return merge;
+    }
+
+    /**
+     * attendanceTime ("yyyy-MM-dd'T'HH:mm:ss", server local time) read as UTC millis,
+     * 0 if missing or unparseable
+     */
+    static long parseTime(String attendanceTime) {
+        if (attendanceTime == null || attendanceTime.isEmpty()) {
+            return 0;
+        }
+        try {
+            Date date = timeFormat().parse(attendanceTime);
+            return date != null ? date.getTime() : 0;
+        } catch (ParseException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Inverse of parseTime, for the "since" cursor
+     */
+    static String formatTime(long timeMs) {
+        return timeFormat().format(new Date(timeMs));
+    }
+
+    private static SimpleDateFormat timeFormat() {
+        SimpleDateFormat format = new SimpleDateFormat(TIME_PATTERN, Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        format.setLenient(false);
+        return format;
+    }
+}
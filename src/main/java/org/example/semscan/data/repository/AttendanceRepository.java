@@ -0,0 +1,246 @@
+package org.example.semscan.data.repository;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+
+import org.example.semscan.data.api.ApiClient;
+import org.example.semscan.data.local.SemScanDatabase;
+import org.example.semscan.data.model.Attendance;
+import org.example.semscan.utils.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * A student's attendance history, cached per username and kept up to date with windowed syncs.
+ *
+ * attendanceTime is when the scan happened, not when the server stored the record: outbox
+ * replays, late manual approvals and edits can land behind the newest stored time. So a sync
+ * re-fetches a trailing window (WINDOW_MS before the newest stored record) and diffs it, and
+ * every FULL_SYNC_EVERY syncs (or after FULL_SYNC_MAX_AGE_MS) fetches and diffs the full history
+ * to pick up changes to older rows. See AttendanceMerge for the diff.
+ */
+public class AttendanceRepository extends CachedRepository {
+
+    private static final String TAG = "AttendanceRepository";
+
+    private static final long WINDOW_MS = 7 * 24 * 60 * 60 * 1000L;          // 7 days
+    private static final int FULL_SYNC_EVERY = 10;
+    private static final long FULL_SYNC_MAX_AGE_MS = 24 * 60 * 60 * 1000L;   // 1 day
+
+    private static final String PREFS_NAME = "attendance_sync";
+    private static final String KEY_SYNCS_SINCE_FULL = "syncs_since_full_";
+    private static final String KEY_LAST_FULL_SYNC_AT = "last_full_sync_at_";
+
+    private static AttendanceRepository instance;
+    private final Context context;
+    private final SharedPreferences syncState;
+
+    /**
+     * Result of a sync, delivered on the main thread
+     */
+    public interface SyncCallback {
+        /**
+         * @param history the merged history, most recent first
+         * @param newRecords records that weren't stored before this sync
+         */
+        void onSynced(List<Attendance> history, int newRecords);
+
+        /**
+         * @param httpCode response code, or 0 if the request didn't reach the server
+         * @param t the network failure, or null for an error response
+         */
+        void onSyncFailed(int httpCode, Throwable t);
+    }
+
+    private AttendanceRepository(Context context) {
+        super(context);
+        this.context = context.getApplicationContext();
+        this.syncState = this.context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    public static synchronized AttendanceRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new AttendanceRepository(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Deliver the cached history (if any), then fetch the recent window (or everything) and deliver the merged result
+     */
+    public void syncStudentAttendance(String username, CacheListener<List<Attendance>> cacheListener,
+                                      SyncCallback callback) {
+        String owner = normalize(username);
+        readAsync(() -> {
+            List<Attendance> cached = readAttendance(owner);
+            if (cached != null && cacheListener != null) {
+                postToMain(() -> cacheListener.onCached(cached));
+            }
+            return fullSyncDue(owner) ? Long.valueOf(0) : readWindowStart(owner);
+        }, windowStart -> {
+            Long sinceMs = windowStart != null && windowStart > 0 ? windowStart : null;
+            String since = sinceMs != null ? AttendanceMerge.formatTime(sinceMs) : null;
+            Logger.i(TAG, "Syncing attendance for " + owner + (since != null ? " since " + since : " (full)"));
+            ApiClient.getInstance(context).getApiService().getAttendanceByStudent(username, since)
+                    .enqueue(new Callback<List<Attendance>>() {
+                        @Override
+                        public void onResponse(@NonNull Call<List<Attendance>> call, @NonNull Response<List<Attendance>> response) {
+                            List<Attendance> records = response.body();
+                            if (!response.isSuccessful() || records == null) {
+                                callback.onSyncFailed(response.code(), null);
+                                return;
+                            }
+                            readAsync(() -> {
+                                int newRecords = merge(owner, records, sinceMs);
+                                List<Attendance> history = readAttendance(owner);
+                                return new SyncResult(history != null ? history : new ArrayList<>(), newRecords);
+                            }, result -> {
+                                if (result == null) {
+                                    callback.onSyncFailed(response.code(), null);
+                                } else {
+                                    callback.onSynced(result.history, result.newRecords);
+                                }
+                            });
+                        }
+
+                        @Override
+                        public void onFailure(@NonNull Call<List<Attendance>> call, @NonNull Throwable t) {
+                            callback.onSyncFailed(0, t);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Forget sync progress for every student (logout); the rows themselves are cleared with the database
+     */
+    public void clearSyncState() {
+        syncState.edit().clear().apply();
+    }
+
+    private List<Attendance> readAttendance(String owner) {
+        try (Cursor cursor = database.getReadableDatabase().query(SemScanDatabase.TABLE_ATTENDANCE,
+                new String[]{SemScanDatabase.COL_PAYLOAD},
+                SemScanDatabase.COL_STUDENT_USERNAME + " = ?", new String[]{owner}, null, null,
+                SemScanDatabase.COL_TIMESTAMP_MS + " DESC, " + SemScanDatabase.COL_ID + " DESC")) {
+            List<Attendance> records = readPayloads(cursor, Attendance.class);
+            return records.isEmpty() ? null : records;
+        }
+    }
+
+    private boolean fullSyncDue(String owner) {
+        long lastFull = syncState.getLong(KEY_LAST_FULL_SYNC_AT + owner, 0);
+        return syncState.getInt(KEY_SYNCS_SINCE_FULL + owner, 0) >= FULL_SYNC_EVERY - 1
+                || System.currentTimeMillis() - lastFull > FULL_SYNC_MAX_AGE_MS;
+    }
+
+    /**
+     * WINDOW_MS before the newest stored attendanceTime (index on student_username, timestamp_ms), null if none
+     */
+    private Long readWindowStart(String owner) {
+        try (Cursor cursor = database.getReadableDatabase().rawQuery(
+                "SELECT MAX(" + SemScanDatabase.COL_TIMESTAMP_MS + ") FROM " + SemScanDatabase.TABLE_ATTENDANCE
+                        + " WHERE " + SemScanDatabase.COL_STUDENT_USERNAME + " = ?", new String[]{owner})) {
+            if (cursor.moveToFirst() && !cursor.isNull(0) && cursor.getLong(0) > WINDOW_MS) {
+                return cursor.getLong(0) - WINDOW_MS;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Merge a server response into the stored history (database thread)
+     * @param sinceMs the window start sent with the request, null for a full fetch
+     * @return number of records that weren't stored before
+     */
+    private int merge(String owner, List<Attendance> records, Long sinceMs) {
+        AttendanceMerge plan = AttendanceMerge.plan(readStoredRows(owner), records, sinceMs, gson);
+        long now = System.currentTimeMillis();
+        int[] unmatchedRemoved = new int[1];
+        inTransaction(db -> {
+            for (Attendance record : plan.inserts) {
+                store(db, owner, record, now);
+            }
+            for (Attendance record : plan.updates) {
+                store(db, owner, record, now);
+            }
+            for (Long attendanceId : plan.deletes) {
+                db.delete(SemScanDatabase.TABLE_ATTENDANCE, SemScanDatabase.COL_ATTENDANCE_ID + " = ?",
+                        new String[]{String.valueOf(attendanceId)});
+            }
+            if (plan.fullList) {
+                // Rows without an id can't be matched; the full list has them under their id if they still exist
+                unmatchedRemoved[0] = db.delete(SemScanDatabase.TABLE_ATTENDANCE, SemScanDatabase.COL_STUDENT_USERNAME
+                        + " = ? AND " + SemScanDatabase.COL_ATTENDANCE_ID + " IS NULL", new String[]{owner});
+            }
+        });
+
+        SharedPreferences.Editor editor = syncState.edit();
+        if (plan.fullList) {
+            editor.putInt(KEY_SYNCS_SINCE_FULL + owner, 0).putLong(KEY_LAST_FULL_SYNC_AT + owner, now);
+        } else {
+            editor.putInt(KEY_SYNCS_SINCE_FULL + owner, syncState.getInt(KEY_SYNCS_SINCE_FULL + owner, 0) + 1);
+        }
+        editor.apply();
+
+        Logger.i(TAG, (plan.fullList ? "Full" : "Window") + " attendance sync for " + owner + ": received=" + records.size()
+                + ", new=" + plan.inserts.size() + ", changed=" + plan.updates.size()
+                + ", removed=" + (plan.deletes.size() + unmatchedRemoved[0]));
+        return plan.inserts.size();
+    }
+
+    private void store(SQLiteDatabase db, String owner, Attendance record, long now) {
+        ContentValues values = new ContentValues();
+        values.put(SemScanDatabase.COL_ATTENDANCE_ID, record.getAttendanceId());
+        values.put(SemScanDatabase.COL_SESSION_ID, record.getSessionId());
+        values.put(SemScanDatabase.COL_STUDENT_USERNAME, owner);
+        values.put(SemScanDatabase.COL_ATTENDANCE_TIME, record.getAttendanceTime());
+        values.put(SemScanDatabase.COL_TIMESTAMP_MS, AttendanceMerge.parseTime(record.getAttendanceTime()));
+        values.put(SemScanDatabase.COL_PAYLOAD, gson.toJson(record));
+        values.put(SemScanDatabase.COL_UPDATED_AT, now);
+        db.insertWithOnConflict(SemScanDatabase.TABLE_ATTENDANCE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /**
+     * attendanceId -> stored row for the student (database thread)
+     */
+    private Map<Long, AttendanceMerge.StoredRow> readStoredRows(String owner) {
+        Map<Long, AttendanceMerge.StoredRow> stored = new HashMap<>();
+        try (Cursor cursor = database.getReadableDatabase().query(SemScanDatabase.TABLE_ATTENDANCE,
+                new String[]{SemScanDatabase.COL_ATTENDANCE_ID, SemScanDatabase.COL_TIMESTAMP_MS, SemScanDatabase.COL_PAYLOAD},
+                SemScanDatabase.COL_STUDENT_USERNAME + " = ? AND " + SemScanDatabase.COL_ATTENDANCE_ID + " IS NOT NULL",
+                new String[]{owner}, null, null, null)) {
+            while (cursor.moveToNext()) {
+                stored.put(cursor.getLong(0), new AttendanceMerge.StoredRow(cursor.getLong(1), cursor.getString(2)));
+            }
+        }
+        return stored;
+    }
+
+    private static String normalize(String username) {
+        return username != null ? username.trim().toLowerCase(Locale.US) : "";
+    }
+
+    private static final class SyncResult {
+        final List<Attendance> history;
+        final int newRecords;
+
+        SyncResult(List<Attendance> history, int newRecords) {
+            this.history = history;
+            this.newRecords = newRecords;
+        }
+    }
+}
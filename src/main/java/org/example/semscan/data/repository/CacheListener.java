@@ -0,0 +1,11 @@
+package org.example.semscan.data.repository;
+
+/**
+ * Receives a repository's locally cached copy, on the main thread
+ */
+public interface CacheListener<T> {
+    /**
+     * @param cached last stored server data; only called when there is some (except for readAsync lookups)
+     */
+    void onCached(T cached);
+}
@@ -0,0 +1,172 @@
+package org.example.semscan.data.repository;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.Gson;
+
+import org.example.semscan.data.local.SemScanDatabase;
+import org.example.semscan.utils.Logger;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Cache-then-network plumbing shared by the repositories.
+ *
+ * load() reads the cached copy on the database thread and hands it to the CacheListener while
+ * the request runs; the Retrofit callback then gets the server response exactly as before, and a
+ * successful body is written to the cache afterwards. A cached copy that loses the race against
+ * the network is dropped. All cache access runs on one thread, so reads never see half a write.
+ */
+abstract class CachedRepository {
+
+    private static final String TAG = "CachedRepository";
+
+    // Shared by all repositories: one writer at a time, reads ordered after earlier writes
+    private static final ExecutorService DB_EXECUTOR = Executors.newSingleThreadExecutor();
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    protected final SemScanDatabase database;
+    protected final Gson gson = new Gson();
+
+    CachedRepository(Context context) {
+        this.database = SemScanDatabase.getInstance(context.getApplicationContext());
+    }
+
+    /**
+     * @param readCache returns the cached copy, or null if there is none (database thread)
+     * @param cacheListener may be null to skip the cached copy (write-through only)
+     * @param store saves a successful body (database thread, after callback.onResponse returned)
+     */
+    protected <T> void load(Callable<T> readCache, CacheListener<T> cacheListener,
+                            Call<T> call, Callback<T> callback, Consumer<T> store) {
+        AtomicBoolean responded = new AtomicBoolean(false);
+        if (cacheListener != null) {
+            DB_EXECUTOR.execute(() -> {
+                T cached = readSafely(readCache);
+                if (cached != null) {
+                    MAIN_HANDLER.post(() -> {
+                        if (!responded.get()) {
+                            cacheListener.onCached(cached);
+                        }
+                    });
+                }
+            });
+        }
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(@NonNull Call<T> call, @NonNull Response<T> response) {
+                if (response.isSuccessful()) {
+                    responded.set(true);
+                }
+                callback.onResponse(call, response);
+                T body = response.body();
+                if (response.isSuccessful() && body != null) {
+                    writeAsync(() -> store.accept(body));
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<T> call, @NonNull Throwable t) {
+                // Cached copy (if still on its way) stays useful
+                callback.onFailure(call, t);
+            }
+        });
+    }
+
+    /**
+     * Read on the database thread, deliver on the main thread (null if nothing cached)
+     */
+    protected <T> void readAsync(Callable<T> read, CacheListener<T> listener) {
+        DB_EXECUTOR.execute(() -> {
+            T data = readSafely(read);
+            MAIN_HANDLER.post(() -> listener.onCached(data));
+        });
+    }
+
+    /**
+     * Empty the cache tables on the database thread, after any write already queued
+     */
+    static void clearAll(Context context) {
+        SemScanDatabase database = SemScanDatabase.getInstance(context.getApplicationContext());
+        DB_EXECUTOR.execute(() -> {
+            try {
+                database.clearCacheTables();
+            } catch (Exception e) {
+                Logger.e(TAG, "Failed to clear local cache", e);
+            }
+        });
+    }
+
+    protected void postToMain(Runnable action) {
+        MAIN_HANDLER.post(action);
+    }
+
+    protected void writeAsync(Runnable write) {
+        DB_EXECUTOR.execute(() -> {
+            try {
+                write.run();
+            } catch (Exception e) {
+                Logger.e(TAG, "Failed to update local cache", e);
+            }
+        });
+    }
+
+    /**
+     * Run body inside a transaction (database thread)
+     */
+    protected void inTransaction(Consumer<SQLiteDatabase> body) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            body.accept(db);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Deserialize the payload column of every row, skipping rows that no longer parse
+     */
+    protected <T> List<T> readPayloads(Cursor cursor, Type type) {
+        List<T> rows = new ArrayList<>(cursor.getCount());
+        int payloadIndex = cursor.getColumnIndexOrThrow(SemScanDatabase.COL_PAYLOAD);
+        while (cursor.moveToNext()) {
+            try {
+                T row = gson.fromJson(cursor.getString(payloadIndex), type);
+                if (row != null) {
+                    rows.add(row);
+                }
+            } catch (RuntimeException e) {
+                Logger.w(TAG, "Skipping unreadable cached row: " + e.getMessage());
+            }
+        }
+        return rows;
+    }
+
+    private static <T> T readSafely(Callable<T> read) {
+        try {
+            return read.call();
+        } catch (Exception e) {
+            Logger.e(TAG, "Failed to read local cache", e);
+            return null;
+        }
+    }
+}
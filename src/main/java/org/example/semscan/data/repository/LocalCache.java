@@ -0,0 +1,20 @@
+package org.example.semscan.data.repository;
+
+import android.content.Context;
+
+/**
+ * Entry point for wiping what the repositories keep on the device
+ */
+public final class LocalCache {
+
+    private LocalCache() {}
+
+    /**
+     * Logout: forget the previous user's cached sessions, slots, attendance and manual requests,
+     * and the attendance sync progress
+     */
+    public static void clear(Context context) {
+        CachedRepository.clearAll(context);
+        AttendanceRepository.getInstance(context).clearSyncState();
+    }
+}
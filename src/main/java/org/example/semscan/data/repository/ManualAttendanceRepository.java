@@ -0,0 +1,81 @@
+package org.example.semscan.data.repository;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.example.semscan.data.api.ApiClient;
+import org.example.semscan.data.api.ApiService;
+import org.example.semscan.data.local.SemScanDatabase;
+import org.example.semscan.data.model.ManualAttendanceResponse;
+
+import java.util.List;
+import java.util.Locale;
+
+import retrofit2.Callback;
+
+/**
+ * Manual attendance requests submitted from this device, kept so their status survives
+ * leaving the screen
+ */
+public class ManualAttendanceRepository extends CachedRepository {
+
+    private static ManualAttendanceRepository instance;
+    private final Context context;
+
+    private ManualAttendanceRepository(Context context) {
+        super(context);
+        this.context = context.getApplicationContext();
+    }
+
+    public static synchronized ManualAttendanceRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new ManualAttendanceRepository(context);
+        }
+        return instance;
+    }
+
+    /**
+     * POST /api/v1/attendance/manual; the created request is stored once the callback returns
+     */
+    public void createManualRequest(ApiService.CreateManualRequestRequest request,
+                                    Callback<ManualAttendanceResponse> callback) {
+        load(null, null, ApiClient.getInstance(context).getApiService().createManualRequest(request), callback,
+                response -> storeRequest(response, request.studentUsername));
+    }
+
+    /**
+     * The student's stored requests, newest first (empty list if none)
+     */
+    public void getRequests(String username, CacheListener<List<ManualAttendanceResponse>> listener) {
+        readAsync(() -> {
+            try (Cursor cursor = database.getReadableDatabase().query(SemScanDatabase.TABLE_MANUAL_REQUESTS,
+                    new String[]{SemScanDatabase.COL_PAYLOAD},
+                    SemScanDatabase.COL_STUDENT_USERNAME + " = ?", new String[]{normalize(username)}, null, null,
+                    SemScanDatabase.COL_UPDATED_AT + " DESC")) {
+                return readPayloads(cursor, ManualAttendanceResponse.class);
+            }
+        }, listener);
+    }
+
+    private void storeRequest(ManualAttendanceResponse response, String requestedBy) {
+        if (response.getAttendanceId() == null) {
+            return;
+        }
+        String student = response.getStudentUsername() != null ? response.getStudentUsername() : requestedBy;
+        ContentValues values = new ContentValues();
+        values.put(SemScanDatabase.COL_ATTENDANCE_ID, response.getAttendanceId());
+        values.put(SemScanDatabase.COL_SESSION_ID, response.getSessionId());
+        values.put(SemScanDatabase.COL_STUDENT_USERNAME, normalize(student));
+        values.put(SemScanDatabase.COL_REQUEST_STATUS, response.getRequestStatus());
+        values.put(SemScanDatabase.COL_PAYLOAD, gson.toJson(response));
+        values.put(SemScanDatabase.COL_UPDATED_AT, System.currentTimeMillis());
+        database.getWritableDatabase().insertWithOnConflict(SemScanDatabase.TABLE_MANUAL_REQUESTS, null, values,
+                SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    private static String normalize(String username) {
+        return username != null ? username.trim().toLowerCase(Locale.US) : "";
+    }
+}
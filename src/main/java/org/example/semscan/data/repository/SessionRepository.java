@@ -0,0 +1,79 @@
+package org.example.semscan.data.repository;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+
+import org.example.semscan.data.api.ApiClient;
+import org.example.semscan.data.local.SemScanDatabase;
+import org.example.semscan.data.model.Session;
+
+import java.util.List;
+
+import retrofit2.Callback;
+
+/**
+ * Open sessions, cached as the last server response.
+ *
+ * Open sessions change quickly - callers that decide something from the list (e.g. whether the
+ * scanner may open) should act on the server response and use the cached copy for display only.
+ */
+public class SessionRepository extends CachedRepository {
+
+    private static SessionRepository instance;
+    private final Context context;
+
+    private SessionRepository(Context context) {
+        super(context);
+        this.context = context.getApplicationContext();
+    }
+
+    public static synchronized SessionRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new SessionRepository(context);
+        }
+        return instance;
+    }
+
+    /**
+     * GET /api/v1/sessions/open, with the cached list (if any) delivered first
+     * @param cacheListener may be null to only refresh the cache
+     */
+    public void getOpenSessions(CacheListener<List<Session>> cacheListener, Callback<List<Session>> callback) {
+        load(this::readOpenSessions, cacheListener,
+                ApiClient.getInstance(context).getApiService().getOpenSessions(), callback, this::storeOpenSessions);
+    }
+
+    private List<Session> readOpenSessions() {
+        try (Cursor cursor = database.getReadableDatabase().query(SemScanDatabase.TABLE_SESSIONS,
+                new String[]{SemScanDatabase.COL_PAYLOAD}, null, null, null, null,
+                SemScanDatabase.COL_POSITION)) {
+            List<Session> sessions = readPayloads(cursor, Session.class);
+            return sessions.isEmpty() ? null : sessions;
+        }
+    }
+
+    /**
+     * Replace the cached list with the server's
+     */
+    private void storeOpenSessions(List<Session> sessions) {
+        long now = System.currentTimeMillis();
+        inTransaction(db -> {
+            db.delete(SemScanDatabase.TABLE_SESSIONS, null, null);
+            int position = 0;
+            for (Session session : sessions) {
+                if (session == null || session.getSessionId() == null) {
+                    continue;
+                }
+                ContentValues values = new ContentValues();
+                values.put(SemScanDatabase.COL_SESSION_ID, session.getSessionId());
+                values.put(SemScanDatabase.COL_STATUS, session.getStatus());
+                values.put(SemScanDatabase.COL_START_TIME, session.getStartTime());
+                values.put(SemScanDatabase.COL_POSITION, position++);
+                values.put(SemScanDatabase.COL_PAYLOAD, gson.toJson(session));
+                values.put(SemScanDatabase.COL_UPDATED_AT, now);
+                db.insert(SemScanDatabase.TABLE_SESSIONS, null, values);
+            }
+        });
+    }
+}
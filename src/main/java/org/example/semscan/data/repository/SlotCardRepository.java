@@ -0,0 +1,119 @@
+package org.example.semscan.data.repository;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.example.semscan.data.api.ApiClient;
+import org.example.semscan.data.api.ApiService;
+import org.example.semscan.data.local.SemScanDatabase;
+
+import java.util.List;
+
+import retrofit2.Callback;
+
+/**
+ * Presenter home (my slot, attendance panel) and the slot catalog, cached per presenter.
+ *
+ * Catalog slots are stored one row per slotId (slot_cards) and the rest of the response as one
+ * row (presenter_home); reads put the response back together.
+ */
+public class SlotCardRepository extends CachedRepository {
+
+    private static SlotCardRepository instance;
+    private final Context context;
+
+    private SlotCardRepository(Context context) {
+        super(context);
+        this.context = context.getApplicationContext();
+    }
+
+    public static synchronized SlotCardRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new SlotCardRepository(context);
+        }
+        return instance;
+    }
+
+    /**
+     * GET /api/v1/presenters/{username}/home, with the cached response (if any) delivered first
+     * @param username normalized (trimmed, lower case) presenter username
+     */
+    public void getPresenterHome(String username, CacheListener<ApiService.PresenterHomeResponse> cacheListener,
+                                 Callback<ApiService.PresenterHomeResponse> callback) {
+        load(() -> readHome(username), cacheListener,
+                ApiClient.getInstance(context).getApiService().getPresenterHome(username), callback,
+                home -> storeHome(username, home));
+    }
+
+    private ApiService.PresenterHomeResponse readHome(String owner) {
+        SQLiteDatabase db = database.getReadableDatabase();
+        ApiService.PresenterHomeResponse home;
+        try (Cursor cursor = db.query(SemScanDatabase.TABLE_PRESENTER_HOME,
+                new String[]{SemScanDatabase.COL_PAYLOAD},
+                SemScanDatabase.COL_OWNER_USERNAME + " = ?", new String[]{owner}, null, null, null)) {
+            List<ApiService.PresenterHomeResponse> rows = readPayloads(cursor, ApiService.PresenterHomeResponse.class);
+            if (rows.isEmpty()) {
+                return null;
+            }
+            home = rows.get(0);
+        }
+        try (Cursor cursor = db.query(SemScanDatabase.TABLE_SLOT_CARDS,
+                new String[]{SemScanDatabase.COL_PAYLOAD},
+                SemScanDatabase.COL_OWNER_USERNAME + " = ?", new String[]{owner}, null, null,
+                SemScanDatabase.COL_POSITION)) {
+            home.slotCatalog = readPayloads(cursor, ApiService.SlotCard.class);
+        }
+        return home;
+    }
+
+    /**
+     * Copy of the attendance panel without the session's QR signing key, which must not be written to disk
+     */
+    private ApiService.AttendancePanel withoutQrSecret(ApiService.AttendancePanel attendance) {
+        if (attendance == null || attendance.qrSecret == null) {
+            return attendance;
+        }
+        ApiService.AttendancePanel copy = gson.fromJson(gson.toJson(attendance), ApiService.AttendancePanel.class);
+        copy.qrSecret = null;
+        return copy;
+    }
+
+    private void storeHome(String owner, ApiService.PresenterHomeResponse home) {
+        long now = System.currentTimeMillis();
+
+        // Everything but the catalog goes into presenter_home
+        ApiService.PresenterHomeResponse header = new ApiService.PresenterHomeResponse();
+        header.presenter = home.presenter;
+        header.mySlot = home.mySlot;
+        header.myWaitingListSlot = home.myWaitingListSlot;
+        header.attendance = withoutQrSecret(home.attendance);
+
+        inTransaction(db -> {
+            ContentValues homeValues = new ContentValues();
+            homeValues.put(SemScanDatabase.COL_OWNER_USERNAME, owner);
+            homeValues.put(SemScanDatabase.COL_PAYLOAD, gson.toJson(header));
+            homeValues.put(SemScanDatabase.COL_UPDATED_AT, now);
+            db.insertWithOnConflict(SemScanDatabase.TABLE_PRESENTER_HOME, null, homeValues, SQLiteDatabase.CONFLICT_REPLACE);
+
+            db.delete(SemScanDatabase.TABLE_SLOT_CARDS, SemScanDatabase.COL_OWNER_USERNAME + " = ?", new String[]{owner});
+            if (home.slotCatalog == null) {
+                return;
+            }
+            int position = 0;
+            for (ApiService.SlotCard slot : home.slotCatalog) {
+                if (slot == null || slot.slotId == null) {
+                    continue;
+                }
+                ContentValues values = new ContentValues();
+                values.put(SemScanDatabase.COL_OWNER_USERNAME, owner);
+                values.put(SemScanDatabase.COL_SLOT_ID, slot.slotId);
+                values.put(SemScanDatabase.COL_POSITION, position++);
+                values.put(SemScanDatabase.COL_PAYLOAD, gson.toJson(slot));
+                values.put(SemScanDatabase.COL_UPDATED_AT, now);
+                db.insertWithOnConflict(SemScanDatabase.TABLE_SLOT_CARDS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+        });
+    }
+}
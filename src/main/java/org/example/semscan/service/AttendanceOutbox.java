@@ -0,0 +1,348 @@
+package org.example.semscan.service;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.net.ConnectivityManager;
+import android.net.Network;
+
+import androidx.annotation.NonNull;
+
+import org.example.semscan.data.api.ApiClient;
+import org.example.semscan.data.api.ApiService;
+import org.example.semscan.data.local.SemScanDatabase;
+import org.example.semscan.data.model.Attendance;
+import org.example.semscan.utils.Logger;
+import org.example.semscan.utils.ServerLogger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Response;
+
+/**
+ * Durable outbox for QR attendance submissions that could not reach the server.
+ *
+ * Entries keep the original scan timestampMs, the request's clientRequestId (idempotency key) and
+ * the rotating QR token (qrTimeStep/qrSignature) if the scan had one - the server checks a
+ * replayed token against the scan's timestampMs, not the time the replay arrives. They are
+ * stored in SQLite so they survive process death, and are replayed one at a time by a single
+ * background drainer with decorrelated-jitter backoff - so a room full of failed scans does not
+ * retry in lockstep.
+ *
+ * Replay outcomes:
+ * - 2xx or 409 (already marked)      → delivered, removed
+ * - other 4xx (session closed, ...)   → rejected, removed and logged
+ * - 5xx / 408 / 429 / network error   → retried until MAX_ATTEMPTS or MAX_AGE_MS
+ *
+ * The scanner marks queued pairs in RecentAttendanceCache; the outcome replaces that mark
+ * (recorded on delivery, removed on rejection or drop so the next scan submits again).
+ */
+public class AttendanceOutbox {
+
+    private static final String TAG = "AttendanceOutbox";
+
+    private static final int MAX_ATTEMPTS = 8;
+    private static final long MAX_AGE_MS = 6 * 60 * 60 * 1000L;   // 6 hours
+    private static final long BASE_DELAY_MS = 2000;               // 2s
+    private static final long MAX_DELAY_MS = 5 * 60 * 1000L;      // 5 min
+    private static final int DRAIN_BATCH = 20;
+
+    private static AttendanceOutbox instance;
+    private final Context context;
+    private final SemScanDatabase database;
+    private final ScheduledExecutorService executor;
+    private ScheduledFuture<?> scheduledDrain; // Only touched on executor
+    private ConnectivityManager.NetworkCallback networkCallback; // Only touched on executor, null when not registered
+
+    private AttendanceOutbox(Context context) {
+        this.context = context.getApplicationContext();
+        this.database = SemScanDatabase.getInstance(this.context);
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    public static synchronized AttendanceOutbox getInstance(Context context) {
+        if (instance == null) {
+            instance = new AttendanceOutbox(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Whether a failed submission with this HTTP code should be queued for replay
+     */
+    public static boolean isRetryable(int httpCode) {
+        return httpCode >= 500 || httpCode == 408 || httpCode == 429;
+    }
+
+    /**
+     * Persist a submission for background replay. Returns immediately; the write and the first
+     * replay attempt happen on the outbox thread.
+     */
+    public void enqueue(ApiService.SubmitAttendanceRequest request) {
+        if (request == null || request.sessionId == null || request.studentUsername == null) {
+            return;
+        }
+        executor.execute(() -> {
+            long now = System.currentTimeMillis();
+            long firstDelay = nextDelay(0);
+            ContentValues values = new ContentValues();
+            values.put(SemScanDatabase.COL_CLIENT_REQUEST_ID, request.clientRequestId);
+            values.put(SemScanDatabase.COL_SESSION_ID, request.sessionId);
+            values.put(SemScanDatabase.COL_STUDENT_USERNAME, request.studentUsername);
+            values.put(SemScanDatabase.COL_METHOD, request.method);
+            values.put(SemScanDatabase.COL_TIMESTAMP_MS, request.timestampMs);
+            values.put(SemScanDatabase.COL_CREATED_AT, now);
+            values.put(SemScanDatabase.COL_NEXT_ATTEMPT_AT, now + firstDelay);
+            values.put(SemScanDatabase.COL_LAST_DELAY_MS, firstDelay);
+            values.put(SemScanDatabase.COL_QR_TIME_STEP, request.qrTimeStep);
+            values.put(SemScanDatabase.COL_QR_SIGNATURE, request.qrSignature);
+            try {
+                database.getWritableDatabase().insertWithOnConflict(
+                        SemScanDatabase.TABLE_ATTENDANCE_OUTBOX, null, values, SQLiteDatabase.CONFLICT_IGNORE);
+                Logger.i(TAG, "Queued attendance for replay - session=" + request.sessionId
+                        + ", key=" + request.clientRequestId + ", firstAttemptIn=" + firstDelay + "ms");
+            } catch (Exception e) {
+                Logger.e(TAG, "Failed to persist attendance to outbox", e);
+                return;
+            }
+            registerNetworkCallback();
+            scheduleDrain(firstDelay);
+        });
+    }
+
+    /**
+     * Kick the drainer, e.g. on app start or when connectivity returns
+     */
+    public void drainSoon() {
+        executor.execute(() -> scheduleDrain(0));
+    }
+
+    /**
+     * Pull pending retries forward to a short random delay (spread across devices) once the
+     * network is back, instead of waiting out a long backoff.
+     */
+    private void onNetworkAvailable() {
+        executor.execute(() -> {
+            long resumeAt = System.currentTimeMillis() + ThreadLocalRandom.current().nextLong(BASE_DELAY_MS * 3);
+            try {
+                database.getWritableDatabase().execSQL("UPDATE " + SemScanDatabase.TABLE_ATTENDANCE_OUTBOX
+                        + " SET " + SemScanDatabase.COL_NEXT_ATTEMPT_AT + " = ? WHERE "
+                        + SemScanDatabase.COL_NEXT_ATTEMPT_AT + " > ?", new Object[]{resumeAt, resumeAt});
+            } catch (Exception e) {
+                Logger.e(TAG, "Failed to reschedule outbox after network change", e);
+            }
+            scheduleNextFromDb();
+        });
+    }
+
+    /**
+     * Schedule a drain run; must be called on executor
+     */
+    private void scheduleDrain(long delayMs) {
+        if (scheduledDrain != null && !scheduledDrain.isDone()
+                && scheduledDrain.getDelay(TimeUnit.MILLISECONDS) <= delayMs) {
+            return; // An earlier drain is already scheduled
+        }
+        if (scheduledDrain != null) {
+            scheduledDrain.cancel(false);
+        }
+        scheduledDrain = executor.schedule(this::drain, Math.max(0, delayMs), TimeUnit.MILLISECONDS);
+    }
+
+    private void drain() {
+        scheduledDrain = null; // This run is the scheduled one
+        List<Entry> due = loadDue(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            scheduleNextFromDb();
+            return;
+        }
+
+        ApiService apiService = ApiClient.getInstance(context).getApiService();
+        for (Entry entry : due) {
+            replay(apiService, entry);
+        }
+        scheduleNextFromDb();
+    }
+
+    private void replay(ApiService apiService, Entry entry) {
+        ApiService.SubmitAttendanceRequest request = new ApiService.SubmitAttendanceRequest(
+                entry.sessionId, entry.studentUsername, entry.method, entry.timestampMs);
+        request.clientRequestId = entry.clientRequestId;
+        request.qrTimeStep = entry.qrTimeStep;
+        request.qrSignature = entry.qrSignature;
+        request.sentAtMs = System.currentTimeMillis();
+
+        int code;
+        try {
+            Response<Attendance> response = apiService.submitAttendance(request).execute();
+            code = response.code();
+            if (response.errorBody() != null) {
+                response.errorBody().close();
+            }
+        } catch (IOException e) {
+            code = -1;
+            Logger.w(TAG, "Replay network failure - key=" + entry.clientRequestId + ": " + e.getMessage());
+        } catch (Exception e) {
+            code = -1;
+            Logger.e(TAG, "Replay failed unexpectedly - key=" + entry.clientRequestId, e);
+        }
+
+        ServerLogger serverLogger = ServerLogger.getInstance(context);
+        RecentAttendanceCache recentAttendance = RecentAttendanceCache.getInstance();
+        if ((code >= 200 && code < 300) || code == 409) {
+            delete(entry.id);
+            recentAttendance.markRecorded(entry.sessionId, entry.studentUsername);
+            String details = "Replayed attendance delivered - session=" + entry.sessionId + ", code=" + code
+                    + ", attempts=" + (entry.attempts + 1) + ", delayMs=" + (System.currentTimeMillis() - entry.timestampMs);
+            Logger.i(TAG, details);
+            serverLogger.attendance("Outbox Delivered", details);
+        } else if (code != -1 && !isRetryable(code)) {
+            delete(entry.id);
+            recentAttendance.remove(entry.sessionId, entry.studentUsername);
+            String details = "Replayed attendance rejected - session=" + entry.sessionId + ", code=" + code;
+            Logger.w(TAG, details);
+            serverLogger.w(ServerLogger.TAG_ATTENDANCE_MARK, details);
+        } else {
+            int attempts = entry.attempts + 1;
+            if (attempts >= MAX_ATTEMPTS || System.currentTimeMillis() - entry.createdAt > MAX_AGE_MS) {
+                delete(entry.id);
+                recentAttendance.remove(entry.sessionId, entry.studentUsername);
+                String details = "Dropping queued attendance after " + attempts + " attempts - session=" + entry.sessionId;
+                Logger.w(TAG, details);
+                serverLogger.w(ServerLogger.TAG_ATTENDANCE_MARK, details);
+                return;
+            }
+            long delay = nextDelay(entry.lastDelayMs);
+            ContentValues values = new ContentValues();
+            values.put(SemScanDatabase.COL_ATTEMPTS, attempts);
+            values.put(SemScanDatabase.COL_LAST_DELAY_MS, delay);
+            values.put(SemScanDatabase.COL_NEXT_ATTEMPT_AT, System.currentTimeMillis() + delay);
+            database.getWritableDatabase().update(SemScanDatabase.TABLE_ATTENDANCE_OUTBOX, values,
+                    SemScanDatabase.COL_ID + " = ?", new String[]{String.valueOf(entry.id)});
+            Logger.i(TAG, "Replay attempt " + attempts + " failed (code=" + code + "), next in " + delay + "ms");
+        }
+    }
+
+    /**
+     * Decorrelated jitter: random between BASE and 3x the previous delay, capped at MAX_DELAY_MS
+     */
+    private static long nextDelay(long previousDelayMs) {
+        long upper = Math.min(MAX_DELAY_MS, Math.max(BASE_DELAY_MS, previousDelayMs) * 3);
+        return ThreadLocalRandom.current().nextLong(BASE_DELAY_MS, upper + 1);
+    }
+
+    /**
+     * Schedule the next due entry; listen for connectivity only while entries remain. Every drain
+     * ends here, so rows left over from an earlier process (drained via drainSoon() on app start)
+     * get the reconnect retry too.
+     */
+    private void scheduleNextFromDb() {
+        try (Cursor cursor = database.getReadableDatabase().rawQuery(
+                "SELECT MIN(" + SemScanDatabase.COL_NEXT_ATTEMPT_AT + ") FROM " + SemScanDatabase.TABLE_ATTENDANCE_OUTBOX, null)) {
+            if (cursor.moveToFirst() && !cursor.isNull(0)) {
+                registerNetworkCallback();
+                scheduleDrain(cursor.getLong(0) - System.currentTimeMillis());
+            } else {
+                unregisterNetworkCallback();
+            }
+        } catch (Exception e) {
+            Logger.e(TAG, "Failed to schedule next outbox drain", e);
+        }
+    }
+
+    private List<Entry> loadDue(long now) {
+        List<Entry> entries = new ArrayList<>();
+        try (Cursor cursor = database.getReadableDatabase().query(
+                SemScanDatabase.TABLE_ATTENDANCE_OUTBOX, null,
+                SemScanDatabase.COL_NEXT_ATTEMPT_AT + " <= ?", new String[]{String.valueOf(now)},
+                null, null, SemScanDatabase.COL_CREATED_AT + " ASC", String.valueOf(DRAIN_BATCH))) {
+            while (cursor.moveToNext()) {
+                Entry entry = new Entry();
+                entry.id = cursor.getLong(cursor.getColumnIndexOrThrow(SemScanDatabase.COL_ID));
+                entry.clientRequestId = cursor.getString(cursor.getColumnIndexOrThrow(SemScanDatabase.COL_CLIENT_REQUEST_ID));
+                entry.sessionId = cursor.getLong(cursor.getColumnIndexOrThrow(SemScanDatabase.COL_SESSION_ID));
+                entry.studentUsername = cursor.getString(cursor.getColumnIndexOrThrow(SemScanDatabase.COL_STUDENT_USERNAME));
+                entry.method = cursor.getString(cursor.getColumnIndexOrThrow(SemScanDatabase.COL_METHOD));
+                entry.timestampMs = cursor.getLong(cursor.getColumnIndexOrThrow(SemScanDatabase.COL_TIMESTAMP_MS));
+                entry.createdAt = cursor.getLong(cursor.getColumnIndexOrThrow(SemScanDatabase.COL_CREATED_AT));
+                entry.attempts = cursor.getInt(cursor.getColumnIndexOrThrow(SemScanDatabase.COL_ATTEMPTS));
+                entry.lastDelayMs = cursor.getLong(cursor.getColumnIndexOrThrow(SemScanDatabase.COL_LAST_DELAY_MS));
+                int timeStepIndex = cursor.getColumnIndexOrThrow(SemScanDatabase.COL_QR_TIME_STEP);
+                entry.qrTimeStep = cursor.isNull(timeStepIndex) ? null : cursor.getLong(timeStepIndex);
+                entry.qrSignature = cursor.getString(cursor.getColumnIndexOrThrow(SemScanDatabase.COL_QR_SIGNATURE));
+                entries.add(entry);
+            }
+        } catch (Exception e) {
+            Logger.e(TAG, "Failed to load outbox entries", e);
+        }
+        return entries;
+    }
+
+    private void delete(long id) {
+        database.getWritableDatabase().delete(SemScanDatabase.TABLE_ATTENDANCE_OUTBOX,
+                SemScanDatabase.COL_ID + " = ?", new String[]{String.valueOf(id)});
+    }
+
+    /**
+     * Replay as soon as connectivity returns instead of waiting out the backoff; must be called on executor
+     */
+    private void registerNetworkCallback() {
+        if (networkCallback != null) {
+            return;
+        }
+        try {
+            ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+            if (cm == null) return;
+            ConnectivityManager.NetworkCallback callback = new ConnectivityManager.NetworkCallback() {
+                @Override
+                public void onAvailable(@NonNull Network network) {
+                    onNetworkAvailable();
+                }
+            };
+            cm.registerDefaultNetworkCallback(callback);
+            networkCallback = callback;
+        } catch (Exception e) {
+            Logger.w(TAG, "Failed to register network callback: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Outbox is empty - stop listening; must be called on executor
+     */
+    private void unregisterNetworkCallback() {
+        if (networkCallback == null) {
+            return;
+        }
+        try {
+            ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+            if (cm != null) {
+                cm.unregisterNetworkCallback(networkCallback);
+            }
+        } catch (Exception e) {
+            Logger.w(TAG, "Failed to unregister network callback: " + e.getMessage());
+        }
+        networkCallback = null;
+    }
+
+    private static class Entry {
+        long id;
+        String clientRequestId;
+        long sessionId;
+        String studentUsername;
+        String method;
+        long timestampMs;
+        long createdAt;
+        int attempts;
+        long lastDelayMs;
+        Long qrTimeStep;
+        String qrSignature;
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.semscan.service;
+
+import android.os.SystemClock;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Recently submitted (sessionId, username) pairs and their server outcome.
+ *
+ * The scanner checks this before POSTing attendance, so holding the phone over the same QR after
+ * a result (or reopening the scanner) shows the known outcome instead of sending a duplicate
+ * request the server would reject anyway. Entries expire: a recorded or queued attendance is
+ * remembered for the rest of a typical session, a rejection only briefly so the student can try
+ * again once the presenter fixes the problem. Network failures are not cached.
+ */
+public class RecentAttendanceCache {
+
+    public enum Status {
+        PENDING,   // Request in flight
+        RECORDED,  // Server confirmed (2xx or already present)
+        QUEUED,    // Stored in the outbox for replay
+        REJECTED   // Server refused (4xx)
+    }
+
+    public static class Entry {
+        public final Status status;
+        public final String message; // Server message for REJECTED, null otherwise
+        final long expiresAtMs;
+
+        Entry(Status status, String message, long expiresAtMs) {
+            this.status = status;
+            this.message = message;
+            this.expiresAtMs = expiresAtMs;
+        }
+    }
+
+    private static final int MAX_ENTRIES = 32;
+    private static final long PENDING_TTL_MS = 30 * 1000L;       // Longer than the request timeout
+    private static final long RECORDED_TTL_MS = 2 * 60 * 60 * 1000L;
+    private static final long REJECTED_TTL_MS = 20 * 1000L;
+
+    private static RecentAttendanceCache instance;
+
+    // Access-ordered LRU, guarded by this
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private RecentAttendanceCache() {}
+
+    public static synchronized RecentAttendanceCache getInstance() {
+        if (instance == null) {
+            instance = new RecentAttendanceCache();
+        }
+        return instance;
+    }
+
+    /**
+     * @return the unexpired entry for this pair, or null if a request should be sent
+     */
+    public synchronized Entry get(long sessionId, String username) {
+        String key = key(sessionId, username);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAtMs <= SystemClock.elapsedRealtime()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    public void markPending(long sessionId, String username) {
+        put(sessionId, username, Status.PENDING, null, PENDING_TTL_MS);
+    }
+
+    public void markRecorded(long sessionId, String username) {
+        put(sessionId, username, Status.RECORDED, null, RECORDED_TTL_MS);
+    }
+
+    public void markQueued(long sessionId, String username) {
+        put(sessionId, username, Status.QUEUED, null, RECORDED_TTL_MS);
+    }
+
+    public void markRejected(long sessionId, String username, String message) {
+        put(sessionId, username, Status.REJECTED, message, REJECTED_TTL_MS);
+    }
+
+    /**
+     * Forget the pair (e.g. a network error - the next scan should try again)
+     */
+    public synchronized void remove(long sessionId, String username) {
+        entries.remove(key(sessionId, username));
+    }
+
+    private synchronized void put(long sessionId, String username, Status status, String message, long ttlMs) {
+        entries.put(key(sessionId, username), new Entry(status, message, SystemClock.elapsedRealtime() + ttlMs));
+    }
+
+    private static String key(long sessionId, String username) {
+        return sessionId + "|" + (username != null ? username.trim().toLowerCase() : "");
+    }
+}
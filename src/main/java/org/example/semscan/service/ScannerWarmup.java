@@ -0,0 +1,157 @@
+package org.example.semscan.service;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+
+import androidx.annotation.NonNull;
+import androidx.camera.lifecycle.ProcessCameraProvider;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.mlkit.vision.barcode.BarcodeScanner;
+import com.google.mlkit.vision.barcode.BarcodeScannerOptions;
+import com.google.mlkit.vision.barcode.BarcodeScanning;
+import com.google.mlkit.vision.barcode.common.Barcode;
+import com.google.mlkit.vision.common.InputImage;
+
+import org.example.semscan.utils.Logger;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pre-warms the QR scanner so the first frame is decoded quickly after tapping "Scan".
+ *
+ * warmUp() (called from the student home screen) starts CameraX initialization and creates the
+ * ML Kit barcode client off the main thread, running one tiny blank frame through it so the model
+ * is loaded. ModernQRScannerActivity then takes the warm client with takeBarcodeScanner() and
+ * returns it with recycle() instead of closing it. The idle client is closed when the system
+ * asks the app to trim memory.
+ */
+public class ScannerWarmup implements ComponentCallbacks2 {
+
+    private static final String TAG = "ScannerWarmup";
+    private static final int WARMUP_FRAME_SIZE = 64;
+
+    private static ScannerWarmup instance;
+    private final Context context;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private BarcodeScanner idleScanner; // Guarded by this
+    private ListenableFuture<ProcessCameraProvider> cameraProviderFuture;
+    private boolean warming = false;
+
+    private ScannerWarmup(Context context) {
+        this.context = context.getApplicationContext();
+        this.context.registerComponentCallbacks(this);
+    }
+
+    public static synchronized ScannerWarmup getInstance(Context context) {
+        if (instance == null) {
+            instance = new ScannerWarmup(context);
+        }
+        return instance;
+    }
+
+    /**
+     * QR-only options shared by the warm client and any fallback client
+     */
+    public static BarcodeScannerOptions scannerOptions() {
+        return new BarcodeScannerOptions.Builder()
+                .setBarcodeFormats(Barcode.FORMAT_QR_CODE)
+                .build();
+    }
+
+    /**
+     * Start warming the camera provider and barcode model in the background (idempotent)
+     */
+    public synchronized void warmUp() {
+        getCameraProvider(); // CameraX initializes on its own executor
+        if (idleScanner != null || warming) {
+            return;
+        }
+        warming = true;
+        executor.execute(() -> {
+            long start = System.currentTimeMillis();
+            BarcodeScanner scanner = BarcodeScanning.getClient(scannerOptions());
+            // Blank NV21 frame - forces the detector model to load now instead of on the first real frame
+            byte[] blank = new byte[WARMUP_FRAME_SIZE * WARMUP_FRAME_SIZE * 3 / 2];
+            InputImage frame = InputImage.fromByteArray(blank, WARMUP_FRAME_SIZE, WARMUP_FRAME_SIZE, 0,
+                    InputImage.IMAGE_FORMAT_NV21);
+            scanner.process(frame).addOnCompleteListener(executor, task -> {
+                Logger.i(TAG, "Barcode model warmed up in " + (System.currentTimeMillis() - start) + "ms");
+                synchronized (ScannerWarmup.this) {
+                    warming = false;
+                    if (idleScanner == null) {
+                        idleScanner = scanner;
+                        return;
+                    }
+                }
+                scanner.close(); // A scanner was recycled meanwhile
+            });
+        });
+    }
+
+    /**
+     * Shared camera provider future (CameraX keeps one provider per process)
+     */
+    public synchronized ListenableFuture<ProcessCameraProvider> getCameraProvider() {
+        if (cameraProviderFuture == null || cameraProviderFuture.isCancelled()) {
+            cameraProviderFuture = ProcessCameraProvider.getInstance(context);
+        }
+        return cameraProviderFuture;
+    }
+
+    /**
+     * Hand the warm barcode client to the scanner screen, or create a fresh one if none is ready
+     */
+    public synchronized BarcodeScanner takeBarcodeScanner() {
+        BarcodeScanner scanner = idleScanner;
+        idleScanner = null;
+        if (scanner != null) {
+            Logger.i(TAG, "Using pre-warmed barcode scanner");
+            return scanner;
+        }
+        return BarcodeScanning.getClient(scannerOptions());
+    }
+
+    /**
+     * Take a barcode client back for the next scan (closes it if one is already idle)
+     */
+    public void recycle(BarcodeScanner scanner) {
+        if (scanner == null) {
+            return;
+        }
+        synchronized (this) {
+            if (idleScanner == null) {
+                idleScanner = scanner;
+                return;
+            }
+        }
+        scanner.close();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level < TRIM_MEMORY_BACKGROUND && level != TRIM_MEMORY_RUNNING_LOW) {
+            return;
+        }
+        BarcodeScanner scanner;
+        synchronized (this) {
+            scanner = idleScanner;
+            idleScanner = null;
+        }
+        if (scanner != null) {
+            scanner.close();
+            Logger.i(TAG, "Released idle barcode scanner (trim level " + level + ")");
+        }
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+
+    @Override
+    public void onLowMemory() {
+        onTrimMemory(TRIM_MEMORY_COMPLETE);
+    }
+}
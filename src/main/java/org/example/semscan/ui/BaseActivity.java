@@ -18,6 +18,7 @@ import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
 import org.example.semscan.R;
 import org.example.semscan.data.api.AuthInterceptor;
+import org.example.semscan.data.repository.LocalCache;
 import org.example.semscan.ui.auth.LoginActivity;
 import org.example.semscan.utils.Logger;
 import org.example.semscan.utils.PreferencesManager;
@@ -384,6 +385,7 @@ public abstract class BaseActivity extends AppCompatActivity {
 
                 // Clear user data
                 PreferencesManager.getInstance(this).clearUserData();
+                LocalCache.clear(this);
 
                 // Redirect to login - clear task stack
                 Intent intent = new Intent(this, LoginActivity.class);
@@ -17,6 +17,7 @@ import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
 
 import org.example.semscan.R;
+import org.example.semscan.data.repository.LocalCache;
 import org.example.semscan.ui.auth.LoginActivity;
 import org.example.semscan.ui.student.StudentHomeActivity;
 import org.example.semscan.ui.teacher.PresenterHomeActivity;
@@ -148,6 +149,7 @@ public class RolePickerActivity extends AppCompatActivity {
     private void performLogout() {
         Logger.i(Logger.TAG_LOGOUT, "Performing logout from role picker");
         preferencesManager.clearUserData();
+        LocalCache.clear(this);
         // Note: Do NOT clear saved credentials here - "Remember Me" should persist after logout
 
         Toast.makeText(this, R.string.logout_success, Toast.LENGTH_SHORT).show();
@@ -20,6 +20,7 @@ import com.google.android.material.textfield.TextInputEditText;
 import org.example.semscan.R;
 import org.example.semscan.data.api.ApiClient;
 import org.example.semscan.data.api.ApiService;
+import org.example.semscan.data.repository.LocalCache;
 import org.example.semscan.ui.auth.LoginActivity;
 import org.example.semscan.utils.ConfigManager;
 import org.example.semscan.utils.Logger;
@@ -255,6 +256,7 @@ public class SettingsActivity extends AppCompatActivity {
     private void performLogout() {
         Logger.i(Logger.TAG_LOGOUT, "Performing logout");
         preferencesManager.clearUserData();
+        LocalCache.clear(this);
         // Note: Do NOT clear saved credentials here - "Remember Me" should persist after logout
 
         Toast.makeText(this, R.string.logout_success, Toast.LENGTH_SHORT).show();
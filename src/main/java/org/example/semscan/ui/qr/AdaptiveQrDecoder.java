@@ -0,0 +1,131 @@
+package org.example.semscan.ui.qr;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+
+import androidx.camera.core.ImageProxy;
+
+import org.example.semscan.utils.Logger;
+
+/**
+ * Picks the faster decoding engine for this device from measured latency.
+ *
+ * The first frames alternate between ML Kit and ZXing; after TRIAL_FRAMES of each the faster
+ * engine is used, with every REPROBE_INTERVAL-th frame sent to the other one to keep both
+ * averages current. ML Kit handles damaged or skewed codes better, so ZXing only wins when it is
+ * clearly faster. Repeated ML Kit failures (e.g. the model is unavailable on older Play services)
+ * switch to ZXing for the rest of the scan. Averages are kept across scans in SharedPreferences.
+ *
+ * Calls are serialized by the scanner (one frame in flight), so no locking is needed.
+ */
+public class AdaptiveQrDecoder implements QrDecoder {
+
+    private static final String TAG = "AdaptiveQrDecoder";
+    private static final String PREFS_NAME = "qr_decoder_stats";
+    private static final String KEY_MLKIT_MS = "mlkit_avg_ms";
+    private static final String KEY_ZXING_MS = "zxing_avg_ms";
+
+    private static final int TRIAL_FRAMES = 6;
+    private static final int REPROBE_INTERVAL = 50;
+    private static final float EWMA_WEIGHT = 0.2f;
+    private static final float MLKIT_PREFERENCE = 1.5f; // ZXing must be 1.5x faster to be picked
+    private static final int MLKIT_FAILURES_TO_DISABLE = 3;
+
+    private final QrDecoder mlKit;
+    private final QrDecoder zxing;
+    private final SharedPreferences prefs;
+
+    private float mlKitAvgMs;
+    private float zxingAvgMs;
+    private int mlKitSamples;
+    private int zxingSamples;
+    private int consecutiveMlKitFailures;
+    private boolean mlKitDisabled;
+    private int frameCount;
+    private QrDecoder preferred;
+
+    public AdaptiveQrDecoder(Context context, QrDecoder mlKit, QrDecoder zxing) {
+        this.mlKit = mlKit;
+        this.zxing = zxing;
+        this.prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        mlKitAvgMs = prefs.getFloat(KEY_MLKIT_MS, 0f);
+        zxingAvgMs = prefs.getFloat(KEY_ZXING_MS, 0f);
+        // Averages from earlier scans stand in for the trial
+        mlKitSamples = mlKitAvgMs > 0 ? TRIAL_FRAMES : 0;
+        zxingSamples = zxingAvgMs > 0 ? TRIAL_FRAMES : 0;
+    }
+
+    @Override
+    public String name() {
+        return preferred != null ? preferred.name() : "Adaptive";
+    }
+
+    @Override
+    public void decode(ImageProxy image, Callback callback) {
+        QrDecoder engine = choose();
+        long start = SystemClock.elapsedRealtime();
+        engine.decode(image, (text, error) -> {
+            record(engine, SystemClock.elapsedRealtime() - start, error);
+            callback.onComplete(text, error);
+        });
+    }
+
+    private QrDecoder choose() {
+        if (mlKitDisabled) {
+            return zxing;
+        }
+        frameCount++;
+        if (mlKitSamples < TRIAL_FRAMES || zxingSamples < TRIAL_FRAMES) {
+            return mlKitSamples <= zxingSamples ? mlKit : zxing;
+        }
+        QrDecoder best = zxingAvgMs * MLKIT_PREFERENCE < mlKitAvgMs ? zxing : mlKit;
+        if (best != preferred) {
+            preferred = best;
+            Logger.i(TAG, "Using " + best.name() + " decoder (ML Kit " + Math.round(mlKitAvgMs)
+                    + "ms, ZXing " + Math.round(zxingAvgMs) + "ms per frame)");
+        }
+        if (frameCount % REPROBE_INTERVAL == 0) {
+            return best == mlKit ? zxing : mlKit;
+        }
+        return best;
+    }
+
+    private void record(QrDecoder engine, long elapsedMs, Exception error) {
+        if (engine == mlKit) {
+            if (error != null) {
+                if (++consecutiveMlKitFailures >= MLKIT_FAILURES_TO_DISABLE && !mlKitDisabled) {
+                    mlKitDisabled = true;
+                    preferred = zxing;
+                    Logger.w(TAG, "ML Kit failed " + consecutiveMlKitFailures + " times - falling back to ZXing: "
+                            + error.getMessage());
+                }
+                return;
+            }
+            consecutiveMlKitFailures = 0;
+            mlKitAvgMs = average(mlKitAvgMs, elapsedMs);
+            mlKitSamples++;
+        } else if (error == null) {
+            zxingAvgMs = average(zxingAvgMs, elapsedMs);
+            zxingSamples++;
+        }
+    }
+
+    private static float average(float current, long sampleMs) {
+        return current <= 0 ? sampleMs : current + EWMA_WEIGHT * (sampleMs - current);
+    }
+
+    @Override
+    public void close() {
+        SharedPreferences.Editor editor = prefs.edit();
+        if (mlKitSamples >= TRIAL_FRAMES && !mlKitDisabled) {
+            editor.putFloat(KEY_MLKIT_MS, mlKitAvgMs);
+        }
+        if (zxingSamples >= TRIAL_FRAMES) {
+            editor.putFloat(KEY_ZXING_MS, zxingAvgMs);
+        }
+        editor.apply();
+        mlKit.close();
+        zxing.close();
+    }
+}
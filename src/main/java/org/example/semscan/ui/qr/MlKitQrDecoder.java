@@ -0,0 +1,62 @@
+package org.example.semscan.ui.qr;
+
+import androidx.camera.core.ImageProxy;
+
+import com.google.mlkit.vision.barcode.BarcodeScanner;
+import com.google.mlkit.vision.barcode.common.Barcode;
+import com.google.mlkit.vision.common.InputImage;
+
+import org.example.semscan.service.ScannerWarmup;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * ML Kit barcode decoding of the (cropped) camera frame
+ */
+public class MlKitQrDecoder implements QrDecoder {
+
+    private final BarcodeScanner scanner;
+    private final QrFrameCropper frameCropper;
+    private final Executor callbackExecutor;
+    private final ScannerWarmup warmup;
+
+    /**
+     * @param scanner ML Kit client; handed back to warmup on close() so the next scan starts warm
+     * @param callbackExecutor the analyzer executor - results are delivered there
+     */
+    public MlKitQrDecoder(BarcodeScanner scanner, QrFrameCropper frameCropper, Executor callbackExecutor,
+                          ScannerWarmup warmup) {
+        this.scanner = scanner;
+        this.frameCropper = frameCropper;
+        this.callbackExecutor = callbackExecutor;
+        this.warmup = warmup;
+    }
+
+    @Override
+    public String name() {
+        return "ML Kit";
+    }
+
+    @Override
+    public void decode(ImageProxy image, Callback callback) {
+        // Decode only the scan frame region when known (periodically the full frame)
+        InputImage inputImage = frameCropper.crop(image);
+        if (inputImage == null) {
+            inputImage = InputImage.fromMediaImage(image.getImage(), image.getImageInfo().getRotationDegrees());
+        }
+        scanner.process(inputImage).addOnCompleteListener(callbackExecutor, task -> {
+            if (!task.isSuccessful()) {
+                callback.onComplete(null, task.getException());
+                return;
+            }
+            List<Barcode> barcodes = task.getResult();
+            callback.onComplete(barcodes == null || barcodes.isEmpty() ? null : barcodes.get(0).getRawValue(), null);
+        });
+    }
+
+    @Override
+    public void close() {
+        warmup.recycle(scanner);
+    }
+}
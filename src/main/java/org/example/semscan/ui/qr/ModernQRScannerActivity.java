@@ -2,7 +2,9 @@ package org.example.semscan.ui.qr;
 
 import android.Manifest;
 import android.content.pm.PackageManager;
+import android.graphics.Rect;
 import android.os.Bundle;
+import android.util.Size;
 import android.view.View;
 import android.view.animation.AlphaAnimation;
 import android.view.animation.Animation;
@@ -21,6 +23,8 @@ import androidx.camera.core.CameraSelector;
 import androidx.camera.core.ImageAnalysis;
 import androidx.camera.core.ImageProxy;
 import androidx.camera.core.Preview;
+import androidx.camera.core.resolutionselector.ResolutionSelector;
+import androidx.camera.core.resolutionselector.ResolutionStrategy;
 import androidx.camera.lifecycle.ProcessCameraProvider;
 import androidx.camera.view.PreviewView;
 import androidx.core.app.ActivityCompat;
@@ -28,11 +32,6 @@ import androidx.core.content.ContextCompat;
 import androidx.lifecycle.LifecycleOwner;
 
 import com.google.common.util.concurrent.ListenableFuture;
-import com.google.mlkit.vision.barcode.BarcodeScanner;
-import com.google.mlkit.vision.barcode.BarcodeScannerOptions;
-import com.google.mlkit.vision.barcode.BarcodeScanning;
-import com.google.mlkit.vision.barcode.common.Barcode;
-import com.google.mlkit.vision.common.InputImage;
 
 import org.example.semscan.R;
 import org.example.semscan.constants.ApiConstants;
@@ -40,16 +39,23 @@ import org.example.semscan.data.api.ApiClient;
 import org.example.semscan.data.api.ApiService;
 import org.example.semscan.data.model.Attendance;
 import org.example.semscan.data.model.QRPayload;
+import org.example.semscan.service.AttendanceOutbox;
+import org.example.semscan.service.RecentAttendanceCache;
+import org.example.semscan.service.ScannerWarmup;
 import org.example.semscan.utils.ErrorMessageHelper;
 import org.example.semscan.utils.Logger;
 import org.example.semscan.utils.PreferencesManager;
 import org.example.semscan.utils.QRUtils;
+import org.example.semscan.utils.QrTokenSigner;
 import org.example.semscan.utils.ServerLogger;
 import org.example.semscan.utils.ToastUtils;
 
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -59,6 +65,12 @@ public class ModernQRScannerActivity extends AppCompatActivity {
     
     private static final int CAMERA_PERMISSION_REQUEST = 1001;
     private static final String TAG = "ModernQRScanner";
+    // Analysis frames are capped here; a QR code filling the scan frame decodes fine at 720p
+    private static final Size ANALYSIS_MAX_RESOLUTION = new Size(1280, 720);
+    // Decode pacing: full rate while searching, reduced once a code has been read
+    private static final int MAX_DECODES_PER_SECOND = 10;
+    private static final int DECODES_PER_SECOND_AFTER_SUCCESS = 3;
+    private static final int EMPTY_DECODES_TO_RESTORE_RATE = 3;
     
     // UI Components
     private PreviewView previewView;
@@ -72,18 +84,31 @@ public class ModernQRScannerActivity extends AppCompatActivity {
     // Camera and ML Kit
     private ProcessCameraProvider cameraProvider;
     private Camera camera;
-    private BarcodeScanner barcodeScanner;
+    private QrDecoder qrDecoder;
     private ExecutorService cameraExecutor;
+    private final QrFrameCropper frameCropper = new QrFrameCropper();
     
     // App Components
     private PreferencesManager preferencesManager;
     private ApiService apiService;
     private ServerLogger serverLogger;
     
+    // Decode gating (analyzer thread + ML Kit callbacks on the main thread)
+    private final AtomicBoolean decodeInFlight = new AtomicBoolean(false);
+    private final AtomicBoolean resultPending = new AtomicBoolean(false);
+    private volatile long minDecodeIntervalMs = 1000 / MAX_DECODES_PER_SECOND;
+    private long lastDecodeStartMs = 0; // Analyzer thread only
+    private int consecutiveEmptyDecodes = 0; // Decoder callbacks only (one frame in flight)
+    private final ScanTrace scanTrace = new ScanTrace(); // Camera open -> server answer, per attempt
+    // Set by onDestroy: no new decodes; the decoder is closed on the camera executor once idle
+    private volatile boolean decoderReleased = false;
+    private final AtomicReference<QrDecoder> decoderToClose = new AtomicReference<>();
+    
     // State
-    private boolean isScanning = true;
+    private volatile boolean isScanning = true;
     private boolean isFlashOn = false;
     private Long currentSessionId = null;
+    private QRPayload currentToken = null; // Signed rotating token of the current scan, if any
     
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -110,11 +135,30 @@ public class ModernQRScannerActivity extends AppCompatActivity {
         backButton = findViewById(R.id.back_button);
         flashButton = findViewById(R.id.flash_button);
         
+        // Only the area around the scan frame is decoded - track where it is on screen
+        overlayView.addOnLayoutChangeListener((v, left, top, right, bottom, oldLeft, oldTop, oldRight, oldBottom) ->
+                updateScanRegion());
+        
         // Set initial status
         statusText.setText("Ready to scan");
         statusText.setTextColor(ContextCompat.getColor(this, R.color.success_green));
     }
     
+    /**
+     * Pass the scan frame position (relative to the camera preview) to the frame cropper
+     */
+    private void updateScanRegion() {
+        int[] previewLocation = new int[2];
+        int[] frameLocation = new int[2];
+        previewView.getLocationInWindow(previewLocation);
+        scanFrame.getLocationInWindow(frameLocation);
+        int left = frameLocation[0] - previewLocation[0];
+        int top = frameLocation[1] - previewLocation[1];
+        frameCropper.setScanRegion(
+                new Rect(left, top, left + scanFrame.getWidth(), top + scanFrame.getHeight()),
+                previewView.getWidth(), previewView.getHeight());
+    }
+    
     private void setupClickListeners() {
         backButton.setOnClickListener(v -> {
             Logger.userAction("QR Back", "Student tapped back from QR scanner");
@@ -177,11 +221,12 @@ public class ModernQRScannerActivity extends AppCompatActivity {
         serverLogger.userAction("Open QR Scanner", "ModernQRScannerActivity opened as " + username);
         cameraExecutor = Executors.newSingleThreadExecutor();
         
-        // Initialize ML Kit Barcode Scanner
-        BarcodeScannerOptions options = new BarcodeScannerOptions.Builder()
-                .setBarcodeFormats(Barcode.FORMAT_QR_CODE)
-                .build();
-        barcodeScanner = BarcodeScanning.getClient(options);
+        // ML Kit (pre-warmed from the student home screen when available) or ZXing, whichever is
+        // faster on this device
+        ScannerWarmup warmup = ScannerWarmup.getInstance(this);
+        qrDecoder = new AdaptiveQrDecoder(this,
+                new MlKitQrDecoder(warmup.takeBarcodeScanner(), frameCropper, cameraExecutor, warmup),
+                new ZxingQrDecoder(frameCropper));
     }
     
     private boolean checkCameraPermission() {
@@ -196,8 +241,8 @@ public class ModernQRScannerActivity extends AppCompatActivity {
     }
     
     private void startCamera() {
-        ListenableFuture<ProcessCameraProvider> cameraProviderFuture = 
-                ProcessCameraProvider.getInstance(this);
+        ListenableFuture<ProcessCameraProvider> cameraProviderFuture =
+                ScannerWarmup.getInstance(this).getCameraProvider();
         
         cameraProviderFuture.addListener(() -> {
             try {
@@ -217,8 +262,14 @@ public class ModernQRScannerActivity extends AppCompatActivity {
         Preview preview = new Preview.Builder().build();
         preview.setSurfaceProvider(previewView.getSurfaceProvider());
         
-        // Image analysis use case for QR code detection
+        // Image analysis use case for QR code detection - capped resolution, the device
+        // picks the closest supported size at or below the cap
+        ResolutionSelector analysisResolution = new ResolutionSelector.Builder()
+                .setResolutionStrategy(new ResolutionStrategy(ANALYSIS_MAX_RESOLUTION,
+                        ResolutionStrategy.FALLBACK_RULE_CLOSEST_LOWER_THEN_HIGHER))
+                .build();
         ImageAnalysis imageAnalysis = new ImageAnalysis.Builder()
+                .setResolutionSelector(analysisResolution)
                 .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
                 .build();
         
@@ -239,7 +290,7 @@ public class ModernQRScannerActivity extends AppCompatActivity {
                     imageAnalysis
             );
             
-            Logger.i(TAG, "Camera started successfully");
+            scanTrace.markCameraBound();
             updateStatus("Camera ready", R.color.success_green);
             
         } catch (Exception e) {
@@ -251,50 +302,66 @@ public class ModernQRScannerActivity extends AppCompatActivity {
     private void analyzeImage(ImageProxy image) {
         if (image == null) return;
 
-        if (!isScanning || isFinishing() || isDestroyed()) {
+        if (decoderReleased || !isScanning || isFinishing() || isDestroyed()) {
             image.close();
             return;
         }
 
+        // Rate limit + single in-flight decode: drop the frame instead of queueing work
+        long now = android.os.SystemClock.elapsedRealtime();
+        if (now - lastDecodeStartMs < minDecodeIntervalMs || !decodeInFlight.compareAndSet(false, true)) {
+            image.close();
+            return;
+        }
+        lastDecodeStartMs = now;
+
         try {
             if (image.getImage() == null) {
+                decodeInFlight.set(false);
                 image.close();
                 return;
             }
 
-            InputImage inputImage = InputImage.fromMediaImage(
-                    image.getImage(),
-                    image.getImageInfo().getRotationDegrees()
-            );
-
-            if (barcodeScanner == null) {
+            QrDecoder decoder = qrDecoder;
+            if (decoder == null) {
+                decodeInFlight.set(false);
                 image.close();
                 return;
             }
 
-            barcodeScanner.process(inputImage)
-                .addOnSuccessListener(barcodes -> {
-                    if (!barcodes.isEmpty() && isScanning && !isFinishing() && !isDestroyed()) {
-                        Barcode barcode = barcodes.get(0);
-                        String qrContent = barcode.getRawValue();
-
-                        if (qrContent != null) {
-                            runOnUiThread(() -> handleQRResult(qrContent));
-                        }
+            // Decode only the scan frame region when known (periodically the full frame)
+            scanTrace.markFrame();
+            decoder.decode(image, (qrContent, error) -> {
+                if (error != null) {
+                    Logger.e(TAG, "Barcode scanning failed", error);
+                } else if (qrContent == null) {
+                    // Camera moved away from the code - back to full decode rate
+                    if (++consecutiveEmptyDecodes >= EMPTY_DECODES_TO_RESTORE_RATE) {
+                        minDecodeIntervalMs = 1000 / MAX_DECODES_PER_SECOND;
                     }
-                })
-                .addOnFailureListener(e -> {
-                    Logger.e(TAG, "Barcode scanning failed", e);
-                })
-                .addOnCompleteListener(task -> {
-                    try {
-                        image.close();
-                    } catch (Exception e) {
-                        Logger.e(TAG, "Error closing image", e);
+                } else {
+                    scanTrace.markDecoded();
+                    consecutiveEmptyDecodes = 0;
+                    minDecodeIntervalMs = 1000 / DECODES_PER_SECOND_AFTER_SUCCESS;
+
+                    // Post one result per scan attempt, not one per decoded frame
+                    if (isScanning && !isFinishing() && !isDestroyed() && resultPending.compareAndSet(false, true)) {
+                        runOnUiThread(() -> handleQRResult(qrContent));
                     }
-                });
+                }
+                decodeInFlight.set(false);
+                try {
+                    image.close();
+                } catch (Exception e) {
+                    Logger.e(TAG, "Error closing image", e);
+                }
+                if (decoderToClose.get() != null) {
+                    scheduleDecoderClose(); // onDestroy was waiting for this frame
+                }
+            });
         } catch (Exception e) {
             Logger.e(TAG, "Error analyzing image", e);
+            decodeInFlight.set(false);
             try {
                 image.close();
             } catch (Exception ignored) {}
@@ -306,40 +373,65 @@ public class ModernQRScannerActivity extends AppCompatActivity {
         
         isScanning = false;
         Logger.qr("QR Code Scanned", "Content: " + qrContent);
-        if (serverLogger != null) {
-            serverLogger.qr("QR Code Scanned", "Content: " + qrContent);
-        }
         
-        // Parse QR content
+        // Parse QR content (single pass, no reflection for the standard payload)
         QRPayload payload = QRUtils.parseQRContent(qrContent);
-        if (payload == null || !QRUtils.isValidQRContent(qrContent)) {
+        long sessionId = payload != null && payload.getSessionId() != null
+                ? payload.getSessionId() : QRUtils.NO_SESSION_ID;
+        if (sessionId == QRUtils.NO_SESSION_ID) {
             Logger.qr("Invalid QR Code", "Failed to parse QR content: " + qrContent);
             if (serverLogger != null) {
                 serverLogger.qr("Invalid QR Code", "Failed to parse QR content: " + qrContent);
             }
             updateStatus("Invalid QR code format", R.color.error_red);
             showError("Invalid QR code format. Expected: {\"sessionId\":\"session-xxx\"}");
+            finishTrace("INVALID_QR", 0);
             resumeScanning();
             return;
         }
         
-        Long sessionId = payload.getSessionId();
-        if (sessionId == null || sessionId <= 0) {
+        if (sessionId <= 0) {
             Logger.qr("Invalid QR Code", "Session ID is null or empty");
             if (serverLogger != null) {
                 serverLogger.qr("Invalid QR Code", "Session ID is null or empty");
             }
             updateStatus("QR code missing session ID", R.color.error_red);
             showError("QR code missing session ID");
+            finishTrace("INVALID_QR", 0);
+            resumeScanning();
+            return;
+        }
+        
+        // Rotating token: only reject codes far outside any clock skew (e.g. an old photo); the server checks freshness
+        if (payload.isSigned() && !QrTokenSigner.isFresh(payload.getTimeStep(),
+                payload.getStepSeconds() != null ? payload.getStepSeconds() : QrTokenSigner.DEFAULT_STEP_SECONDS,
+                System.currentTimeMillis())) {
+            Logger.qr("Expired QR Code", "Session ID: " + sessionId + ", time step: " + payload.getTimeStep());
+            if (serverLogger != null) {
+                serverLogger.qr("Expired QR Code", "Session ID: " + sessionId + ", time step: " + payload.getTimeStep());
+            }
+            updateStatus("QR code expired", R.color.error_red);
+            showError("This QR code has expired. Scan the code currently shown by the presenter.");
+            finishTrace("EXPIRED_QR", 0);
             resumeScanning();
             return;
         }
         
-        Logger.qr("QR Code Parsed", "Session ID: " + sessionId);
+        scanTrace.markParsed();
+
+        // Same QR again after a result - show the known outcome instead of re-submitting.
+        // Checked before anything goes to the server log: a phone held over the code re-scans it every frame.
+        RecentAttendanceCache.Entry recent = RecentAttendanceCache.getInstance()
+                .get(sessionId, preferencesManager.getUserName());
+        if (recent != null) {
+            showRecentOutcome(sessionId, recent);
+            return;
+        }
         if (serverLogger != null) {
-            serverLogger.qr("QR Code Parsed", "Session ID: " + sessionId);
+            serverLogger.qr("QR Code Scanned", "Content: " + qrContent);
         }
         currentSessionId = sessionId;
+        currentToken = payload.isSigned() ? payload : null;
         
         updateStatus("Processing...", R.color.warning_orange);
         animateScanFrame();
@@ -352,14 +444,12 @@ public class ModernQRScannerActivity extends AppCompatActivity {
         String studentUsername = preferencesManager.getUserName();
         String userRole = preferencesManager.getUserRole();
         
-        // Debug: Log all user info
-        Logger.i(TAG, "=== Attendance Submission Debug ===");
-        Logger.i(TAG, "Session ID: " + sessionId);
-        Logger.i(TAG, "Student Username: " + (studentUsername != null ? studentUsername : "NULL"));
-        Logger.i(TAG, "User Role: " + (userRole != null ? userRole : "NULL"));
-        Logger.i(TAG, "Is Participant: " + preferencesManager.isParticipant());
-        Logger.i(TAG, "Is Presenter: " + preferencesManager.isPresenter());
-        Logger.i(TAG, "===================================");
+        // Debug: Log all user info (built only in debug builds)
+        Logger.d(TAG, () -> "Attendance submission - Session ID: " + sessionId
+                + ", Student Username: " + (studentUsername != null ? studentUsername : "NULL")
+                + ", User Role: " + (userRole != null ? userRole : "NULL")
+                + ", Is Participant: " + preferencesManager.isParticipant()
+                + ", Is Presenter: " + preferencesManager.isPresenter());
         
         if (TextUtils.isEmpty(studentUsername)) {
             Logger.e(TAG, "Student username not found or invalid");
@@ -369,6 +459,7 @@ public class ModernQRScannerActivity extends AppCompatActivity {
                 serverLogger.e(ServerLogger.TAG_QR, "Student username not found or invalid - Role: " + userRole);
             }
             showError("Student username not found. Please log in again.\n\nDebug: Role=" + userRole + ", Username=" + studentUsername);
+            finishTrace("NOT_LOGGED_IN", 0);
             return;
         }
         
@@ -379,17 +470,9 @@ public class ModernQRScannerActivity extends AppCompatActivity {
                 serverLogger.e(ServerLogger.TAG_QR, "User is not a participant - Role: " + userRole);
             }
             showError("Only students can scan QR codes for attendance.\n\nCurrent role: " + userRole);
+            finishTrace("NOT_PARTICIPANT", 0);
             return;
         }
-
-        String logJson = String.format(
-            "{\"event\":\"QR_SCANNED\",\"sessionId\":%d,\"student\":\"%s\",\"role\":\"%s\",\"timestamp\":%d}",
-            sessionId, studentUsername, preferencesManager.getUserRole(), System.currentTimeMillis()
-        );
-        Logger.i(TAG, logJson);
-        if (serverLogger != null) {
-            serverLogger.i(ServerLogger.TAG_QR, logJson);
-        }
         proceedWithAttendanceSubmission(sessionId, studentUsername);
     }
     
@@ -401,46 +484,36 @@ public class ModernQRScannerActivity extends AppCompatActivity {
         ApiService.SubmitAttendanceRequest request = new ApiService.SubmitAttendanceRequest(
             sessionId, studentUsername, timestampMs
         );
-
-        String apiBaseUrl = ApiClient.getInstance(this).getCurrentBaseUrl();
-        String logJson = String.format(
-            "{\"event\":\"SUBMIT_REQUEST\",\"method\":\"POST\",\"endpoint\":\"/api/v1/attendance\",\"baseUrl\":\"%s\",\"sessionId\":%d,\"student\":\"%s\",\"timestamp\":%d}",
-            apiBaseUrl, sessionId, studentUsername, timestampMs
-        );
-        Logger.i(TAG, logJson);
-        if (serverLogger != null) {
-            serverLogger.i(ServerLogger.TAG_QR, logJson);
+        if (currentToken != null && sessionId.equals(currentToken.getSessionId())) {
+            request.qrTimeStep = currentToken.getTimeStep();
+            request.qrSignature = currentToken.getSignature();
         }
 
+        RecentAttendanceCache recentAttendance = RecentAttendanceCache.getInstance();
+        recentAttendance.markPending(sessionId, studentUsername);
         long requestStartTime = System.currentTimeMillis();
         Call<Attendance> call = apiService.submitAttendance(request);
+        scanTrace.markRequestSent();
         
         call.enqueue(new Callback<Attendance>() {
             @Override
             public void onResponse(Call<Attendance> call, Response<Attendance> response) {
                 long requestDuration = System.currentTimeMillis() - requestStartTime;
-                String responseLogJson = String.format(
-                    "{\"event\":\"RESPONSE_RECEIVED\",\"code\":%d,\"successful\":%b,\"hasBody\":%b,\"hasErrorBody\":%b,\"durationMs\":%d,\"url\":\"%s\"}",
-                    response.code(), response.isSuccessful(), response.body() != null,
-                    response.errorBody() != null, requestDuration,
-                    call.request() != null ? call.request().url() : "NULL"
-                );
-                Logger.i(TAG, responseLogJson);
+                scanTrace.markResponseReceived();
 
                 if (response.isSuccessful()) {
                     Attendance result = response.body();
                     if (result != null) {
-                        String logJson = String.format(
-                            "{\"event\":\"ATTENDANCE_SUCCESS\",\"attendanceId\":%s,\"sessionId\":%d,\"expectedSessionId\":%d,\"student\":\"%s\",\"method\":\"%s\",\"time\":\"%s\",\"alreadyPresent\":%b,\"durationMs\":%d}",
-                            result.getAttendanceId(), result.getSessionId(), sessionId,
-                            result.getStudentUsername(), result.getMethod(),
-                            result.getAttendanceTime(), result.isAlreadyPresent(), requestDuration
-                        );
-                        Logger.i(TAG, logJson);
                         if (serverLogger != null) {
-                            serverLogger.i(ServerLogger.TAG_QR, logJson);
+                            serverLogger.i(ServerLogger.TAG_QR, () -> Logger.json("event", "ATTENDANCE_SUCCESS",
+                                    "attendanceId", result.getAttendanceId(), "sessionId", result.getSessionId(),
+                                    "expectedSessionId", sessionId, "student", result.getStudentUsername(),
+                                    "method", result.getMethod(), "time", result.getAttendanceTime(),
+                                    "alreadyPresent", result.isAlreadyPresent(), "durationMs", requestDuration));
                             serverLogger.flushLogs();
                         }
+                        recentAttendance.markRecorded(sessionId, studentUsername);
+                        finishTrace("SUCCESS", response.code());
                         vibrateSuccess();
                         updateStatus("Success!", R.color.success_green);
                         showSuccess("Attendance recorded successfully!");
@@ -455,9 +528,17 @@ public class ModernQRScannerActivity extends AppCompatActivity {
                         Logger.e(TAG, "Response body is NULL, code=" + response.code());
                         updateStatus("Invalid response", R.color.error_red);
                         showError("Invalid response from server");
+                        recentAttendance.remove(sessionId, studentUsername);
+                        finishTrace("EMPTY_RESPONSE", response.code());
                         resumeScanning();
                     }
+                } else if (AttendanceOutbox.isRetryable(response.code())) {
+                    // Server overloaded (5xx/429/408) - replay later instead of failing the scan
+                    recentAttendance.markQueued(sessionId, studentUsername);
+                    finishTrace("QUEUED", response.code());
+                    queueForReplay(request, "HTTP " + response.code());
                 } else {
+                    finishTrace("REJECTED", response.code());
                     String logJson = String.format(
                         "{\"event\":\"ATTENDANCE_FAILED\",\"sessionId\":%d,\"student\":\"%s\",\"code\":%d,\"message\":\"%s\",\"url\":\"%s\",\"durationMs\":%d}",
                         sessionId, studentUsername, response.code(), response.message(),
@@ -519,11 +600,13 @@ public class ModernQRScannerActivity extends AppCompatActivity {
                         }
                     } catch (Exception e) {
                         Logger.e(TAG, "Error parsing response: " + e.getMessage());
+                        cacheRejection(sessionId, studentUsername, response.code(), null);
                         handleAttendanceError(response.code());
                         return;
                     }
 
                     Logger.e(TAG, "Showing error: " + errorMessage);
+                    cacheRejection(sessionId, studentUsername, response.code(), errorMessage);
                     showErrorDialog(errorMessage);
                     if (serverLogger != null) {
                         serverLogger.attendance("Attendance Failed", "Session: " + sessionId + ", Reason: " + errorMessage);
@@ -536,6 +619,7 @@ public class ModernQRScannerActivity extends AppCompatActivity {
             @Override
             public void onFailure(Call<Attendance> call, Throwable t) {
                 long requestDuration = System.currentTimeMillis() - requestStartTime;
+                scanTrace.markResponseReceived();
                 String logJson = String.format(
                     "{\"event\":\"NETWORK_FAILURE\",\"sessionId\":%d,\"student\":\"%s\",\"durationMs\":%d,\"exceptionType\":\"%s\",\"message\":\"%s\",\"url\":\"%s\",\"method\":\"%s\"}",
                     sessionId, studentUsername, requestDuration,
@@ -547,6 +631,15 @@ public class ModernQRScannerActivity extends AppCompatActivity {
                 if (serverLogger != null) {
                     serverLogger.e(ServerLogger.TAG_QR, logJson, t);
                 }
+                if (t instanceof java.io.IOException) {
+                    // Network saturated or down - the outbox replays with the original timestamp
+                    recentAttendance.markQueued(sessionId, studentUsername);
+                    finishTrace("QUEUED", 0);
+                    queueForReplay(request, t.getClass().getSimpleName());
+                    return;
+                }
+                recentAttendance.remove(sessionId, studentUsername);
+                finishTrace("NETWORK_ERROR", 0);
                 updateStatus("Network error", R.color.error_red);
                 String errorMessage = ErrorMessageHelper.getNetworkErrorMessage(ModernQRScannerActivity.this, t);
                 showError(errorMessage);
@@ -555,6 +648,92 @@ public class ModernQRScannerActivity extends AppCompatActivity {
         });
     }
     
+    /**
+     * Hand the submission to the durable outbox (same timestampMs and clientRequestId)
+     * so the student can move on while it is replayed in the background.
+     */
+    private void queueForReplay(ApiService.SubmitAttendanceRequest request, String reason) {
+        AttendanceOutbox.getInstance(this).enqueue(request);
+        String details = "Session: " + request.sessionId + ", Reason: " + reason + ", Key: " + request.clientRequestId;
+        Logger.attendance("Attendance Queued", details);
+        if (serverLogger != null) {
+            serverLogger.attendance("Attendance Queued", details);
+        }
+        vibrateSuccess();
+        updateStatus("Saved - sending automatically", R.color.warning_orange);
+        showSuccess("Attendance saved. It will be sent automatically when the connection recovers.");
+
+        new android.os.Handler(android.os.Looper.getMainLooper()).postDelayed(() -> {
+            if (!isFinishing() && !isDestroyed()) {
+                finish();
+            }
+        }, 2000);
+    }
+    
+    /**
+     * Remember a server refusal; 409 means the attendance already exists
+     */
+    private void cacheRejection(long sessionId, String studentUsername, int code, String message) {
+        RecentAttendanceCache recentAttendance = RecentAttendanceCache.getInstance();
+        if (code == 409) {
+            recentAttendance.markRecorded(sessionId, studentUsername);
+        } else {
+            recentAttendance.markRejected(sessionId, studentUsername, message);
+        }
+    }
+
+    /**
+     * Answer a repeated scan from RecentAttendanceCache without calling the server
+     */
+    private void showRecentOutcome(long sessionId, RecentAttendanceCache.Entry recent) {
+        Logger.qr("Duplicate Scan", "Session ID: " + sessionId + ", known outcome: " + recent.status);
+        finishTrace("DUPLICATE_" + recent.status, 0, false);
+        switch (recent.status) {
+            case RECORDED:
+            case QUEUED:
+                vibrateSuccess();
+                updateStatus("Already recorded", R.color.success_green);
+                showSuccess(recent.status == RecentAttendanceCache.Status.RECORDED
+                        ? "Your attendance for this session is already recorded."
+                        : "Attendance already saved. It will be sent automatically when the connection recovers.");
+                new android.os.Handler(android.os.Looper.getMainLooper()).postDelayed(() -> {
+                    if (!isFinishing() && !isDestroyed()) {
+                        finish();
+                    }
+                }, 2000);
+                break;
+            case REJECTED:
+                updateStatus("Request failed", R.color.error_red);
+                showError(recent.message != null ? recent.message : "Attendance was not accepted for this session");
+                resumeScanning();
+                break;
+            default: // PENDING
+                updateStatus("Processing...", R.color.warning_orange);
+                resumeScanning();
+                break;
+        }
+    }
+
+    /**
+     * Emit the time-to-attendance record for the current attempt (one per scan)
+     */
+    private void finishTrace(String outcome, int httpCode) {
+        finishTrace(outcome, httpCode, true);
+    }
+
+    /**
+     * @param upload false to keep the record in Logcat only (duplicate scans)
+     */
+    private void finishTrace(String outcome, int httpCode, boolean upload) {
+        String engine = qrDecoder != null ? qrDecoder.name() : "none";
+        String record = scanTrace.finish(outcome, engine, httpCode);
+        if (upload && serverLogger != null) {
+            serverLogger.performance("Scan Trace", record);
+        } else {
+            Logger.d(TAG, record);
+        }
+    }
+    
     private void handleAttendanceError(int responseCode) {
         switch (responseCode) {
             case 409:
@@ -582,7 +761,9 @@ public class ModernQRScannerActivity extends AppCompatActivity {
     private void resumeScanning() {
         new android.os.Handler(android.os.Looper.getMainLooper()).postDelayed(() -> {
             if (!isFinishing() && !isDestroyed()) {
+                scanTrace.restart();
                 isScanning = true;
+                resultPending.set(false);
                 updateStatus("Ready to scan", R.color.success_green);
             }
         }, 2000);
@@ -689,23 +870,47 @@ public class ModernQRScannerActivity extends AppCompatActivity {
         }
     }
     
+    private void scheduleDecoderClose() {
+        try {
+            cameraExecutor.execute(this::closeDecoderIfIdle);
+        } catch (RejectedExecutionException e) {
+            Logger.e(TAG, "Camera executor already shut down - barcode scanner not released", e);
+        }
+    }
+
+    /**
+     * Camera executor only: close the decoder handed over by onDestroy once no frame is in flight
+     * (the in-flight frame's callback schedules this again), then stop the executor
+     */
+    private void closeDecoderIfIdle() {
+        if (decodeInFlight.get()) {
+            return;
+        }
+        QrDecoder decoder = decoderToClose.getAndSet(null);
+        if (decoder == null) {
+            return;
+        }
+        try {
+            decoder.close();
+        } catch (Exception e) {
+            Logger.e(TAG, "Error releasing barcode scanner", e);
+        }
+        cameraExecutor.shutdown();
+    }
+
     @Override
     protected void onDestroy() {
         try {
             // Stop scanning first
             isScanning = false;
 
-            // Close barcode scanner
-            if (barcodeScanner != null) {
-                try {
-                    barcodeScanner.close();
-                } catch (Exception e) {
-                    Logger.e(TAG, "Error closing barcode scanner", e);
-                }
-                barcodeScanner = null;
+            // Report a scan that was started but never reached a result
+            if (scanTrace.hasActivity()) {
+                finishTrace("ABANDONED", 0);
             }
 
-            // Unbind camera
+            // Unbind camera first - no new frames reach the analyzer
+            decoderReleased = true;
             if (cameraProvider != null) {
                 try {
                     cameraProvider.unbindAll();
@@ -715,14 +920,16 @@ public class ModernQRScannerActivity extends AppCompatActivity {
                 cameraProvider = null;
             }
 
-            // Shutdown executor
-            if (cameraExecutor != null) {
-                try {
-                    cameraExecutor.shutdown();
-                } catch (Exception e) {
-                    Logger.e(TAG, "Error shutting down camera executor", e);
-                }
-                cameraExecutor = null;
+            // Hand the barcode scanner back so the next scan starts warm - but only after the
+            // frame being analyzed (and its ML Kit callback) is done, or that frame would use a
+            // scanner already recycled to ScannerWarmup. closeDecoderIfIdle then shuts the executor down.
+            QrDecoder decoder = qrDecoder;
+            qrDecoder = null;
+            if (decoder != null && cameraExecutor != null) {
+                decoderToClose.set(decoder);
+                scheduleDecoderClose();
+            } else if (cameraExecutor != null) {
+                cameraExecutor.shutdown();
             }
 
             camera = null;
@@ -1,7 +1,6 @@
 package org.example.semscan.ui.qr;
 
 import android.content.Intent;
-import android.graphics.Bitmap;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
@@ -15,10 +14,7 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.WriterException;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 
 import org.example.semscan.R;
 import org.example.semscan.data.api.ApiClient;
@@ -54,6 +50,7 @@ public class QRDisplayActivity extends AppCompatActivity {
     private Timer attendanceUpdateTimer;
     private boolean isPollingActive = false;
     private static final long POLLING_INTERVAL = 30000; // 30 seconds instead of 5
+    private static final int QR_SIZE_PX = 500;
     private int presentCount = 0;
     
     @Override
@@ -131,21 +128,17 @@ public class QRDisplayActivity extends AppCompatActivity {
         String qrContent = QRUtils.generateQRContent(currentSession.getSessionId());
         Logger.qr("QR Code Generated", "Content: " + qrContent);
         
-        // Generate QR code bitmap
-        try {
-            Bitmap qrBitmap = generateQRCode(qrContent, 500, 500);
-            imageQRCode.setImageBitmap(qrBitmap);
-            
-            // Update session info
-        textSessionInfo.setText("Session: " + currentSession.getSessionId());
-            
-            Logger.qr("QR Display Updated", "QR code displayed for session: " + currentSession.getSessionId());
-            
-        } catch (Exception e) {
+        // Render QR code bitmap in the background (ZXing defaults: ECC L, 4-module quiet zone)
+        QrBitmapRenderer.getInstance().render(imageQRCode, qrContent, QR_SIZE_PX, ErrorCorrectionLevel.L, 4, e -> {
             Logger.e(Logger.TAG_QR, "Failed to generate QR code", e);
             Toast.makeText(this, "Failed to generate QR code", Toast.LENGTH_SHORT).show();
             finish();
-        }
+        });
+            
+        // Update session info
+        textSessionInfo.setText("Session: " + currentSession.getSessionId());
+            
+        Logger.qr("QR Display Updated", "QR code displayed for session: " + currentSession.getSessionId());
     }
     
     private void startAttendanceUpdates() {
@@ -364,6 +357,9 @@ public class QRDisplayActivity extends AppCompatActivity {
     protected void onDestroy() {
         super.onDestroy();
         stopAttendanceUpdates();
+        if (imageQRCode != null) {
+            QrBitmapRenderer.getInstance().release(imageQRCode);
+        }
         Logger.i(Logger.TAG_QR, "Activity destroyed - stopping attendance polling");
     }
     
@@ -385,24 +381,4 @@ public class QRDisplayActivity extends AppCompatActivity {
     public void onBackPressed() {
         showEndSessionDialog();
     }
-    
-    private Bitmap generateQRCode(String content, int width, int height) throws WriterException {
-        QRCodeWriter writer = new QRCodeWriter();
-        BitMatrix bitMatrix = writer.encode(content, BarcodeFormat.QR_CODE, width, height);
-        
-        int w = bitMatrix.getWidth();
-        int h = bitMatrix.getHeight();
-        int[] pixels = new int[w * h];
-        
-        for (int y = 0; y < h; y++) {
-            int offset = y * w;
-            for (int x = 0; x < w; x++) {
-                pixels[offset + x] = bitMatrix.get(x, y) ? 0xFF000000 : 0xFFFFFFFF;
-            }
-        }
-        
-        Bitmap bitmap = Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
-        bitmap.setPixels(pixels, 0, w, 0, 0, w, h);
-        return bitmap;
-    }
 }
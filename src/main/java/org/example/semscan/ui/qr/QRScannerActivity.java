@@ -26,6 +26,7 @@ import org.example.semscan.data.model.QRPayload;
 import org.example.semscan.utils.Logger;
 import org.example.semscan.utils.PreferencesManager;
 import org.example.semscan.utils.QRUtils;
+import org.example.semscan.utils.QrTokenSigner;
 import org.example.semscan.utils.ServerLogger;
 import org.example.semscan.utils.ToastUtils;
 
@@ -46,6 +47,7 @@ public class QRScannerActivity extends AppCompatActivity {
     
     private boolean isFlashlightOn = false;
     private Long currentSessionId = null;
+    private QRPayload currentToken = null; // Signed rotating token of the current scan, if any
     
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -158,26 +160,36 @@ public class QRScannerActivity extends AppCompatActivity {
         
         // Parse QR content
         QRPayload payload = QRUtils.parseQRContent(qrContent);
-        Logger.i(Logger.TAG_QR, "Parsed payload: " + (payload != null ? payload.toString() : "null"));
+        long parsedSessionId = payload != null && payload.getSessionId() != null
+                ? payload.getSessionId() : QRUtils.NO_SESSION_ID;
+        Logger.i(Logger.TAG_QR, "Parsed session ID: " + (parsedSessionId != QRUtils.NO_SESSION_ID ? parsedSessionId : "none"));
         
-        if (payload == null || !QRUtils.isValidQRContent(qrContent)) {
+        if (parsedSessionId == QRUtils.NO_SESSION_ID) {
             Logger.qr("Invalid QR Code", "Failed to parse QR content: " + qrContent);
             Logger.qr("QR Code Debug", "Expected format: {\"sessionId\":\"session-xxx\"}");
             showError("Invalid QR code format. Expected: {\"sessionId\":\"session-xxx\"}");
             return;
         }
         
-        Long sessionId = payload.getSessionId();
+        Long sessionId = parsedSessionId;
         Logger.i(Logger.TAG_QR, "Extracted session ID: '" + sessionId + "'");
-        Logger.i(Logger.TAG_QR, "Session ID is null: " + (sessionId == null));
         
-        if (sessionId == null || sessionId <= 0) {
+        if (sessionId <= 0) {
             Logger.qr("Invalid QR Code", "Session ID is null or empty");
             showError("QR code missing session ID");
             return;
         }
         
+        if (payload.isSigned() && !QrTokenSigner.isFresh(payload.getTimeStep(),
+                payload.getStepSeconds() != null ? payload.getStepSeconds() : QrTokenSigner.DEFAULT_STEP_SECONDS,
+                System.currentTimeMillis())) {
+            Logger.qr("Expired QR Code", "Session ID: " + sessionId + ", time step: " + payload.getTimeStep());
+            showError("This QR code has expired. Scan the code currently shown by the presenter.");
+            return;
+        }
+        
         Logger.qr("QR Code Parsed", "Session ID: " + sessionId);
+        currentToken = payload.isSigned() ? payload : null;
         
         // Store current session ID (manual request button removed from scanner)
         currentSessionId = sessionId;
@@ -230,6 +242,10 @@ public class QRScannerActivity extends AppCompatActivity {
         ApiService.SubmitAttendanceRequest request = new ApiService.SubmitAttendanceRequest(
                 sessionId, studentUsername, System.currentTimeMillis()
         );
+        if (currentToken != null && sessionId.equals(currentToken.getSessionId())) {
+            request.qrTimeStep = currentToken.getTimeStep();
+            request.qrSignature = currentToken.getSignature();
+        }
         
         // Log the complete request
         Logger.i(Logger.TAG_QR, "Request object created:");
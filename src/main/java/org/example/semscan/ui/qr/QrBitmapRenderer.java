@@ -0,0 +1,278 @@
+package org.example.semscan.ui.qr;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+
+import org.example.semscan.utils.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Renders QR codes into bitmaps off the UI thread, shared by the QR display screens.
+ *
+ * Content is encoded once into its module matrix and drawn at the largest whole-pixel module
+ * size that fits the requested size, so the bitmap is no bigger than needed and every module is
+ * sharp. Each module row is written with a single setPixels call. Bitmaps are cached by
+ * (content, size, ECC level, margin); evicted bitmaps that are no longer shown are reused for
+ * the next render instead of being reallocated.
+ *
+ * render()/prerender()/release() must be called on the main thread; screens call release() from
+ * onDestroy so their last bitmap is not kept alive by the display count.
+ */
+public class QrBitmapRenderer {
+
+    public interface ErrorCallback {
+        void onError(WriterException e);
+    }
+
+    private static final String TAG = "QrBitmapRenderer";
+    private static final int CACHE_MAX_BYTES = 4 * 1024 * 1024;
+    private static final int MAX_POOLED_BITMAPS = 2;
+    private static final Bitmap.Config BITMAP_CONFIG = Bitmap.Config.RGB_565; // Black/white only
+    private static final int DARK = 0xFF000000;
+    private static final int LIGHT = 0xFFFFFFFF;
+
+    private static QrBitmapRenderer instance;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final LruCache<Key, Bitmap> cache;
+    private final ArrayDeque<Bitmap> bitmapPool = new ArrayDeque<>(); // Guarded by itself
+    private final IdentityHashMap<Bitmap, Integer> displayed = new IdentityHashMap<>(); // View count, guarded by itself
+    private final WeakHashMap<ImageView, Key> requested = new WeakHashMap<>(); // Main thread only
+    private final WeakHashMap<ImageView, Bitmap> shown = new WeakHashMap<>(); // Main thread only
+    private int[] rowBuffer; // Executor thread only
+
+    private QrBitmapRenderer() {
+        cache = new LruCache<Key, Bitmap>(CACHE_MAX_BYTES) {
+            @Override
+            protected int sizeOf(Key key, Bitmap bitmap) {
+                return bitmap.getByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Key key, Bitmap oldValue, Bitmap newValue) {
+                if (evicted) {
+                    offerToPool(oldValue);
+                }
+            }
+        };
+    }
+
+    public static synchronized QrBitmapRenderer getInstance() {
+        if (instance == null) {
+            instance = new QrBitmapRenderer();
+        }
+        return instance;
+    }
+
+    /**
+     * Show the QR for content in target, rendering in the background unless it is cached.
+     * A later render() for the same view supersedes an unfinished one.
+     * @param size target width/height in pixels (the bitmap may be slightly smaller)
+     * @param margin quiet zone in modules
+     */
+    public void render(ImageView target, String content, int size, ErrorCorrectionLevel ecLevel, int margin,
+                       ErrorCallback onError) {
+        Key key = new Key(content, size, ecLevel, margin);
+        requested.put(target, key);
+        Bitmap cached;
+        synchronized (displayed) { // Atomic with offerToPool: a concurrent eviction cannot pool it
+            cached = cache.get(key);
+            if (cached != null) {
+                retain(cached);
+            }
+        }
+        if (cached != null) {
+            show(target, key, cached);
+            return;
+        }
+        executor.execute(() -> {
+            Bitmap bitmap;
+            try {
+                bitmap = renderCached(key);
+                retain(bitmap); // Before the next render can evict it into the pool
+            } catch (WriterException e) {
+                mainHandler.post(() -> {
+                    if (key.equals(requested.get(target)) && onError != null) {
+                        onError.onError(e);
+                    }
+                });
+                return;
+            }
+            mainHandler.post(() -> show(target, key, bitmap));
+        });
+    }
+
+    /**
+     * Render content into the cache ahead of time (e.g. the next rotating token)
+     */
+    public void prerender(String content, int size, ErrorCorrectionLevel ecLevel, int margin) {
+        Key key = new Key(content, size, ecLevel, margin);
+        if (cache.get(key) != null) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                renderCached(key);
+            } catch (WriterException e) {
+                Logger.w(TAG, "Failed to pre-render QR: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Detach target from the renderer when its screen goes away (onDestroy): drops any pending
+     * render for it and releases the bitmap it shows, so the bitmap can be evicted and pooled.
+     * The view is cleared because a pooled bitmap gets drawn over. Main thread only.
+     */
+    public void release(ImageView target) {
+        requested.remove(target); // An unfinished render is released in show()
+        Bitmap bitmap = shown.remove(target);
+        if (bitmap != null) {
+            target.setImageDrawable(null);
+            release(bitmap);
+        }
+    }
+
+    /**
+     * Main thread; bitmap must have been retained for this call
+     */
+    private void show(ImageView target, Key key, Bitmap bitmap) {
+        if (!key.equals(requested.get(target))) {
+            release(bitmap); // Superseded by a newer render for this view
+            return;
+        }
+        requested.remove(target);
+        Bitmap previous = shown.put(target, bitmap);
+        if (previous != null) {
+            release(previous);
+        }
+        target.setImageBitmap(bitmap);
+    }
+
+    private void retain(Bitmap bitmap) {
+        synchronized (displayed) {
+            Integer count = displayed.get(bitmap);
+            displayed.put(bitmap, count == null ? 1 : count + 1);
+        }
+    }
+
+    private void release(Bitmap bitmap) {
+        synchronized (displayed) {
+            Integer count = displayed.get(bitmap);
+            if (count == null || count <= 1) {
+                displayed.remove(bitmap);
+            } else {
+                displayed.put(bitmap, count - 1);
+            }
+        }
+    }
+
+    private Bitmap renderCached(Key key) throws WriterException {
+        Bitmap bitmap = cache.get(key);
+        if (bitmap == null) {
+            long start = System.currentTimeMillis();
+            bitmap = draw(Encoder.encode(key.content, key.ecLevel, null).getMatrix(), key.size, key.margin);
+            cache.put(key, bitmap);
+            Logger.d(TAG, "Rendered " + bitmap.getWidth() + "px QR in " + (System.currentTimeMillis() - start) + "ms");
+        }
+        return bitmap;
+    }
+
+    private Bitmap draw(ByteMatrix matrix, int size, int margin) {
+        int modules = matrix.getWidth() + 2 * margin;
+        int moduleSize = Math.max(1, size / modules);
+        int side = modules * moduleSize;
+        Bitmap bitmap = obtainBitmap(side);
+
+        int blockSize = side * moduleSize;
+        if (rowBuffer == null || rowBuffer.length < blockSize) {
+            rowBuffer = new int[blockSize];
+        }
+        int[] block = rowBuffer;
+        for (int my = 0; my < modules; my++) {
+            int y = my - margin;
+            boolean quietRow = y < 0 || y >= matrix.getHeight();
+            for (int mx = 0; mx < modules; mx++) {
+                int x = mx - margin;
+                boolean dark = !quietRow && x >= 0 && x < matrix.getWidth() && matrix.get(x, y) == 1;
+                int from = mx * moduleSize;
+                Arrays.fill(block, from, from + moduleSize, dark ? DARK : LIGHT);
+            }
+            // Repeat the first pixel row for the module's height, then write it in one call
+            for (int r = 1; r < moduleSize; r++) {
+                System.arraycopy(block, 0, block, r * side, side);
+            }
+            bitmap.setPixels(block, 0, side, 0, my * moduleSize, side, moduleSize);
+        }
+        return bitmap;
+    }
+
+    private Bitmap obtainBitmap(int side) {
+        synchronized (bitmapPool) {
+            for (Bitmap pooled : bitmapPool) {
+                if (pooled.getWidth() == side && pooled.getHeight() == side && !pooled.isRecycled()) {
+                    bitmapPool.remove(pooled);
+                    return pooled;
+                }
+            }
+        }
+        return Bitmap.createBitmap(side, side, BITMAP_CONFIG);
+    }
+
+    private void offerToPool(Bitmap bitmap) {
+        synchronized (displayed) {
+            if (displayed.containsKey(bitmap)) {
+                return; // Still on screen - let it be garbage collected later
+            }
+        }
+        synchronized (bitmapPool) {
+            if (bitmapPool.size() >= MAX_POOLED_BITMAPS) {
+                bitmapPool.pollFirst();
+            }
+            bitmapPool.addLast(bitmap);
+        }
+    }
+
+    private static final class Key {
+        final String content;
+        final int size;
+        final ErrorCorrectionLevel ecLevel;
+        final int margin;
+
+        Key(String content, int size, ErrorCorrectionLevel ecLevel, int margin) {
+            this.content = content;
+            this.size = size;
+            this.ecLevel = ecLevel;
+            this.margin = margin;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return size == other.size && margin == other.margin && ecLevel == other.ecLevel
+                    && content.equals(other.content);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(content, size, ecLevel, margin);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.semscan.ui.qr;
+
+import androidx.annotation.Nullable;
+import androidx.camera.core.ImageProxy;
+
+/**
+ * Decoding engine used by the scanner's image analyzer (ML Kit, ZXing, or the adaptive mix).
+ *
+ * decode() is called on the analyzer thread with at most one frame in flight. The callback is
+ * invoked exactly once per frame, on the analyzer thread; the caller closes the ImageProxy there.
+ */
+public interface QrDecoder {
+
+    interface Callback {
+        /**
+         * @param text decoded QR content, or null if the frame has no QR code (or decoding failed)
+         * @param error engine failure, null for a normal result
+         */
+        void onComplete(@Nullable String text, @Nullable Exception error);
+    }
+
+    String name();
+
+    void decode(ImageProxy image, Callback callback);
+
+    /**
+     * Release engine resources (after the last frame)
+     */
+    void close();
+}
@@ -0,0 +1,163 @@
+package org.example.semscan.ui.qr;
+
+import android.graphics.ImageFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import androidx.camera.core.ImageProxy;
+
+import com.google.mlkit.vision.common.InputImage;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Crops camera frames to the on-screen scan frame before they are handed to ML Kit.
+ *
+ * Decode time grows with pixel count, so only the luminance (Y) plane inside the scan frame
+ * (plus a margin) is copied into a reused NV21 buffer whose chroma is neutral grey - QR decoding
+ * only needs luminance. Every FULL_FRAME_INTERVAL-th frame is decoded uncropped, so a code held
+ * partly outside the frame is still found.
+ *
+ * Not thread-safe: call crop()/nextRegion() from the analyzer thread only. The buffer is reused, which is safe
+ * because ImageAnalysis (KEEP_ONLY_LATEST) delivers the next frame only after the previous
+ * ImageProxy is closed, i.e. after ML Kit finished with the previous InputImage.
+ */
+public class QrFrameCropper {
+
+    private static final float REGION_MARGIN = 0.15f; // Relative to region size, per side
+    private static final int FULL_FRAME_INTERVAL = 5;
+    private static final int MIN_CROP_SIZE = 64;
+
+    // Scan frame in normalized PreviewView coordinates (null = unknown, decode full frames)
+    private volatile RectF viewRegion;
+    private volatile float viewAspect; // PreviewView width / height
+
+    private byte[] nv21;
+    private int frameCounter;
+
+    /**
+     * Set the scan frame rectangle, in pixels relative to a preview of viewWidth x viewHeight
+     * (main thread, after layout)
+     */
+    public void setScanRegion(Rect frameInView, int viewWidth, int viewHeight) {
+        if (frameInView == null || viewWidth <= 0 || viewHeight <= 0) {
+            viewRegion = null;
+            return;
+        }
+        viewAspect = (float) viewWidth / viewHeight;
+        viewRegion = new RectF(
+                (float) frameInView.left / viewWidth,
+                (float) frameInView.top / viewHeight,
+                (float) frameInView.right / viewWidth,
+                (float) frameInView.bottom / viewHeight);
+    }
+
+    /**
+     * Region of this frame to decode, in sensor pixels (advances the full-frame counter)
+     * @return the crop rectangle, or null to decode the full frame instead
+     */
+    public Rect nextRegion(ImageProxy image) {
+        if (viewRegion == null || image.getFormat() != ImageFormat.YUV_420_888) {
+            return null;
+        }
+        return nextRegion(image.getWidth(), image.getHeight(), image.getImageInfo().getRotationDegrees());
+    }
+
+    /**
+     * nextRegion for a YUV_420_888 frame of the given size and rotation
+     */
+    Rect nextRegion(int imageWidth, int imageHeight, int rotation) {
+        RectF region = viewRegion;
+        if (region == null || ++frameCounter % FULL_FRAME_INTERVAL == 0) {
+            return null;
+        }
+        return toSensorRect(region, viewAspect, imageWidth, imageHeight, rotation);
+    }
+
+    /**
+     * @return a cropped InputImage, or null to decode the full frame instead
+     */
+    public InputImage crop(ImageProxy image) {
+        Rect crop = nextRegion(image);
+        if (crop == null) {
+            return null;
+        }
+        int rotation = image.getImageInfo().getRotationDegrees();
+
+        int width = crop.width();
+        int height = crop.height();
+        int ySize = width * height;
+        int size = ySize + ySize / 2;
+        if (nv21 == null || nv21.length != size) {
+            nv21 = new byte[size];
+            Arrays.fill(nv21, ySize, size, (byte) 128); // Neutral chroma, written once
+        }
+
+        ImageProxy.PlaneProxy yPlane = image.getPlanes()[0];
+        ByteBuffer buffer = yPlane.getBuffer();
+        int rowStride = yPlane.getRowStride();
+        for (int row = 0; row < height; row++) {
+            buffer.position((crop.top + row) * rowStride + crop.left);
+            buffer.get(nv21, row * width, width);
+        }
+        buffer.rewind();
+
+        return InputImage.fromByteArray(nv21, width, height, rotation, InputImage.IMAGE_FORMAT_NV21);
+    }
+
+    /**
+     * Map the normalized view region into sensor (unrotated) pixel coordinates.
+     * PreviewView uses FILL_CENTER: the rotated frame is scaled to cover the view and centered,
+     * so parts of the frame outside the view are cropped off on one axis.
+     */
+    static Rect toSensorRect(RectF viewRegion, float viewAspect, int imageWidth, int imageHeight, int rotation) {
+        boolean swap = rotation == 90 || rotation == 270;
+        float uprightW = swap ? imageHeight : imageWidth;
+        float uprightH = swap ? imageWidth : imageHeight;
+        float imageAspect = uprightW / uprightH;
+
+        // Visible part of the upright frame, normalized
+        float visibleW = Math.min(1f, viewAspect / imageAspect);
+        float visibleH = Math.min(1f, imageAspect / viewAspect);
+        float offsetX = (1f - visibleW) / 2f;
+        float offsetY = (1f - visibleH) / 2f;
+
+        float marginX = viewRegion.width() * REGION_MARGIN;
+        float marginY = viewRegion.height() * REGION_MARGIN;
+        float left = clamp(offsetX + (viewRegion.left - marginX) * visibleW);
+        float right = clamp(offsetX + (viewRegion.right + marginX) * visibleW);
+        float top = clamp(offsetY + (viewRegion.top - marginY) * visibleH);
+        float bottom = clamp(offsetY + (viewRegion.bottom + marginY) * visibleH);
+
+        // Undo the rotation (normalized upright -> normalized sensor)
+        float sl, st, sr, sb;
+        switch (rotation) {
+            case 90:
+                sl = top; sr = bottom; st = 1f - right; sb = 1f - left;
+                break;
+            case 180:
+                sl = 1f - right; sr = 1f - left; st = 1f - bottom; sb = 1f - top;
+                break;
+            case 270:
+                sl = 1f - bottom; sr = 1f - top; st = left; sb = right;
+                break;
+            default:
+                sl = left; sr = right; st = top; sb = bottom;
+        }
+
+        // Even bounds keep the NV21 layout valid
+        int l = ((int) (sl * imageWidth)) & ~1;
+        int t = ((int) (st * imageHeight)) & ~1;
+        int r = ((int) (sr * imageWidth)) & ~1;
+        int b = ((int) (sb * imageHeight)) & ~1;
+        if (r - l < MIN_CROP_SIZE || b - t < MIN_CROP_SIZE) {
+            return null;
+        }
+        return new Rect(l, t, r, b);
+    }
+
+    private static float clamp(float value) {
+        return Math.max(0f, Math.min(1f, value));
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.semscan.ui.qr;
+
+import android.os.Build;
+import android.os.SystemClock;
+
+import org.example.semscan.utils.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Time-to-attendance trace for one scan attempt, from camera open to the server's answer.
+ *
+ * Milestones are monotonic (elapsedRealtime) offsets in ms from the start of the attempt - the
+ * scanner opening for the first attempt, scanning resuming for later ones. finish() turns the
+ * trace into a single JSON record (for ServerLogger.performance) and starts the next attempt.
+ *
+ * Frame/decode marks come from the analyzer thread, the rest from the main thread.
+ */
+public class ScanTrace {
+
+    private static final long UNSET = -1;
+    private static final String DEVICE = Build.MANUFACTURER + " " + Build.MODEL;
+
+    private volatile long startMs = SystemClock.elapsedRealtime();
+    private volatile long cameraBoundMs = UNSET;
+    private volatile long firstFrameMs = UNSET;
+    private volatile long firstDecodeMs = UNSET;
+    private volatile long parsedMs = UNSET;
+    private volatile long requestSentMs = UNSET;
+    private volatile long responseMs = UNSET;
+    private final AtomicInteger frames = new AtomicInteger();
+    private final AtomicInteger decodes = new AtomicInteger();
+    private int attempt = 1;
+    private boolean finished = false;
+
+    public void markCameraBound() {
+        cameraBoundMs = elapsed();
+    }
+
+    /**
+     * A frame was handed to the decoder
+     */
+    public void markFrame() {
+        if (frames.getAndIncrement() == 0) {
+            firstFrameMs = elapsed();
+        }
+    }
+
+    /**
+     * The decoder found a QR code
+     */
+    public void markDecoded() {
+        if (decodes.getAndIncrement() == 0) {
+            firstDecodeMs = elapsed();
+        }
+    }
+
+    public void markParsed() {
+        parsedMs = elapsed();
+    }
+
+    public void markRequestSent() {
+        requestSentMs = elapsed();
+    }
+
+    public void markResponseReceived() {
+        responseMs = elapsed();
+    }
+
+    /**
+     * Scanning resumed after a failed attempt - the next attempt is timed from now
+     */
+    public void restart() {
+        startMs = SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * Whether anything happened since the last finish() (used to report abandoned scans)
+     */
+    public boolean hasActivity() {
+        return !finished || frames.get() > 0;
+    }
+
+    /**
+     * Close the current attempt and return its record, e.g.
+     * {"event":"SCAN_TRACE","outcome":"SUCCESS","attempt":1,"engine":"ML Kit","device":"...","sdk":34,
+     *  "cameraBoundMs":180,"firstFrameMs":260,"firstDecodeMs":1400,"parsedMs":1402,"requestSentMs":1405,
+     *  "responseMs":1690,"totalMs":1690,"frames":14,"decodes":1,"httpCode":200}
+     * Milestones that were not reached are left out.
+     * @param httpCode HTTP status, or 0 if there was no response
+     */
+    public String finish(String outcome, String engine, int httpCode) {
+        List<Object> fields = new ArrayList<>(36);
+        add(fields, "event", "SCAN_TRACE");
+        add(fields, "outcome", outcome);
+        add(fields, "attempt", attempt);
+        add(fields, "engine", engine);
+        add(fields, "device", DEVICE);
+        add(fields, "sdk", Build.VERSION.SDK_INT);
+        addMs(fields, "cameraBoundMs", cameraBoundMs);
+        addMs(fields, "firstFrameMs", firstFrameMs);
+        addMs(fields, "firstDecodeMs", firstDecodeMs);
+        addMs(fields, "parsedMs", parsedMs);
+        addMs(fields, "requestSentMs", requestSentMs);
+        addMs(fields, "responseMs", responseMs);
+        add(fields, "totalMs", elapsed());
+        add(fields, "frames", frames.get());
+        add(fields, "decodes", decodes.get());
+        if (httpCode > 0) {
+            add(fields, "httpCode", httpCode);
+        }
+        String record = Logger.json(fields.toArray());
+
+        attempt++;
+        finished = true;
+        startMs = SystemClock.elapsedRealtime();
+        cameraBoundMs = UNSET; // Only the first attempt opens the camera
+        firstFrameMs = UNSET;
+        firstDecodeMs = UNSET;
+        parsedMs = UNSET;
+        requestSentMs = UNSET;
+        responseMs = UNSET;
+        frames.set(0);
+        decodes.set(0);
+        return record;
+    }
+
+    private long elapsed() {
+        return SystemClock.elapsedRealtime() - startMs;
+    }
+
+    private static void add(List<Object> fields, String key, Object value) {
+        fields.add(key);
+        fields.add(value);
+    }
+
+    private static void addMs(List<Object> fields, String key, long value) {
+        if (value != UNSET) {
+            add(fields, key, value);
+        }
+    }
+}
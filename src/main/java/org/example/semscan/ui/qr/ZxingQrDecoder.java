@@ -0,0 +1,100 @@
+package org.example.semscan.ui.qr;
+
+import android.graphics.Rect;
+
+import androidx.camera.core.ImageProxy;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * ZXing decoding on the analyzer thread - works without Google Play services.
+ *
+ * Only the Y plane of the scan region is copied, into a buffer that is allocated once and reused
+ * (as is the PlanarYUVLuminanceSource wrapping it while the region size stays the same). Hints
+ * restrict the reader to QR codes so no other format detectors run.
+ */
+public class ZxingQrDecoder implements QrDecoder {
+
+    private final MultiFormatReader reader = new MultiFormatReader();
+    private final QrFrameCropper frameCropper;
+
+    private byte[] luminance;
+    private PlanarYUVLuminanceSource source;
+
+    public ZxingQrDecoder(QrFrameCropper frameCropper) {
+        this.frameCropper = frameCropper;
+        Map<DecodeHintType, Object> hints = new EnumMap<>(DecodeHintType.class);
+        hints.put(DecodeHintType.POSSIBLE_FORMATS, Collections.singletonList(BarcodeFormat.QR_CODE));
+        reader.setHints(hints);
+    }
+
+    @Override
+    public String name() {
+        return "ZXing";
+    }
+
+    @Override
+    public void decode(ImageProxy image, Callback callback) {
+        Rect region = frameCropper.nextRegion(image);
+        if (region == null) {
+            region = new Rect(0, 0, image.getWidth(), image.getHeight());
+        }
+        // The Y plane has a pixel stride of 1; rows may be padded (rowStride >= width)
+        ImageProxy.PlaneProxy yPlane = image.getPlanes()[0];
+        String text;
+        try {
+            text = decodeRegion(yPlane.getBuffer(), yPlane.getRowStride(), region);
+        } catch (RuntimeException e) {
+            callback.onComplete(null, e);
+            return;
+        }
+        callback.onComplete(text, null);
+    }
+
+    /**
+     * Copy the region of a Y plane into the reused buffer and decode it
+     * @return decoded text, or null if no QR code was found
+     */
+    String decodeRegion(ByteBuffer buffer, int rowStride, Rect region) {
+        int width = region.width();
+        int height = region.height();
+
+        if (luminance == null || luminance.length < width * height) {
+            luminance = new byte[width * height];
+            source = null;
+        }
+        if (source == null || source.getWidth() != width || source.getHeight() != height) {
+            source = new PlanarYUVLuminanceSource(luminance, width, height, 0, 0, width, height, false);
+        }
+
+        for (int row = 0; row < height; row++) {
+            buffer.position((region.top + row) * rowStride + region.left);
+            buffer.get(luminance, row * width, width);
+        }
+        buffer.rewind();
+
+        try {
+            return reader.decodeWithState(new BinaryBitmap(new HybridBinarizer(source))).getText();
+        } catch (NotFoundException e) {
+            return null;
+        } finally {
+            reader.reset();
+        }
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release - the buffers go with this instance
+    }
+}
@@ -5,32 +5,20 @@ import android.view.View;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import org.example.semscan.R;
-import org.example.semscan.data.api.ApiClient;
-import org.example.semscan.data.api.ApiService;
 import org.example.semscan.data.model.Attendance;
+import org.example.semscan.data.repository.AttendanceRepository;
 import org.example.semscan.utils.Logger;
 import org.example.semscan.utils.PreferencesManager;
 import org.example.semscan.utils.ServerLogger;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
 
 public class AttendanceHistoryActivity extends AppCompatActivity {
 
@@ -38,10 +26,11 @@ public class AttendanceHistoryActivity extends AppCompatActivity {
     private TextView textTotal;
     private TextView textEmptyState;
     private AttendanceHistoryAdapter adapter;
-    private ApiService apiService;
+    private AttendanceRepository attendanceRepository;
     private PreferencesManager preferencesManager;
     private ServerLogger serverLogger;
     private List<Attendance> attendanceList = new ArrayList<>();
+    private boolean showingCachedHistory = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -52,7 +41,7 @@ public class AttendanceHistoryActivity extends AppCompatActivity {
         Logger.userAction("Open Attendance History", "Student opened attendance history");
 
         preferencesManager = PreferencesManager.getInstance(this);
-        apiService = ApiClient.getInstance(this).getApiService();
+        attendanceRepository = AttendanceRepository.getInstance(this);
         serverLogger = ServerLogger.getInstance(this);
 
         initializeViews();
@@ -97,60 +86,66 @@ public class AttendanceHistoryActivity extends AppCompatActivity {
 
         showLoading(true);
 
-        Call<List<Attendance>> call = apiService.getAttendanceByStudent(username);
-        call.enqueue(new Callback<List<Attendance>>() {
+        // Cached history (already most recent first) shows while only newer records are fetched
+        attendanceRepository.syncStudentAttendance(username, cached -> {
+            if (isFinishing() || isDestroyed()) {
+                return;
+            }
+            Logger.i(Logger.TAG_API, "Showing " + cached.size() + " cached attendance records");
+            showingCachedHistory = true;
+            attendanceList = cached;
+            updateUI();
+        }, new AttendanceRepository.SyncCallback() {
             @Override
-            public void onResponse(@NonNull Call<List<Attendance>> call, @NonNull Response<List<Attendance>> response) {
+            public void onSynced(List<Attendance> history, int newRecords) {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
                 showLoading(false);
+                attendanceList = history;
 
-                if (response.isSuccessful() && response.body() != null) {
-                    attendanceList = response.body();
-                    
-                    // Sort by attendance time (most recent first)
-                    Collections.sort(attendanceList, new Comparator<Attendance>() {
-                        @Override
-                        public int compare(Attendance a1, Attendance a2) {
-                            try {
-                                SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.getDefault());
-                                Date date1 = sdf.parse(a1.getAttendanceTime());
-                                Date date2 = sdf.parse(a2.getAttendanceTime());
-                                if (date1 != null && date2 != null) {
-                                    return date2.compareTo(date1); // Descending order
-                                }
-                            } catch (ParseException e) {
-                                Logger.e(Logger.TAG_API, "Error parsing attendance time", e);
-                            }
-                            return 0;
-                        }
-                    });
-
-                    Logger.i(Logger.TAG_API, "Loaded " + attendanceList.size() + " attendance records");
-                    if (serverLogger != null) {
-                        serverLogger.i(ServerLogger.TAG_API, "Loaded " + attendanceList.size() + " attendance records");
-                    }
-
-                    updateUI();
-                } else {
-                    Logger.e(Logger.TAG_API, "Failed to load attendance history - Status: " + response.code());
-                    if (serverLogger != null) {
-                        serverLogger.e(ServerLogger.TAG_API, "Failed to load attendance history - Status: " + response.code());
-                    }
-                    showError(getString(R.string.error_load_failed));
+                Logger.i(Logger.TAG_API, "Loaded " + attendanceList.size() + " attendance records (" + newRecords + " new)");
+                if (serverLogger != null) {
+                    serverLogger.i(ServerLogger.TAG_API, "Loaded " + attendanceList.size() + " attendance records (" + newRecords + " new)");
                 }
+
+                updateUI();
             }
 
             @Override
-            public void onFailure(@NonNull Call<List<Attendance>> call, @NonNull Throwable t) {
+            public void onSyncFailed(int httpCode, Throwable t) {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
                 showLoading(false);
-                Logger.e(Logger.TAG_API, "Failed to load attendance history", t);
-                if (serverLogger != null) {
-                    serverLogger.e(ServerLogger.TAG_API, "Failed to load attendance history: " + t.getMessage());
+                if (t == null) {
+                    Logger.e(Logger.TAG_API, "Failed to load attendance history - Status: " + httpCode);
+                    if (serverLogger != null) {
+                        serverLogger.e(ServerLogger.TAG_API, "Failed to load attendance history - Status: " + httpCode);
+                    }
+                    showLoadError(getString(R.string.error_load_failed));
+                } else {
+                    Logger.e(Logger.TAG_API, "Failed to load attendance history", t);
+                    if (serverLogger != null) {
+                        serverLogger.e(ServerLogger.TAG_API, "Failed to load attendance history: " + t.getMessage());
+                    }
+                    showLoadError(getString(R.string.error_network_connection));
                 }
-                showError(getString(R.string.error_network_connection));
             }
         });
     }
 
+    /**
+     * Keep the cached history on screen if there is one, otherwise show the error in place of the list
+     */
+    private void showLoadError(String message) {
+        if (showingCachedHistory) {
+            Toast.makeText(this, message, Toast.LENGTH_LONG).show();
+        } else {
+            showError(message);
+        }
+    }
+
     private void updateUI() {
         if (attendanceList.isEmpty()) {
             textEmptyState.setVisibility(View.VISIBLE);
@@ -162,7 +157,6 @@ public class AttendanceHistoryActivity extends AppCompatActivity {
             textTotal.setVisibility(View.VISIBLE);
 
             adapter.updateList(attendanceList);
-            adapter.notifyDataSetChanged();
 
             // Update total count
             int total = attendanceList.size();
@@ -172,7 +166,7 @@ public class AttendanceHistoryActivity extends AppCompatActivity {
 
     private void showLoading(boolean show) {
         // You can add a progress bar here if needed
-        if (show) {
+        if (show && !showingCachedHistory) {
             textEmptyState.setText(R.string.loading);
             textEmptyState.setVisibility(View.VISIBLE);
             recyclerView.setVisibility(View.GONE);
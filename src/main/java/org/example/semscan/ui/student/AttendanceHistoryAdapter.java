@@ -6,6 +6,7 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import org.example.semscan.R;
@@ -17,6 +18,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
 public class AttendanceHistoryAdapter extends RecyclerView.Adapter<AttendanceHistoryAdapter.ViewHolder> {
 
@@ -26,8 +28,39 @@ public class AttendanceHistoryAdapter extends RecyclerView.Adapter<AttendanceHis
         this.attendanceList = new ArrayList<>(attendanceList);
     }
 
+    /**
+     * Replace the list, notifying only the rows that changed (a delta sync usually adds a few at the top)
+     */
     public void updateList(List<Attendance> newList) {
-        this.attendanceList = new ArrayList<>(newList);
+        List<Attendance> oldList = attendanceList;
+        List<Attendance> updated = new ArrayList<>(newList);
+        DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldList.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return updated.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                Long oldId = oldList.get(oldPosition).getAttendanceId();
+                return oldId != null && oldId.equals(updated.get(newPosition).getAttendanceId());
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                Attendance oldItem = oldList.get(oldPosition);
+                Attendance newItem = updated.get(newPosition);
+                return Objects.equals(oldItem.getAttendanceTime(), newItem.getAttendanceTime())
+                        && Objects.equals(oldItem.getTopic(), newItem.getTopic());
+            }
+        });
+        this.attendanceList = updated;
+        diff.dispatchUpdatesTo(this);
     }
 
     @NonNull
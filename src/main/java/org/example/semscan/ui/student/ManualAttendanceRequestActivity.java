@@ -27,6 +27,8 @@ import org.example.semscan.data.api.ApiClient;
 import org.example.semscan.data.api.ApiService;
 import org.example.semscan.data.model.Session;
 import org.example.semscan.data.model.ManualAttendanceResponse;
+import org.example.semscan.data.repository.ManualAttendanceRepository;
+import org.example.semscan.data.repository.SessionRepository;
 import org.example.semscan.utils.ErrorMessageHelper;
 import org.example.semscan.utils.Logger;
 import org.example.semscan.utils.PreferencesManager;
@@ -34,7 +36,10 @@ import org.example.semscan.utils.ServerLogger;
 import org.example.semscan.utils.ToastUtils;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -44,7 +49,6 @@ import android.view.View;
 public class ManualAttendanceRequestActivity extends AppCompatActivity {
 
     private PreferencesManager preferencesManager;
-    private ApiService apiService;
     private ServerLogger serverLogger;
     private Long currentSessionId;
 
@@ -54,6 +58,7 @@ public class ManualAttendanceRequestActivity extends AppCompatActivity {
     private TextView textStatus;
     private View formContainer;
     private final List<Session> availableSessions = new ArrayList<>();
+    private final Map<Long, ManualAttendanceResponse> storedRequests = new HashMap<>(); // Newest request per session
     private RecyclerView recyclerSessions;
     private SessionsAdapter sessionsAdapter;
 
@@ -65,8 +70,6 @@ public class ManualAttendanceRequestActivity extends AppCompatActivity {
         Logger.i(Logger.TAG_MANUAL_ATTENDANCE, "ManualAttendanceRequestActivity created");
 
         preferencesManager = PreferencesManager.getInstance(this);
-        ApiClient apiClient = ApiClient.getInstance(this);
-        apiService = apiClient.getApiService();
         serverLogger = ServerLogger.getInstance(this);
         
         // Update user context for student logging
@@ -107,7 +110,10 @@ public class ManualAttendanceRequestActivity extends AppCompatActivity {
         formContainer = findViewById(R.id.container_form);
         recyclerSessions = findViewById(R.id.recycler_sessions);
         recyclerSessions.setLayoutManager(new LinearLayoutManager(this));
-        sessionsAdapter = new SessionsAdapter(session -> currentSessionId = session.getSessionId());
+        sessionsAdapter = new SessionsAdapter(session -> {
+            currentSessionId = session.getSessionId();
+            updateRequestState();
+        });
         recyclerSessions.setAdapter(sessionsAdapter);
 
         btnSubmitRequest.setOnClickListener(v -> {
@@ -125,6 +131,7 @@ public class ManualAttendanceRequestActivity extends AppCompatActivity {
 
     private void checkForActiveSessions() {
         Logger.userAction("Check Active Sessions", "Checking for active sessions for manual attendance");
+        loadStoredRequests();
         
         // No authentication required
         Logger.i("ManualAttendance", "Checking for active sessions (no authentication required)");
@@ -133,8 +140,20 @@ public class ManualAttendanceRequestActivity extends AppCompatActivity {
             serverLogger.i(ServerLogger.TAG_MANUAL_ATTENDANCE, "REQUESTING OPEN SESSIONS - Endpoint: GET /api/v1/sessions/open - Expected: Backend should return ALL open sessions");
         }
         
-        Call<List<Session>> call = apiService.getOpenSessions();
-        call.enqueue(new Callback<List<Session>>() {
+        // Last known open sessions fill the list while the request runs; the response replaces them
+        SessionRepository.getInstance(this).getOpenSessions(cached -> {
+            if (isFinishing() || isDestroyed()) return;
+            List<Session> cachedOpen = new ArrayList<>();
+            for (Session session : cached) {
+                if (session != null && session.getStatus() != null && "OPEN".equalsIgnoreCase(session.getStatus())) {
+                    cachedOpen.add(session);
+                }
+            }
+            if (!cachedOpen.isEmpty()) {
+                Logger.i(Logger.TAG_MANUAL_ATTENDANCE, "Showing " + cachedOpen.size() + " cached open sessions");
+                handleOpenSessions(cachedOpen.size() > 10 ? cachedOpen.subList(0, 10) : cachedOpen);
+            }
+        }, new Callback<List<Session>>() {
             @Override
             public void onResponse(Call<List<Session>> call, Response<List<Session>> response) {
                 if (isFinishing() || isDestroyed()) return;
@@ -293,6 +312,44 @@ public class ManualAttendanceRequestActivity extends AppCompatActivity {
             textStatus.setVisibility(View.GONE);
             formContainer.setVisibility(View.VISIBLE);
             btnSubmitRequest.setEnabled(true);
+            updateRequestState();
+        }
+    }
+
+    /**
+     * Requests this student already sent from this device (stored by ManualAttendanceRepository)
+     */
+    private void loadStoredRequests() {
+        ManualAttendanceRepository.getInstance(this).getRequests(preferencesManager.getUserName(), requests -> {
+            if (isFinishing() || isDestroyed()) return;
+            storedRequests.clear();
+            if (requests != null) {
+                for (ManualAttendanceResponse request : requests) {
+                    if (request.getSessionId() != null && !storedRequests.containsKey(request.getSessionId())) {
+                        storedRequests.put(request.getSessionId(), request);
+                    }
+                }
+            }
+            updateRequestState();
+        });
+    }
+
+    /**
+     * Don't offer a second request for the selected session while the first awaits approval
+     */
+    private void updateRequestState() {
+        if (availableSessions.isEmpty()) {
+            return;
+        }
+        ManualAttendanceResponse stored = currentSessionId != null ? storedRequests.get(currentSessionId) : null;
+        String status = stored != null ? stored.getRequestStatus() : null;
+        boolean pending = stored != null && (status == null || status.toUpperCase(Locale.US).startsWith("PENDING"));
+        btnSubmitRequest.setEnabled(!pending);
+        if (pending) {
+            textStatus.setVisibility(View.VISIBLE);
+            textStatus.setText("You already requested attendance for this session. Waiting for approval.");
+        } else {
+            textStatus.setVisibility(View.GONE);
         }
     }
 
@@ -401,8 +458,7 @@ public class ManualAttendanceRequestActivity extends AppCompatActivity {
         Logger.i(Logger.TAG_MANUAL_ATTENDANCE, "Sending HTTP request to backend...");
         long requestStartTime = System.currentTimeMillis();
         
-        Call<ManualAttendanceResponse> call = apiService.createManualRequest(request);
-        call.enqueue(new Callback<ManualAttendanceResponse>() {
+        ManualAttendanceRepository.getInstance(this).createManualRequest(request, new Callback<ManualAttendanceResponse>() {
             @Override
             public void onResponse(Call<ManualAttendanceResponse> call, Response<ManualAttendanceResponse> response) {
                 if (isFinishing() || isDestroyed()) return;
@@ -25,6 +25,9 @@ import org.example.semscan.R;
 import org.example.semscan.data.api.ApiClient;
 import org.example.semscan.data.api.ApiService;
 import org.example.semscan.data.model.Session;
+import org.example.semscan.data.repository.LocalCache;
+import org.example.semscan.data.repository.SessionRepository;
+import org.example.semscan.service.ScannerWarmup;
 import org.example.semscan.ui.RolePickerActivity;
 import org.example.semscan.ui.SettingsActivity;
 import org.example.semscan.ui.auth.LoginActivity;
@@ -89,6 +92,15 @@ public class StudentHomeActivity extends AppCompatActivity {
         setupClickListeners();
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (preferencesManager.isParticipant()) {
+            // Scanning is the main action here - load the camera provider and barcode model now
+            ScannerWarmup.getInstance(this).warmUp();
+        }
+    }
+
     private void initializeViews() {
         cardScanAttendance = findViewById(R.id.card_scan_attendance);
         cardManualAttendance = findViewById(R.id.card_manual_attendance);
@@ -213,8 +225,9 @@ public class StudentHomeActivity extends AppCompatActivity {
             serverLogger.i(ServerLogger.TAG_QR_SCAN, "CHECKING OPEN SESSIONS - Before opening QR scanner");
         }
         
-        Call<List<Session>> call = apiService.getOpenSessions();
-        call.enqueue(new Callback<List<Session>>() {
+        // No cached copy here: the scanner gate must reflect sessions open right now.
+        // The response still refreshes the cache used by the manual request screen.
+        SessionRepository.getInstance(this).getOpenSessions(null, new Callback<List<Session>>() {
             @Override
             public void onResponse(Call<List<Session>> call, Response<List<Session>> response) {
                 if (response.isSuccessful() && response.body() != null) {
@@ -363,6 +376,7 @@ public class StudentHomeActivity extends AppCompatActivity {
             serverLogger.userAction("Logout", "Student logged out");
         }
         preferencesManager.clearUserData();
+        LocalCache.clear(this);
         // Note: Do NOT clear saved credentials here - "Remember Me" should persist after logout
 
         Toast.makeText(this, R.string.logout_success, Toast.LENGTH_SHORT).show();
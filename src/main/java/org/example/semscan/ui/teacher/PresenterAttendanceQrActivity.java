@@ -1,7 +1,6 @@
 package org.example.semscan.ui.teacher;
 
 import android.content.Intent;
-import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
@@ -21,23 +20,17 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.EncodeHintType;
-import com.google.zxing.WriterException;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 
-import java.util.EnumMap;
-import java.util.Map;
-
 import org.example.semscan.R;
 import org.example.semscan.data.api.ApiClient;
 import org.example.semscan.data.api.ApiService;
 import org.example.semscan.data.model.ManualAttendanceResponse;
+import org.example.semscan.ui.qr.QrBitmapRenderer;
 import org.example.semscan.utils.PreferencesManager;
 import org.example.semscan.utils.Logger;
 import org.example.semscan.utils.QRUtils;
+import org.example.semscan.utils.QrTokenSigner;
 import org.example.semscan.utils.ServerLogger;
 import org.example.semscan.utils.ConfigManager;
 
@@ -63,6 +56,8 @@ public class PresenterAttendanceQrActivity extends AppCompatActivity {
     public static final String EXTRA_SLOT_ID = "presenter_attendance_slot_id";
     public static final String EXTRA_USERNAME = "presenter_attendance_username";
     public static final String EXTRA_SESSION_ID = "presenter_attendance_session_id";
+    public static final String EXTRA_QR_SECRET = "presenter_attendance_qr_secret";
+    public static final String EXTRA_QR_STEP_SECONDS = "presenter_attendance_qr_step_seconds";
 
     // Result extras for passing back session close info
     public static final String RESULT_EXTRA_SESSION_CLOSED = "session_closed";
@@ -74,6 +69,8 @@ public class PresenterAttendanceQrActivity extends AppCompatActivity {
     public static final int RESULT_CODE_SESSION_CANCELED = 101;
 
     private static final long AUTO_CLOSE_CHECK_INTERVAL_MS = 30000L; // Check every 30 seconds
+    private static final int QR_SIZE_PX = 800; // Larger size for better quality
+    private static final int QR_MARGIN_MODULES = 1;
     // AUTO_CLOSE_DURATION_MS is now retrieved from ConfigManager (presenterCloseSessionDurationMinutes)
 
     private ImageView imageQr;
@@ -93,6 +90,11 @@ public class PresenterAttendanceQrActivity extends AppCompatActivity {
     private Long sessionId;
     private String username;
     private String lastPayload;
+
+    // Rotating signed QR (null signer = static QR from the server payload)
+    private QrTokenSigner tokenSigner;
+    private Runnable tokenRotationRunnable;
+    private long renderedTimeStep = Long.MIN_VALUE;
     
     // Slot details for export filename
     private String slotDate;
@@ -212,11 +214,70 @@ public class PresenterAttendanceQrActivity extends AppCompatActivity {
         }
 
         String normalizedContent = normalizeQrContent(!TextUtils.isEmpty(qrPayload) ? qrPayload : qrUrl);
-        if (normalizedContent != null) {
+        if (sessionId != null) {
+            Integer stepSeconds = (Integer) intent.getSerializableExtra(EXTRA_QR_STEP_SECONDS);
+            tokenSigner = QrTokenSigner.create(intent.getStringExtra(EXTRA_QR_SECRET), sessionId,
+                    stepSeconds != null ? stepSeconds : QrTokenSigner.DEFAULT_STEP_SECONDS);
+        }
+        if (tokenSigner != null) {
+            Logger.i(Logger.TAG_ATTENDANCE_OPEN, "Rotating QR tokens enabled - session " + sessionId
+                    + ", every " + tokenSigner.getStepSeconds() + "s");
+            renderCurrentToken(); // Rotation continues from onStart()
+        } else if (normalizedContent != null) {
             lastPayload = normalizedContent;
             generateQr(normalizedContent);
         }
     }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        startTokenRotation();
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        stopTokenRotation();
+    }
+
+    /**
+     * Re-render the QR locally at every time-step boundary (no server round-trip)
+     */
+    private void startTokenRotation() {
+        if (tokenSigner == null) {
+            return;
+        }
+        stopTokenRotation();
+        tokenRotationRunnable = new Runnable() {
+            @Override
+            public void run() {
+                renderCurrentToken();
+                autoCloseHandler.postDelayed(this, tokenSigner.millisUntilNextStep(System.currentTimeMillis()));
+            }
+        };
+        tokenRotationRunnable.run();
+    }
+
+    private void stopTokenRotation() {
+        if (tokenRotationRunnable != null) {
+            autoCloseHandler.removeCallbacks(tokenRotationRunnable);
+            tokenRotationRunnable = null;
+        }
+    }
+
+    private void renderCurrentToken() {
+        long timeStep = tokenSigner.currentStep(System.currentTimeMillis());
+        if (timeStep == renderedTimeStep) {
+            return;
+        }
+        renderedTimeStep = timeStep;
+        lastPayload = tokenSigner.contentFor(timeStep);
+        generateQr(lastPayload);
+        // Have the next token's bitmap ready before the step boundary
+        QrBitmapRenderer.getInstance().prerender(tokenSigner.contentFor(timeStep + 1), QR_SIZE_PX,
+                ErrorCorrectionLevel.H, QR_MARGIN_MODULES);
+    }
     
     /**
      * Parse timestamp string to milliseconds.
@@ -309,26 +370,11 @@ public class PresenterAttendanceQrActivity extends AppCompatActivity {
     }
 
     private void generateQr(String content) {
-        try {
-            // Configure QR code hints for minimal margin and high error correction
-            Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
-            hints.put(EncodeHintType.MARGIN, 1); // Minimal quiet zone (default is 4)
-            hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H); // High error correction for better scanning
-
-            int size = 800; // Larger size for better quality
-            QRCodeWriter writer = new QRCodeWriter();
-            BitMatrix bitMatrix = writer.encode(content, BarcodeFormat.QR_CODE, size, size, hints);
-            Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.RGB_565);
-            for (int x = 0; x < size; x++) {
-                for (int y = 0; y < size; y++) {
-                    bitmap.setPixel(x, y, bitMatrix.get(x, y) ? 0xFF000000 : 0xFFFFFFFF);
-                }
-            }
-            imageQr.setImageBitmap(bitmap);
-        } catch (WriterException e) {
+        // Minimal quiet zone (default is 4) and high error correction for better scanning; rendered off the UI thread
+        QrBitmapRenderer.getInstance().render(imageQr, content, QR_SIZE_PX, ErrorCorrectionLevel.H, QR_MARGIN_MODULES, e -> {
             Logger.e(Logger.TAG_ATTENDANCE_CLOSE, "Failed to generate session QR", e);
             Toast.makeText(this, R.string.presenter_start_session_error_load, Toast.LENGTH_LONG).show();
-        }
+        });
     }
 
     /**
@@ -399,6 +445,9 @@ public class PresenterAttendanceQrActivity extends AppCompatActivity {
         if (autoCloseHandler != null && autoCloseRunnable != null) {
             autoCloseHandler.removeCallbacks(autoCloseRunnable);
         }
+        if (imageQr != null) {
+            QrBitmapRenderer.getInstance().release(imageQr);
+        }
     }
 
     @Override
@@ -35,6 +35,8 @@ import org.example.semscan.ui.auth.LoginActivity;
 import org.example.semscan.R;
 import org.example.semscan.data.api.ApiClient;
 import org.example.semscan.data.api.ApiService;
+import org.example.semscan.data.repository.LocalCache;
+import org.example.semscan.data.repository.SlotCardRepository;
 import org.example.semscan.ui.RolePickerActivity;
 import org.example.semscan.ui.SettingsActivity;
 import org.example.semscan.utils.Logger;
@@ -72,6 +74,8 @@ public class PresenterHomeActivity extends AppCompatActivity {
     private Long openSessionId;
     private Long openSlotId;
     private String openSessionQrPayload;
+    private String openSessionQrSecret;
+    private Integer openSessionQrStepSeconds;
     private String openSessionOpenedAt;
     private String openSessionClosesAt;
     private String openSessionSlotTitle;
@@ -249,35 +253,45 @@ public class PresenterHomeActivity extends AppCompatActivity {
         final String username = preferencesManager.getUserName();
         if (username == null || username.trim().isEmpty()) { Logger.w(Logger.TAG_PREFERENCES, "No username cached"); return; }
         final String normalizedUsername = username.trim().toLowerCase(Locale.US);
-        apiService.getPresenterHome(normalizedUsername).enqueue(new Callback<ApiService.PresenterHomeResponse>() {
+        SlotCardRepository.getInstance(this).getPresenterHome(normalizedUsername, cached -> {
+            if (isFinishing() || isDestroyed() || cached.presenter == null) return;
+            // Cached registration is enough to unlock My Slot; session state waits for the server
+            hasRegisteredSlot = cached.mySlot != null && cached.mySlot.slotId != null;
+            setMySlotEnabled(hasRegisteredSlot);
+        }, new Callback<ApiService.PresenterHomeResponse>() {
             @Override public void onResponse(Call<ApiService.PresenterHomeResponse> call, Response<ApiService.PresenterHomeResponse> response) {
                 if (!response.isSuccessful() || response.body() == null || response.body().presenter == null) return;
-                ApiService.PresenterHomeResponse body = response.body();
-                hasRegisteredSlot = body.mySlot != null && body.mySlot.slotId != null;
-                // Only enable Start Session card if registration is APPROVED (canOpen=true)
-                canOpenSession = hasRegisteredSlot && body.attendance != null && body.attendance.canOpen;
-                setStartSessionEnabled(canOpenSession);
-                setMySlotEnabled(hasRegisteredSlot);
-
-                // Check if user has an open session
-                if (body.attendance != null && body.attendance.alreadyOpen && body.attendance.sessionId != null) {
-                    hasOpenSession = true;
-                    openSessionId = body.attendance.sessionId;
-                    openSlotId = body.mySlot != null ? body.mySlot.slotId : null;
-                    openSessionQrPayload = body.attendance.qrPayload;
-                    openSessionOpenedAt = body.attendance.openedAt;
-                    openSessionClosesAt = body.attendance.closesAt;
-                    openSessionSlotTitle = body.mySlot != null ? (body.mySlot.date + " " + body.mySlot.timeRange) : "";
-                    showSessionOpenBanner();
-                } else {
-                    hasOpenSession = false;
-                    hideSessionOpenBanner();
-                }
+                applyRegistrationStatus(response.body());
             }
             @Override public void onFailure(Call<ApiService.PresenterHomeResponse> call, Throwable t) { Logger.e(Logger.TAG_SLOTS_LOAD, "Failed to check registration status", t); }
         });
     }
 
+    private void applyRegistrationStatus(ApiService.PresenterHomeResponse body) {
+        hasRegisteredSlot = body.mySlot != null && body.mySlot.slotId != null;
+        // Only enable Start Session card if registration is APPROVED (canOpen=true)
+        canOpenSession = hasRegisteredSlot && body.attendance != null && body.attendance.canOpen;
+        setStartSessionEnabled(canOpenSession);
+        setMySlotEnabled(hasRegisteredSlot);
+
+        // Check if user has an open session
+        if (body.attendance != null && body.attendance.alreadyOpen && body.attendance.sessionId != null) {
+            hasOpenSession = true;
+            openSessionId = body.attendance.sessionId;
+            openSlotId = body.mySlot != null ? body.mySlot.slotId : null;
+            openSessionQrPayload = body.attendance.qrPayload;
+            openSessionQrSecret = body.attendance.qrSecret;
+            openSessionQrStepSeconds = body.attendance.qrStepSeconds;
+            openSessionOpenedAt = body.attendance.openedAt;
+            openSessionClosesAt = body.attendance.closesAt;
+            openSessionSlotTitle = body.mySlot != null ? (body.mySlot.date + " " + body.mySlot.timeRange) : "";
+            showSessionOpenBanner();
+        } else {
+            hasOpenSession = false;
+            hideSessionOpenBanner();
+        }
+    }
+
     private void setupToolbar() {
         Toolbar toolbar = findViewById(R.id.toolbar);
         setSupportActionBar(toolbar);
@@ -305,6 +319,7 @@ public class PresenterHomeActivity extends AppCompatActivity {
 
     private void performLogout() {
         preferencesManager.clearUserData();
+        LocalCache.clear(this);
         // Note: Do NOT clear saved credentials here - "Remember Me" should persist after logout
         Toast.makeText(this, R.string.logout_success, Toast.LENGTH_SHORT).show();
         Intent intent = new Intent(this, LoginActivity.class);
@@ -398,6 +413,8 @@ public class PresenterHomeActivity extends AppCompatActivity {
         intent.putExtra(PresenterAttendanceQrActivity.EXTRA_SESSION_ID, openSessionId);
         intent.putExtra(PresenterAttendanceQrActivity.EXTRA_SLOT_ID, openSlotId);
         intent.putExtra(PresenterAttendanceQrActivity.EXTRA_QR_PAYLOAD, openSessionQrPayload);
+        intent.putExtra(PresenterAttendanceQrActivity.EXTRA_QR_SECRET, openSessionQrSecret);
+        intent.putExtra(PresenterAttendanceQrActivity.EXTRA_QR_STEP_SECONDS, openSessionQrStepSeconds);
         intent.putExtra(PresenterAttendanceQrActivity.EXTRA_OPENED_AT, openSessionOpenedAt);
         intent.putExtra(PresenterAttendanceQrActivity.EXTRA_CLOSES_AT, openSessionClosesAt);
         intent.putExtra(PresenterAttendanceQrActivity.EXTRA_SLOT_TITLE, openSessionSlotTitle);
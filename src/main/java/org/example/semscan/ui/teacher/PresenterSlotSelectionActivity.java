@@ -35,6 +35,8 @@ import org.example.semscan.ui.SettingsActivity;
 import org.example.semscan.constants.ApiConstants;
 import org.example.semscan.data.api.ApiClient;
 import org.example.semscan.data.api.ApiService;
+import org.example.semscan.data.repository.CacheListener;
+import org.example.semscan.data.repository.SlotCardRepository;
 import org.example.semscan.utils.ErrorMessageHelper;
 import org.example.semscan.utils.Logger;
 import org.example.semscan.utils.PreferencesManager;
@@ -45,14 +47,12 @@ import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Collections;
-import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -74,9 +74,11 @@ public class PresenterSlotSelectionActivity extends AppCompatActivity implements
     private ServerLogger serverLogger;
 
     private boolean shouldScrollToMySlot;
-    private List<ApiService.SlotCard> currentSlots = Collections.emptyList(); // Store current slots for limit checking
+    private SlotCatalogIndex currentSlotIndex = SlotCatalogIndex.EMPTY; // Shown (future) slots, for limit checking
     private Long lastJoinedWaitingListSlotId = null; // Track slot where user just joined waiting list
-    private List<SlotStateSnapshot> previousSlotStates = new ArrayList<>(); // Track previous slot states to detect changes
+    private SlotCatalogIndex previousCatalog = null; // Previous full catalog, to detect state changes
+    private String userDegree = null; // "PhD" or "MSc", from the presenter-home response
+    private final ExecutorService slotModelExecutor = Executors.newSingleThreadExecutor();
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -146,33 +148,51 @@ public class PresenterSlotSelectionActivity extends AppCompatActivity implements
     }
 
     private void renderSlots(ApiService.PresenterHomeResponse response) {
-        List<ApiService.SlotCard> allSlots = response != null && response.slotCatalog != null
+        final List<ApiService.SlotCard> allSlots = response != null && response.slotCatalog != null
                 ? response.slotCatalog : Collections.emptyList();
 
-        // Filter out past slots
-        List<ApiService.SlotCard> futureSlots = filterPastSlots(allSlots);
+        // Keep the last known degree for the PhD warning dialog
+        if (response != null && response.presenter != null && response.presenter.degree != null) {
+            userDegree = response.presenter.degree;
+        }
+        final String degree = userDegree;
+        final int waitingListLimit = ConfigManager.getInstance(this).getWaitingListLimitPerSlot();
+        final Long mySlotId = response != null && response.mySlot != null ? response.mySlot.slotId : null;
+
+        // Past-slot filtering and card models are built off the main thread
+        slotModelExecutor.execute(() -> {
+            final List<SlotCardUiModel> models = SlotCardUiModel.buildCatalog(this, allSlots, degree, waitingListLimit);
+            final List<ApiService.SlotCard> futureSlots = new ArrayList<>(models.size());
+            for (SlotCardUiModel model : models) {
+                futureSlots.add(model.slot);
+            }
+            final SlotCatalogIndex index = new SlotCatalogIndex(futureSlots);
+            runOnUiThread(() -> {
+                if (isFinishing() || isDestroyed()) return;
+                showSlotModels(models, futureSlots, index, mySlotId);
+            });
+        });
+    }
 
+    private void showSlotModels(List<SlotCardUiModel> models, List<ApiService.SlotCard> futureSlots,
+                                SlotCatalogIndex index, Long mySlotId) {
         // Store current slots for limit checking
-        currentSlots = futureSlots;
+        currentSlotIndex = index;
 
-        // Set user degree for PhD warning dialog
-        if (response != null && response.presenter != null && response.presenter.degree != null) {
-            slotAdapter.setUserDegree(response.presenter.degree);
-        }
-
-        slotAdapter.submitList(futureSlots);
         emptyState.setVisibility(futureSlots.isEmpty() ? View.VISIBLE : View.GONE);
 
-        if (shouldScrollToMySlot && response != null && response.mySlot != null) {
+        Runnable scrollToMySlot = null;
+        if (shouldScrollToMySlot && mySlotId != null) {
             shouldScrollToMySlot = false;
-            long targetSlot = response.mySlot.slotId != null ? response.mySlot.slotId : -1L;
-            if (targetSlot > 0) {
-                int position = findSlotPosition(futureSlots, targetSlot);
+            if (mySlotId > 0) {
+                int position = findSlotPosition(futureSlots, mySlotId);
                 if (position >= 0) {
-                    recyclerSlots.post(() -> recyclerSlots.smoothScrollToPosition(position));
+                    // The adapter diffs in the background - scroll once the new list is shown
+                    scrollToMySlot = () -> recyclerSlots.post(() -> recyclerSlots.smoothScrollToPosition(position));
                 }
             }
         }
+        slotAdapter.submitList(models, scrollToMySlot);
     }
 
     private int findSlotPosition(List<ApiService.SlotCard> slots, long slotId) {
@@ -185,73 +205,6 @@ public class PresenterSlotSelectionActivity extends AppCompatActivity implements
         return -1;
     }
 
-    private List<ApiService.SlotCard> filterPastSlots(List<ApiService.SlotCard> slots) {
-        if (slots == null || slots.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        List<ApiService.SlotCard> futureSlots = new ArrayList<>();
-        Date now = new Date();
-        SimpleDateFormat dateTimeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.US);
-
-        for (ApiService.SlotCard slot : slots) {
-            // NOTE: We do NOT filter out slots based on hasClosedSession or attendanceClosesAt
-            // because these are slot-level fields that may reflect OTHER presenters' closed sessions.
-            // Each presenter should be able to open their own session independently.
-            // The backend will validate if a presenter can open a session when they try to do so.
-            
-            if (slot.date == null || slot.timeRange == null) {
-                // If we can't parse the date/time, include it (better to show than hide)
-                futureSlots.add(slot);
-                continue;
-            }
-
-            try {
-                // Parse date and time range
-                // Format: date is "yyyy-MM-dd", timeRange is "HH:mm-HH:mm"
-                String[] timeParts = slot.timeRange.split("-");
-                if (timeParts.length != 2) {
-                    // Can't parse time range, include it
-                    futureSlots.add(slot);
-                    continue;
-                }
-
-                String startTimeStr = slot.date + " " + timeParts[0].trim();
-                Date slotStartTime = dateTimeFormat.parse(startTimeStr);
-
-                if (slotStartTime != null) {
-                    // Include slots that are today or in the future
-                    // Compare dates (not times) to include all slots for today
-                    Calendar slotCal = Calendar.getInstance();
-                    slotCal.setTime(slotStartTime);
-                    slotCal.set(Calendar.HOUR_OF_DAY, 0);
-                    slotCal.set(Calendar.MINUTE, 0);
-                    slotCal.set(Calendar.SECOND, 0);
-                    slotCal.set(Calendar.MILLISECOND, 0);
-                    
-                    Calendar nowCal = Calendar.getInstance();
-                    nowCal.setTime(now);
-                    nowCal.set(Calendar.HOUR_OF_DAY, 0);
-                    nowCal.set(Calendar.MINUTE, 0);
-                    nowCal.set(Calendar.SECOND, 0);
-                    nowCal.set(Calendar.MILLISECOND, 0);
-                    
-                    // Include if slot date is today or in the future
-                    if (!slotCal.getTime().before(nowCal.getTime())) {
-                        futureSlots.add(slot);
-                    }
-                }
-                // If slot is in the past (before today), skip it
-            } catch (ParseException e) {
-                // If parsing fails, include the slot (better to show than hide)
-                Logger.w(Logger.TAG_SLOTS_LOAD, "Failed to parse slot date/time: " + slot.date + " " + slot.timeRange + " - " + e.getMessage());
-                futureSlots.add(slot);
-            }
-        }
-
-        return futureSlots;
-    }
-
     private void loadSlots() {
         final String username = preferencesManager.getUserName();
         if (TextUtils.isEmpty(username)) {
@@ -262,7 +215,14 @@ public class PresenterSlotSelectionActivity extends AppCompatActivity implements
 
         final String normalizedUsername = username.trim().toLowerCase(Locale.US);
         setLoading(true);
-        apiService.getPresenterHome(normalizedUsername).enqueue(new Callback<ApiService.PresenterHomeResponse>() {
+        // Cached catalog only fills an empty screen and is display-only: approval/cancellation
+        // checks and the waiting list fix-ups below run on the server response. Reloads after a
+        // register/cancel/join skip it so the pre-action state doesn't flash back.
+        CacheListener<ApiService.PresenterHomeResponse> cacheListener = previousCatalog == null ? cached -> {
+            if (isFinishing() || isDestroyed() || previousCatalog != null) return;
+            renderSlots(cached);
+        } : null;
+        SlotCardRepository.getInstance(this).getPresenterHome(normalizedUsername, cacheListener, new Callback<ApiService.PresenterHomeResponse>() {
             @Override
             public void onResponse(Call<ApiService.PresenterHomeResponse> call, Response<ApiService.PresenterHomeResponse> response) {
                 if (isFinishing() || isDestroyed()) return;
@@ -377,14 +337,8 @@ public class PresenterSlotSelectionActivity extends AppCompatActivity implements
         }
         
         // Check waiting list limit before showing dialog (user can only be on 1 waiting list at a time)
-        int userWaitingListCount = 0;
-        for (ApiService.SlotCard s : currentSlots) {
-            if (s.onWaitingList) {
-                userWaitingListCount++;
-            }
-        }
         // User can only be on 1 waiting list at a time (business rule, not configurable)
-        if (userWaitingListCount >= 1) {
+        if (currentSlotIndex.waitingLists >= 1) {
             Toast.makeText(this, 
                 "You can only be on 1 waiting list at once. " +
                 "Please cancel your current waiting list position first.",
@@ -992,22 +946,11 @@ public class PresenterSlotSelectionActivity extends AppCompatActivity implements
             return fullMsg;
         }
         
-        // Count current registrations across all slots
-        int approvedCount = 0;
-        int pendingCount = 0;
-        // NOTE: waitingListCount is NOT counted here - users can register even if on a waiting list
-        
-        for (ApiService.SlotCard s : currentSlots) {
-            if (s.alreadyRegistered) {
-                if ("APPROVED".equals(s.approvalStatus)) {
-                    approvedCount++;
-                } else if ("PENDING_APPROVAL".equals(s.approvalStatus)) {
-                    pendingCount++;
-                }
-            }
-            // NOTE: We don't check s.onWaitingList here - being on a waiting list
-            // does NOT prevent registration for available slots
-        }
+        // Current registrations across all slots
+        // NOTE: waiting lists are NOT counted here - being on a waiting list
+        // does NOT prevent registration for available slots
+        int approvedCount = currentSlotIndex.approvedRegistrations;
+        int pendingCount = currentSlotIndex.pendingRegistrations;
 
         // Check presentation limit (1 approved at a time)
         // Note: Business rule is "once per degree" but not strictly enforced
@@ -1045,22 +988,11 @@ public class PresenterSlotSelectionActivity extends AppCompatActivity implements
      * a waiting list, not when registering. See: onJoinWaitingList() for waiting list limit check.
      */
     private void checkRegistrationLimits(ApiService.SlotCard slot, Runnable onSuccess) {
-        // Count current registrations
-        int approvedCount = 0;
-        int pendingCount = 0;
-        // NOTE: waitingListCount is NOT counted here - users can register even if on a waiting list
-        
-        for (ApiService.SlotCard s : currentSlots) {
-            if (s.alreadyRegistered) {
-                if ("APPROVED".equals(s.approvalStatus)) {
-                    approvedCount++;
-                } else if ("PENDING_APPROVAL".equals(s.approvalStatus)) {
-                    pendingCount++;
-                }
-            }
-            // NOTE: We don't check s.onWaitingList here - being on a waiting list
-            // does NOT prevent registration for available slots
-        }
+        // Current registrations
+        // NOTE: waiting lists are NOT counted here - being on a waiting list
+        // does NOT prevent registration for available slots
+        int approvedCount = currentSlotIndex.approvedRegistrations;
+        int pendingCount = currentSlotIndex.pendingRegistrations;
         
         // Get student degree to determine limits
         String degree = preferencesManager.getDegree();
@@ -1618,6 +1550,12 @@ public class PresenterSlotSelectionActivity extends AppCompatActivity implements
         }); // Close checkRegistrationLimits lambda
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        slotModelExecutor.shutdownNow();
+    }
+
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
           if (item.getItemId() == android.R.id.home) {
@@ -1628,119 +1566,74 @@ public class PresenterSlotSelectionActivity extends AppCompatActivity implements
     }
     
     /**
-     * Snapshot of slot state for comparison
-     */
-    private static class SlotStateSnapshot {
-        Long slotId;
-        boolean onWaitingList;
-        String approvalStatus;
-        boolean alreadyRegistered;
-        
-        SlotStateSnapshot(ApiService.SlotCard slot) {
-            this.slotId = slot.slotId;
-            this.onWaitingList = slot.onWaitingList;
-            this.approvalStatus = slot.approvalStatus;
-            this.alreadyRegistered = slot.alreadyRegistered;
-        }
-    }
-    
-    /**
-     * Check if user was approved from waiting list and if other pending registrations were cancelled
+     * Check if user was approved from waiting list and if other pending registrations were cancelled.
+     * Compares against the previous response by slotId (one lookup per previous slot).
      */
     private void checkForWaitingListApprovalAndCancellations(ApiService.PresenterHomeResponse response) {
         if (response == null || response.slotCatalog == null) {
             return;
         }
         
-        // Create snapshot of current states
-        List<SlotStateSnapshot> currentStates = new ArrayList<>();
-        for (ApiService.SlotCard slot : response.slotCatalog) {
-            currentStates.add(new SlotStateSnapshot(slot));
-        }
+        SlotCatalogIndex current = new SlotCatalogIndex(response.slotCatalog);
         
-        // If we have previous states, compare them
-        if (!previousSlotStates.isEmpty()) {
+        // If we have a previous response, compare with it
+        if (previousCatalog != null && previousCatalog.size() > 0) {
+            ApiService.SlotCard approvedFromWaitingList = null;
             Long approvedFromWaitingListSlotId = null;
             int cancelledPendingCount = 0;
             List<String> cancelledSlotDetails = new ArrayList<>();
             
-            // Find slot where user was on waiting list and is now approved
-            for (SlotStateSnapshot previous : previousSlotStates) {
-                if (previous.onWaitingList && !"APPROVED".equals(previous.approvalStatus)) {
-                    // User was on waiting list before
-                    SlotStateSnapshot current = findSlotState(currentStates, previous.slotId);
-                    if (current != null && "APPROVED".equals(current.approvalStatus)) {
-                        // User is now approved - they were approved from waiting list!
-                        approvedFromWaitingListSlotId = previous.slotId;
-                        Logger.i(Logger.TAG_REGISTER_REQUEST, "User approved from waiting list for slot=" + previous.slotId);
-                        if (serverLogger != null) {
-                            serverLogger.i(ServerLogger.TAG_REGISTER_REQUEST, "User approved from waiting list for slot=" + previous.slotId);
-                        }
+            for (int i = 0; i < previousCatalog.size(); i++) {
+                ApiService.SlotCard previous = previousCatalog.valueAt(i);
+                ApiService.SlotCard slot = current.get(previous.slotId);
+                if (slot == null) {
+                    continue;
+                }
+                
+                // Find slot where user was on waiting list and is now approved
+                if (previous.onWaitingList && !"APPROVED".equals(previous.approvalStatus)
+                        && "APPROVED".equals(slot.approvalStatus)) {
+                    // User is now approved - they were approved from waiting list!
+                    approvedFromWaitingList = slot;
+                    approvedFromWaitingListSlotId = previous.slotId;
+                    Logger.i(Logger.TAG_REGISTER_REQUEST, "User approved from waiting list for slot=" + previous.slotId);
+                    if (serverLogger != null) {
+                        serverLogger.i(ServerLogger.TAG_REGISTER_REQUEST, "User approved from waiting list for slot=" + previous.slotId);
                     }
                 }
                 
                 // Check if user had pending registrations that are now cancelled
-                if ("PENDING_APPROVAL".equals(previous.approvalStatus) && previous.alreadyRegistered) {
-                    SlotStateSnapshot current = findSlotState(currentStates, previous.slotId);
-                    if (current != null && !current.alreadyRegistered && 
-                        !"PENDING_APPROVAL".equals(current.approvalStatus) && 
-                        !"APPROVED".equals(current.approvalStatus)) {
-                        // This pending registration was cancelled
-                        cancelledPendingCount++;
-                        // Try to get slot details for the message
-                        ApiService.SlotCard slot = findSlot(response.slotCatalog, previous.slotId);
-                        if (slot != null) {
-                            String slotInfo = slot.date != null ? slot.date : "Slot " + previous.slotId;
-                            if (slot.timeRange != null) {
-                                slotInfo += " " + slot.timeRange;
-                            }
-                            cancelledSlotDetails.add(slotInfo);
-                        }
-                        Logger.i(Logger.TAG_REGISTER_REQUEST, "Pending registration cancelled for slot=" + previous.slotId);
-                        if (serverLogger != null) {
-                            serverLogger.i(ServerLogger.TAG_REGISTER_REQUEST, "Pending registration cancelled for slot=" + previous.slotId);
-                        }
+                if ("PENDING_APPROVAL".equals(previous.approvalStatus) && previous.alreadyRegistered
+                        && !slot.alreadyRegistered
+                        && !"PENDING_APPROVAL".equals(slot.approvalStatus)
+                        && !"APPROVED".equals(slot.approvalStatus)) {
+                    cancelledPendingCount++;
+                    String slotInfo = slot.date != null ? slot.date : "Slot " + previous.slotId;
+                    if (slot.timeRange != null) {
+                        slotInfo += " " + slot.timeRange;
+                    }
+                    cancelledSlotDetails.add(slotInfo);
+                    Logger.i(Logger.TAG_REGISTER_REQUEST, "Pending registration cancelled for slot=" + previous.slotId);
+                    if (serverLogger != null) {
+                        serverLogger.i(ServerLogger.TAG_REGISTER_REQUEST, "Pending registration cancelled for slot=" + previous.slotId);
                     }
                 }
             }
             
             // Show dialog if user was approved from waiting list
             if (approvedFromWaitingListSlotId != null) {
-                showWaitingListApprovalDialog(response.slotCatalog, approvedFromWaitingListSlotId, cancelledPendingCount, cancelledSlotDetails);
+                showWaitingListApprovalDialog(approvedFromWaitingList, approvedFromWaitingListSlotId, cancelledPendingCount, cancelledSlotDetails);
             }
         }
         
-        // Update previous states for next comparison
-        previousSlotStates = currentStates;
-    }
-    
-    private SlotStateSnapshot findSlotState(List<SlotStateSnapshot> states, Long slotId) {
-        if (slotId == null) return null;
-        for (SlotStateSnapshot state : states) {
-            if (slotId.equals(state.slotId)) {
-                return state;
-            }
-        }
-        return null;
-    }
-    
-    private ApiService.SlotCard findSlot(List<ApiService.SlotCard> slots, Long slotId) {
-        if (slotId == null) return null;
-        for (ApiService.SlotCard slot : slots) {
-            if (slotId.equals(slot.slotId)) {
-                return slot;
-            }
-        }
-        return null;
+        // Keep this response for the next comparison
+        previousCatalog = current;
     }
     
     /**
      * Show dialog explaining waiting list approval and cancelled registrations
      */
-    private void showWaitingListApprovalDialog(List<ApiService.SlotCard> allSlots, Long approvedSlotId, int cancelledPendingCount, List<String> cancelledSlotDetails) {
-        // Get approved slot details from the response slots
-        ApiService.SlotCard approvedSlot = findSlot(allSlots, approvedSlotId);
-        
+    private void showWaitingListApprovalDialog(ApiService.SlotCard approvedSlot, Long approvedSlotId, int cancelledPendingCount, List<String> cancelledSlotDetails) {
         StringBuilder message = new StringBuilder();
         
         // Main approval message
@@ -539,7 +539,8 @@ public class PresenterStartSessionActivity extends AppCompatActivity {
                                 if (serverLogger != null) {
                                     serverLogger.i(ServerLogger.TAG_UI, sessionStartLog);
                                 }
-                                openAttendanceQr(body.qrUrl, body.qrPayload, body.openedAt, body.closesAt, body.sessionId);
+                                openAttendanceQr(body.qrUrl, body.qrPayload, body.openedAt, body.closesAt, body.sessionId,
+                                        body.qrSecret, body.qrStepSeconds);
                                 break;
                             case "TOO_EARLY":
                                 // Always show the server message if available, otherwise show default with time
@@ -600,7 +601,9 @@ public class PresenterStartSessionActivity extends AppCompatActivity {
                                   @Nullable String qrPayload,
                                   @Nullable String openedAt,
                                   @Nullable String closesAt,
-                                  @Nullable Long sessionId) {
+                                  @Nullable Long sessionId,
+                                  @Nullable String qrSecret,
+                                  @Nullable Integer qrStepSeconds) {
         Intent intent = new Intent(this, PresenterAttendanceQrActivity.class);
         intent.putExtra(PresenterAttendanceQrActivity.EXTRA_QR_URL, qrUrl);
         intent.putExtra(PresenterAttendanceQrActivity.EXTRA_QR_PAYLOAD, qrPayload);
@@ -608,6 +611,8 @@ public class PresenterStartSessionActivity extends AppCompatActivity {
         intent.putExtra(PresenterAttendanceQrActivity.EXTRA_CLOSES_AT, closesAt);
         intent.putExtra(PresenterAttendanceQrActivity.EXTRA_SLOT_TITLE, textSlotTitle.getText().toString());
         intent.putExtra(PresenterAttendanceQrActivity.EXTRA_SESSION_ID, sessionId);
+        intent.putExtra(PresenterAttendanceQrActivity.EXTRA_QR_SECRET, qrSecret);
+        intent.putExtra(PresenterAttendanceQrActivity.EXTRA_QR_STEP_SECONDS, qrStepSeconds);
         intent.putExtra(PresenterAttendanceQrActivity.EXTRA_SLOT_ID, currentSlot != null ? currentSlot.slotId : null);
         intent.putExtra(PresenterAttendanceQrActivity.EXTRA_USERNAME, normalizedUsername);
         startActivityForResult(intent, REQUEST_CODE_QR_ACTIVITY);
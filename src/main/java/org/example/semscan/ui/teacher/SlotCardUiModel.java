@@ -0,0 +1,422 @@
+package org.example.semscan.ui.teacher;
+
+import android.content.Context;
+import android.text.Html;
+import android.text.TextUtils;
+
+import org.example.semscan.R;
+import org.example.semscan.data.api.ApiService;
+import org.example.semscan.utils.Logger;
+import org.example.semscan.utils.ServerLogger;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Everything a slot card shows, derived once per presenter-home response.
+ *
+ * Built off the main thread by buildCatalog() (date parsing, string formatting, HTML, button
+ * rules), so PresenterSlotsAdapter only assigns fields when binding. Immutable; the raw SlotCard
+ * is kept for the action callbacks.
+ */
+final class SlotCardUiModel {
+
+    enum Availability {
+        AVAILABLE, // Nobody registered (green)
+        PARTIAL,   // Approved or pending registrations, not full (yellow)
+        FULL       // Approved registrations fill the slot (red)
+    }
+
+    /**
+     * What tapping the card does
+     */
+    enum ClickAction {
+        ALREADY_REGISTERED, // Just report the click
+        REGISTER,           // Same as the register button
+        OFFER_WAITING_LIST, // Slot is full - point to the waiting list
+        BLOCKED             // Can't register - show blockedMessage if there is one
+    }
+
+    private static final int MAX_NAMES_SHOWN = 5;
+
+    final ApiService.SlotCard slot;
+    final String title;
+    final String banner;            // "Your session is open" text, null when hidden
+    final Availability availability;
+    final int backgroundResId;
+    final String statusHtml;        // Source of statusText, used for diffing
+    final CharSequence statusText;
+    final boolean isFull;           // Approved registrations fill the slot
+    final boolean atCapacity;       // Approved + pending fill the slot
+    final ClickAction clickAction;
+    final String blockedMessage;    // Toast for BLOCKED, may be null
+    final boolean showRegister;
+    final boolean showJoinWaitingList;
+    final boolean needsPhdWarning;  // PhD joining a waiting list of a slot with MSc presenters
+    final boolean showCancelWaitingList;
+    final boolean showCancelRegistration;
+
+    private SlotCardUiModel(Context context, ApiService.SlotCard slot, boolean userHasApprovedRegistration,
+                            String userDegree, int waitingListLimit) {
+        this.slot = slot;
+        this.title = context.getString(R.string.presenter_home_slot_title_format,
+                safe(slot.dayOfWeek), formatDate(slot.date));
+
+        if (slot.mySessionOpen) {
+            if (slot.mySessionClosesAt != null && slot.mySessionClosesAt.length() >= 16) {
+                banner = "YOUR SESSION IS OPEN\nCloses at " + slot.mySessionClosesAt.substring(11, 16) + " - Tap to resume";
+            } else {
+                banner = "YOUR SESSION IS OPEN\nTap to resume or close";
+            }
+        } else {
+            banner = null;
+        }
+
+        // Backend sends EFFECTIVE capacity usage (PhD=2, MSc=1)
+        int approved = slot.approvedCount;
+        int pending = slot.pendingCount;
+        // For COLOR: Only APPROVED counts as "full" - pending might get declined
+        isFull = approved >= slot.capacity;
+        // For BUTTON visibility: Both approved AND pending block new registrations
+        int totalOccupied = approved + pending;
+        atCapacity = totalOccupied >= slot.capacity;
+
+        if (slot.slotId != null && totalOccupied > 0) {
+            String capacityDebug = String.format("Slot %d capacity: approved=%d, pending=%d, total=%d, capacity=%d, isFull=%s",
+                    slot.slotId, approved, pending, totalOccupied, slot.capacity, isFull);
+            Logger.i(Logger.TAG_SLOT_DETAILS, capacityDebug);
+            ServerLogger serverLogger = ServerLogger.getInstance(context);
+            if (serverLogger != null) {
+                serverLogger.i(ServerLogger.TAG_SLOT_DETAILS, capacityDebug);
+            }
+        }
+
+        if (isFull) {
+            availability = Availability.FULL;
+            backgroundResId = R.drawable.bg_slot_red_gradient;
+        } else if (approved > 0 || pending > 0) {
+            availability = Availability.PARTIAL;
+            backgroundResId = R.drawable.bg_slot_yellow_gradient;
+        } else {
+            availability = Availability.AVAILABLE;
+            backgroundResId = R.drawable.bg_slot_green_gradient;
+        }
+
+        statusHtml = buildStatusHtml(context, slot, isFull);
+        statusText = Html.fromHtml(statusHtml, Html.FROM_HTML_MODE_LEGACY);
+
+        boolean registeredHere = slot.alreadyRegistered
+                || "APPROVED".equals(slot.approvalStatus)
+                || "PENDING_APPROVAL".equals(slot.approvalStatus);
+
+        // Card click uses the same conditions as the register button
+        boolean canRegister = slot.canRegister && !atCapacity && !userHasApprovedRegistration && !slot.onWaitingList;
+        showRegister = canRegister && !slot.alreadyRegistered;
+        if (registeredHere) {
+            clickAction = ClickAction.ALREADY_REGISTERED;
+            blockedMessage = null;
+        } else if (canRegister) {
+            clickAction = ClickAction.REGISTER;
+            blockedMessage = null;
+        } else if (atCapacity && !slot.onWaitingList) {
+            clickAction = ClickAction.OFFER_WAITING_LIST;
+            blockedMessage = null;
+        } else {
+            clickAction = ClickAction.BLOCKED;
+            if (!slot.canRegister && slot.disableReason != null && !slot.disableReason.isEmpty()) {
+                blockedMessage = slot.disableReason;
+            } else if (userHasApprovedRegistration) {
+                blockedMessage = context.getString(R.string.error_already_have_approved_registration);
+            } else {
+                blockedMessage = null;
+            }
+        }
+
+        // Waiting list: only when the slot is full (or a PhD can't fit), the user isn't registered
+        // here or already waiting, the waiting list has room and its queue type matches the degree
+        int wlCount = slot.waitingListCount > 0 ? slot.waitingListCount : (slot.onWaitingList ? 1 : 0);
+        boolean waitingListFull = wlCount >= waitingListLimit;
+        boolean phdCantFit = !slot.canRegister && slot.disableReason != null
+                && slot.disableReason.contains("waiting list");
+        // First person on the waiting list sets the queue type
+        boolean hasWaitingList = slot.waitingListEntries != null && !slot.waitingListEntries.isEmpty();
+        String queueType = hasWaitingList ? slot.waitingListEntries.get(0).degree : null;
+        boolean queueTypeMismatch = hasWaitingList && userDegree != null && !userDegree.equals(queueType);
+        showJoinWaitingList = (atCapacity || phdCantFit) && !registeredHere && !slot.onWaitingList
+                && !waitingListFull && !userHasApprovedRegistration && !queueTypeMismatch;
+        needsPhdWarning = "PhD".equals(userDegree) && hasMscPresenter(slot.pendingPresenters);
+
+        if (!showJoinWaitingList) {
+            logWaitingListHidden(slot, registeredHere, atCapacity, waitingListFull, queueTypeMismatch, queueType, userDegree);
+        }
+
+        showCancelWaitingList = slot.onWaitingList;
+        showCancelRegistration = registeredHere;
+    }
+
+    /**
+     * Drop slots before today, then build the card models. Safe to call off the main thread.
+     * @param userDegree "PhD" or "MSc", may be null
+     * @param waitingListLimit per-slot waiting list limit (ConfigManager)
+     */
+    static List<SlotCardUiModel> buildCatalog(Context context, List<ApiService.SlotCard> slots,
+                                              String userDegree, int waitingListLimit) {
+        if (slots == null || slots.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Context appContext = context.getApplicationContext();
+        List<ApiService.SlotCard> futureSlots = filterPastSlots(slots);
+
+        boolean userHasApprovedRegistration = false;
+        for (ApiService.SlotCard slot : futureSlots) {
+            if ("APPROVED".equals(slot.approvalStatus)) {
+                userHasApprovedRegistration = true;
+                break;
+            }
+        }
+
+        List<SlotCardUiModel> models = new ArrayList<>(futureSlots.size());
+        for (ApiService.SlotCard slot : futureSlots) {
+            models.add(new SlotCardUiModel(appContext, slot, userHasApprovedRegistration, userDegree, waitingListLimit));
+        }
+        return models;
+    }
+
+    /**
+     * Keep slots dated today or later. Slots whose date/time can't be parsed are kept
+     * (better to show than hide).
+     *
+     * NOTE: We do NOT filter on hasClosedSession or attendanceClosesAt - these are slot-level
+     * fields that may reflect OTHER presenters' closed sessions, and each presenter should be
+     * able to open their own session independently (the backend validates that).
+     */
+    private static List<ApiService.SlotCard> filterPastSlots(List<ApiService.SlotCard> slots) {
+        List<ApiService.SlotCard> futureSlots = new ArrayList<>(slots.size());
+        SimpleDateFormat dateTimeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.US);
+
+        Calendar calendar = Calendar.getInstance();
+        startOfDay(calendar);
+        long todayStartMs = calendar.getTimeInMillis();
+
+        for (ApiService.SlotCard slot : slots) {
+            // Format: date is "yyyy-MM-dd", timeRange is "HH:mm-HH:mm"
+            String[] timeParts = slot.timeRange != null ? slot.timeRange.split("-") : null;
+            if (slot.date == null || timeParts == null || timeParts.length != 2) {
+                futureSlots.add(slot);
+                continue;
+            }
+            try {
+                Date slotStartTime = dateTimeFormat.parse(slot.date + " " + timeParts[0].trim());
+                if (slotStartTime == null) {
+                    continue;
+                }
+                // Compare dates (not times) to include all slots for today
+                calendar.setTime(slotStartTime);
+                startOfDay(calendar);
+                if (calendar.getTimeInMillis() >= todayStartMs) {
+                    futureSlots.add(slot);
+                }
+            } catch (ParseException e) {
+                Logger.w(Logger.TAG_SLOTS_LOAD, "Failed to parse slot date/time: " + slot.date + " " + slot.timeRange + " - " + e.getMessage());
+                futureSlots.add(slot);
+            }
+        }
+        return futureSlots;
+    }
+
+    private static void startOfDay(Calendar calendar) {
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+    }
+
+    /**
+     * Same card header (title and banner) - a card whose header is unchanged can be partially rebound
+     */
+    boolean sameHeader(SlotCardUiModel other) {
+        return title.equals(other.title) && Objects.equals(banner, other.banner);
+    }
+
+    /**
+     * Same displayed content and button behaviour. The slot details are compared too: the card's
+     * listeners hand model.slot to the register/cancel callbacks, so a moved time, room or
+     * attendance window must rebind them even when the rendered text is unchanged.
+     */
+    boolean sameContent(SlotCardUiModel other) {
+        return sameHeader(other)
+                && sameSlotDetails(slot, other.slot)
+                && statusHtml.equals(other.statusHtml)
+                && backgroundResId == other.backgroundResId
+                && isFull == other.isFull
+                && atCapacity == other.atCapacity
+                && clickAction == other.clickAction
+                && Objects.equals(blockedMessage, other.blockedMessage)
+                && showRegister == other.showRegister
+                && showJoinWaitingList == other.showJoinWaitingList
+                && needsPhdWarning == other.needsPhdWarning
+                && showCancelWaitingList == other.showCancelWaitingList
+                && showCancelRegistration == other.showCancelRegistration;
+    }
+
+    private static boolean sameSlotDetails(ApiService.SlotCard a, ApiService.SlotCard b) {
+        return Objects.equals(a.date, b.date)
+                && Objects.equals(a.timeRange, b.timeRange)
+                && Objects.equals(a.room, b.room)
+                && Objects.equals(a.building, b.building)
+                && Objects.equals(a.attendanceOpenedAt, b.attendanceOpenedAt)
+                && Objects.equals(a.attendanceClosesAt, b.attendanceClosesAt)
+                && Objects.equals(a.mySessionClosesAt, b.mySessionClosesAt)
+                && a.capacity == b.capacity;
+    }
+
+    /**
+     * Availability line, session status and the approved/pending/waiting list names
+     */
+    private static String buildStatusHtml(Context context, ApiService.SlotCard slot, boolean isFull) {
+        String names = buildNamesSection(slot);
+
+        // Use availableCount from API (accounts for both pending and approved)
+        int availableSpots = Math.max(0, slot.availableCount);
+        String capacityText = String.format(Locale.getDefault(), "%d/%d", availableSpots, slot.capacity);
+
+        boolean hasAttendanceOpened = slot.attendanceOpenedAt != null && !slot.attendanceOpenedAt.isEmpty();
+        boolean sessionClosed = slot.hasClosedSession != null && slot.hasClosedSession;
+        String sessionStatusText = "";
+        if (sessionClosed) {
+            sessionStatusText = "<br/><font color='#666666'><i>Session completed</i></font>";
+        } else if (hasAttendanceOpened) {
+            sessionStatusText = "<br/><font color='#1976D2'><i>Session in progress</i></font>";
+        }
+
+        if (names.isEmpty()) {
+            if (isFull) {
+                return "<big><b>Full (0/" + slot.capacity + ")</b></big> - Join Waiting List" + sessionStatusText;
+            }
+            String availText = context.getString(R.string.presenter_home_slot_state_available) + " (" + capacityText + ")";
+            return "<big><b>" + availText + "</b></big>" + sessionStatusText;
+        }
+        return "<big><b>" + capacityText + " Available</b></big>" + sessionStatusText
+                + "<br/><br/>" + names.replace("\n", "<br/>");
+    }
+
+    /**
+     * Multi-line names text: each section has its label on its own line, then indented names below
+     */
+    private static String buildNamesSection(ApiService.SlotCard slot) {
+        StringBuilder builder = new StringBuilder();
+        appendSection(builder, "Approved:\n", formatNamesForDisplay(slot.registered, MAX_NAMES_SHOWN));
+        appendSection(builder, "Pending:\n", formatNamesForDisplay(slot.pendingPresenters, MAX_NAMES_SHOWN));
+        appendSection(builder, "Waiting List Priorities:\n", formatWaitingListPriorities(slot.waitingListEntries, MAX_NAMES_SHOWN));
+        return builder.toString();
+    }
+
+    private static void appendSection(StringBuilder builder, String label, String names) {
+        if (names == null || names.isEmpty()) {
+            return;
+        }
+        if (builder.length() > 0) {
+            builder.append("\n\n\n"); // Extra spacing between sections
+        }
+        builder.append(label).append(names);
+    }
+
+    /**
+     * Each name on its own indented line, with degree prefix (PhD/MSc) to explain capacity usage.
+     * Returns null if no names available
+     */
+    private static String formatNamesForDisplay(List<ApiService.PresenterCoPresenter> registered, int maxCount) {
+        if (registered == null || registered.isEmpty()) {
+            return null;
+        }
+        List<String> names = new ArrayList<>();
+        int count = Math.min(maxCount, registered.size());
+        for (int i = 0; i < count; i++) {
+            ApiService.PresenterCoPresenter presenter = registered.get(i);
+            if (presenter != null && presenter.name != null && !presenter.name.trim().isEmpty()) {
+                // Format: "    PhD, Name" or "    MSc, Name" or just "    Name" if no degree
+                StringBuilder entry = new StringBuilder("    ");
+                if (presenter.degree != null && !presenter.degree.trim().isEmpty()) {
+                    entry.append(presenter.degree.trim()).append(", ");
+                }
+                entry.append(presenter.name.trim());
+                names.add(entry.toString());
+            }
+        }
+        if (names.isEmpty()) {
+            return null;
+        }
+        return TextUtils.join("\n", names);
+    }
+
+    /**
+     * Format waiting list as priority numbers with names (#1 - Name)
+     */
+    private static String formatWaitingListPriorities(List<ApiService.PresenterCoPresenter> waitingList, int maxCount) {
+        if (waitingList == null || waitingList.isEmpty()) {
+            return null;
+        }
+        List<String> priorities = new ArrayList<>();
+        int count = Math.min(maxCount, waitingList.size());
+        for (int i = 0; i < count; i++) {
+            ApiService.PresenterCoPresenter presenter = waitingList.get(i);
+            String name = (presenter != null && presenter.name != null) ? presenter.name.trim() : "";
+            String degree = (presenter != null && presenter.degree != null) ? presenter.degree.trim() : "";
+            String displayName = degree.isEmpty() ? name : degree + ", " + name;
+            priorities.add("    #" + (i + 1) + " - " + displayName);
+        }
+        return TextUtils.join("\n", priorities);
+    }
+
+    private static boolean hasMscPresenter(List<ApiService.PresenterCoPresenter> presenters) {
+        if (presenters != null) {
+            for (ApiService.PresenterCoPresenter p : presenters) {
+                if (p != null && "MSc".equals(p.degree)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void logWaitingListHidden(ApiService.SlotCard slot, boolean registeredHere, boolean atCapacity,
+                                             boolean waitingListFull, boolean queueTypeMismatch, String queueType,
+                                             String userDegree) {
+        if (slot.onWaitingList) {
+            Logger.i(Logger.TAG_WAITING_LIST_JOIN, "Join Waiting List button hidden - user already on waiting list for slot=" + slot.slotId);
+        } else if (registeredHere) {
+            Logger.i(Logger.TAG_WAITING_LIST_JOIN, "Join Waiting List button hidden - user already registered in slot=" + slot.slotId);
+        } else if (!atCapacity) {
+            Logger.i(Logger.TAG_WAITING_LIST_JOIN, "Join Waiting List button hidden - slot is not at capacity, slot=" + slot.slotId);
+        } else if (waitingListFull) {
+            Logger.i(Logger.TAG_WAITING_LIST_JOIN, "Join Waiting List button hidden - waiting list is full, slot=" + slot.slotId);
+        } else if (queueTypeMismatch) {
+            Logger.i(Logger.TAG_WAITING_LIST_JOIN, "Join Waiting List button hidden - queue is " + queueType + "-only, user is " + userDegree + ", slot=" + slot.slotId);
+        }
+    }
+
+    /**
+     * Format date as dd/mm/yyyy
+     */
+    private static String formatDate(String date) {
+        String formatted = safe(date);
+        if (formatted.contains("-")) {
+            String[] parts = formatted.split("-");
+            if (parts.length == 3) {
+                formatted = parts[2] + "/" + parts[1] + "/" + parts[0];
+            }
+        }
+        return formatted;
+    }
+
+    private static String safe(String value) {
+        return value == null ? "" : value;
+    }
+}
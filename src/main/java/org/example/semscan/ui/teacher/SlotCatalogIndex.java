@@ -0,0 +1,64 @@
+package org.example.semscan.ui.teacher;
+
+import android.util.LongSparseArray;
+
+import org.example.semscan.data.api.ApiService;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Slots of one presenter-home response indexed by slotId, plus the current user's totals.
+ *
+ * Built in a single pass per response, so lookups when comparing responses and the
+ * registration limit checks on every click don't rescan the catalog. Slots without a slotId
+ * are counted but can't be looked up. The SlotCards must not be modified afterwards.
+ */
+final class SlotCatalogIndex {
+
+    static final SlotCatalogIndex EMPTY = new SlotCatalogIndex(Collections.emptyList());
+
+    private final LongSparseArray<ApiService.SlotCard> bySlotId;
+    final int approvedRegistrations; // Slots the user is registered in with APPROVED status
+    final int pendingRegistrations;  // Slots the user is registered in with PENDING_APPROVAL status
+    final int waitingLists;          // Slots where the user is on the waiting list
+
+    SlotCatalogIndex(List<ApiService.SlotCard> slots) {
+        bySlotId = new LongSparseArray<>(slots != null ? slots.size() : 0);
+        int approved = 0;
+        int pending = 0;
+        int waiting = 0;
+        if (slots != null) {
+            for (ApiService.SlotCard slot : slots) {
+                if (slot.slotId != null) {
+                    bySlotId.put(slot.slotId, slot);
+                }
+                if (slot.alreadyRegistered) {
+                    if ("APPROVED".equals(slot.approvalStatus)) {
+                        approved++;
+                    } else if ("PENDING_APPROVAL".equals(slot.approvalStatus)) {
+                        pending++;
+                    }
+                }
+                if (slot.onWaitingList) {
+                    waiting++;
+                }
+            }
+        }
+        approvedRegistrations = approved;
+        pendingRegistrations = pending;
+        waitingLists = waiting;
+    }
+
+    ApiService.SlotCard get(Long slotId) {
+        return slotId != null ? bySlotId.get(slotId) : null;
+    }
+
+    int size() {
+        return bySlotId.size();
+    }
+
+    ApiService.SlotCard valueAt(int index) {
+        return bySlotId.valueAt(index);
+    }
+}
@@ -35,7 +35,7 @@ public class ConfigManager {
     
     private static ConfigManager instance;
     private Context context;
-    private ApiService.MobileConfigResponse cachedConfig;
+    private volatile ApiService.MobileConfigResponse cachedConfig; // Written on executorService, read from any thread
     private ExecutorService executorService;
     private final Gson gson = new Gson();
     
@@ -172,7 +172,10 @@ public class ConfigManager {
                 if (response.isSuccessful() && response.body() != null) {
                     cachedConfig = response.body();
                     saveCachedConfig(cachedConfig);
-                    
+
+                    // Publish the new server URL to ApiClient (its getInstance() no longer re-reads config)
+                    ApiClient.onConfigChanged(context);
+
                     Logger.i(Logger.TAG_PREFS, "Successfully fetched and cached mobile config");
                     // Try to log to ServerLogger only after ConfigManager is initialized
                     try {
@@ -496,6 +499,14 @@ public class ConfigManager {
         return true; // Fallback default - enabled
     }
 
+    /**
+     * Check if log uploads may be gzipped and use the batch envelope (LogRequest.hoisted)
+     * Default is false: older backends reject both
+     */
+    public boolean isCompactLogUploadEnabled() {
+        return cachedConfig != null && cachedConfig.compactLogUploads;
+    }
+
     /**
      * Shutdown the ConfigManager, releasing all resources.
      * Should be called when the application is terminating.
@@ -2,6 +2,7 @@ package org.example.semscan.utils;
 
 import android.content.Context;
 import org.example.semscan.R;
+import org.example.semscan.data.api.CircuitBreakerInterceptor;
 
 /**
  * Helper class to format user-friendly error messages
@@ -13,7 +14,9 @@ public class ErrorMessageHelper {
      * Get user-friendly error message for network errors
      */
     public static String getNetworkErrorMessage(Context context, Throwable throwable) {
-        if (throwable instanceof java.net.SocketTimeoutException) {
+        if (throwable instanceof CircuitBreakerInterceptor.CircuitOpenException) {
+            return context.getString(R.string.error_server_busy_retry);
+        } else if (throwable instanceof java.net.SocketTimeoutException) {
             return context.getString(R.string.error_network_timeout);
         } else if (throwable instanceof java.net.ConnectException) {
             return context.getString(R.string.error_no_internet_retry);
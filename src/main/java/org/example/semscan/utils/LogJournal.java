@@ -0,0 +1,400 @@
+package org.example.semscan.utils;
+
+import android.util.Log;
+
+import com.google.gson.Gson;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Segmented append-only journal for log entries waiting to be uploaded.
+ *
+ * Layout (in dir):
+ * - segment-N.log: records of [int length][int crc32][length bytes of UTF-8 JSON]
+ * - cursor: segment id + offset (two longs) of the first record the server has not acknowledged
+ *
+ * Appends are buffered and only fsync'd on sync(), so one drain of the ring buffer costs a
+ * single fsync. A segment rolls over at SEGMENT_MAX_BYTES; once every record in a segment is
+ * acknowledged the file is deleted. A torn record at the tail (crash mid-write) is truncated
+ * on open. When more than MAX_SEGMENTS exist the oldest segment is dropped.
+ *
+ * Not thread-safe - ServerLogger only uses it from its executor thread.
+ */
+public class LogJournal {
+    private static final String TAG = "LogJournal";
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CURSOR_FILE = "cursor";
+    private static final int HEADER_BYTES = 8;
+    private static final int SEGMENT_MAX_BYTES = 256 * 1024;
+    private static final int MAX_SEGMENTS = 16; // ~4 MB of backlog
+    private static final int MAX_RECORD_BYTES = 256 * 1024;
+
+    private final File dir;
+    private final Gson gson;
+
+    private final TreeMap<Long, File> segments = new TreeMap<>();
+    private long cursorSegment;
+    private long cursorOffset;
+    private int pendingCount;
+
+    private FileOutputStream activeFile;
+    private DataOutputStream activeOut;
+    private long activeSegment = -1;
+    private long activeBytes;
+
+    // {segment, end offset, records consumed} per entry returned by the last peek(), for acknowledge()
+    private final List<long[]> peekPositions = new ArrayList<>();
+
+    public LogJournal(File dir, Gson gson) {
+        this.dir = dir;
+        this.gson = gson;
+    }
+
+    /**
+     * Scan existing segments, recover the tail and restore the acknowledged cursor
+     */
+    public void open() throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create journal directory " + dir);
+        }
+        segments.clear();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                                name.length() - SEGMENT_SUFFIX.length()));
+                        segments.put(id, file);
+                    } catch (NumberFormatException ignored) {
+                        // Not ours
+                    }
+                }
+            }
+        }
+
+        readCursor();
+        if (segments.isEmpty()) {
+            cursorSegment = 0;
+            cursorOffset = 0;
+        } else if (cursorSegment < segments.firstKey()) {
+            cursorSegment = segments.firstKey();
+            cursorOffset = 0;
+        }
+
+        // Drop any segments that were fully acknowledged before the last shutdown
+        while (!segments.isEmpty() && segments.firstKey() < cursorSegment) {
+            deleteSegment(segments.firstKey());
+        }
+
+        if (!segments.isEmpty()) {
+            long last = segments.lastKey();
+            long validLength = scanValidLength(segments.get(last));
+            if (validLength < segments.get(last).length()) {
+                Log.w(TAG, "Truncating torn tail of " + segments.get(last).getName() + " at " + validLength);
+                try (RandomAccessFile raf = new RandomAccessFile(segments.get(last), "rw")) {
+                    raf.setLength(validLength);
+                }
+            }
+        }
+        pendingCount = countFrom(cursorSegment, cursorOffset);
+    }
+
+    /**
+     * Buffered append - call sync() to make it durable
+     */
+    public void append(Object entry) throws IOException {
+        byte[] payload = gson.toJson(entry).getBytes(StandardCharsets.UTF_8);
+        if (payload.length > MAX_RECORD_BYTES) {
+            Log.w(TAG, "Dropping oversized journal record (" + payload.length + " bytes)");
+            return;
+        }
+        if (activeOut == null || activeBytes + HEADER_BYTES + payload.length > SEGMENT_MAX_BYTES) {
+            rollSegment();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        activeOut.writeInt(payload.length);
+        activeOut.writeInt((int) crc.getValue());
+        activeOut.write(payload);
+        activeBytes += HEADER_BYTES + payload.length;
+        pendingCount++;
+    }
+
+    /**
+     * Flush buffered appends and fsync the active segment
+     */
+    public void sync() throws IOException {
+        if (activeOut != null) {
+            activeOut.flush();
+            activeFile.getFD().sync();
+        }
+    }
+
+    /**
+     * Number of records not yet acknowledged
+     */
+    public int size() {
+        return pendingCount;
+    }
+
+    /**
+     * Read up to max unacknowledged records, oldest first, without consuming them.
+     * Records that fail to parse are skipped (and acknowledged along with the next good one).
+     */
+    public <T> List<T> peek(int max, Class<T> type) throws IOException {
+        if (activeOut != null) {
+            activeOut.flush(); // Make buffered appends visible to the reader
+        }
+        List<T> result = new ArrayList<>();
+        peekPositions.clear();
+        long records = 0;
+        long segment = cursorSegment;
+        long offset = cursorOffset;
+        Long id;
+        while (result.size() < max && (id = segments.ceilingKey(segment)) != null) {
+            if (id != segment) {
+                offset = 0;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(segments.get(id))))) {
+                skipFully(in, offset);
+                byte[] payload;
+                while (result.size() < max && (payload = readRecord(in)) != null) {
+                    offset += HEADER_BYTES + payload.length;
+                    records++;
+                    try {
+                        result.add(gson.fromJson(new String(payload, StandardCharsets.UTF_8), type));
+                        peekPositions.add(new long[]{id, offset, records});
+                    } catch (RuntimeException e) {
+                        Log.w(TAG, "Skipping unreadable journal record", e);
+                    }
+                }
+            } catch (EOFException e) {
+                Log.w(TAG, "Journal cursor beyond end of " + segments.get(id).getName());
+            }
+            segment = id + 1;
+            offset = 0;
+        }
+        return result;
+    }
+
+    /**
+     * Mark the first count records of the last peek() as delivered and delete drained segments
+     */
+    public void acknowledge(int count) throws IOException {
+        if (count <= 0 || peekPositions.isEmpty()) {
+            return;
+        }
+        long[] end = peekPositions.get(Math.min(count, peekPositions.size()) - 1);
+        peekPositions.clear();
+        if (end[0] < cursorSegment || (end[0] == cursorSegment && end[1] <= cursorOffset)) {
+            return; // Already past this point (segment dropped while uploading)
+        }
+        cursorSegment = end[0];
+        cursorOffset = end[1];
+
+        // Everything before the cursor segment is done; so is the cursor segment if fully read
+        while (!segments.isEmpty() && segments.firstKey() < cursorSegment) {
+            deleteSegment(segments.firstKey());
+        }
+        File current = segments.get(cursorSegment);
+        if (current != null && cursorSegment != activeSegment && cursorOffset >= current.length()) {
+            deleteSegment(cursorSegment);
+            cursorSegment++;
+            cursorOffset = 0;
+        }
+        writeCursor();
+        pendingCount = (int) Math.max(0, pendingCount - end[2]);
+    }
+
+    /**
+     * Drop every record (acknowledged or not)
+     */
+    public void clear() throws IOException {
+        closeActive();
+        for (Long id : new ArrayList<>(segments.keySet())) {
+            deleteSegment(id);
+        }
+        cursorSegment = 0;
+        cursorOffset = 0;
+        pendingCount = 0;
+        peekPositions.clear();
+        writeCursor();
+    }
+
+    public void close() {
+        try {
+            sync();
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to sync journal on close", e);
+        }
+        closeActive();
+    }
+
+    private void rollSegment() throws IOException {
+        if (activeOut != null) {
+            sync();
+            closeActive();
+        }
+        long id = segments.isEmpty() ? cursorSegment : segments.lastKey() + 1;
+        File file = new File(dir, SEGMENT_PREFIX + id + SEGMENT_SUFFIX);
+        segments.put(id, file);
+        activeFile = new FileOutputStream(file, true);
+        activeOut = new DataOutputStream(new BufferedOutputStream(activeFile, 8192));
+        activeSegment = id;
+        activeBytes = file.length();
+
+        // Bounded backlog: drop the oldest segment (and whatever was unacknowledged in it)
+        if (segments.size() > MAX_SEGMENTS) {
+            long oldest = segments.firstKey();
+            Log.w(TAG, "Journal over " + MAX_SEGMENTS + " segments - dropping " + segments.get(oldest).getName());
+            deleteSegment(oldest);
+            if (cursorSegment <= oldest) {
+                cursorSegment = segments.firstKey();
+                cursorOffset = 0;
+                writeCursor();
+            }
+            pendingCount = countFrom(cursorSegment, cursorOffset);
+        }
+    }
+
+    private void closeActive() {
+        if (activeOut != null) {
+            try {
+                activeOut.close();
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to close journal segment", e);
+            }
+        }
+        activeOut = null;
+        activeFile = null;
+    }
+
+    private void deleteSegment(long id) {
+        File file = segments.remove(id);
+        if (id == activeSegment) {
+            closeActive();
+            activeSegment = -1;
+        }
+        if (file != null && file.exists() && !file.delete()) {
+            Log.w(TAG, "Failed to delete " + file.getName());
+        }
+    }
+
+    /**
+     * Count complete records from a position to the end of the journal (headers only)
+     */
+    private int countFrom(long segment, long offset) throws IOException {
+        int count = 0;
+        for (java.util.Map.Entry<Long, File> entry : segments.tailMap(segment, true).entrySet()) {
+            long position = entry.getKey() == segment ? offset : 0;
+            try (RandomAccessFile raf = new RandomAccessFile(entry.getValue(), "r")) {
+                long length = raf.length();
+                while (position + HEADER_BYTES <= length) {
+                    raf.seek(position);
+                    int recordLength = raf.readInt();
+                    if (recordLength <= 0 || recordLength > MAX_RECORD_BYTES
+                            || position + HEADER_BYTES + recordLength > length) {
+                        break;
+                    }
+                    position += HEADER_BYTES + recordLength;
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Length of the prefix of the file made of complete, checksum-valid records
+     */
+    private long scanValidLength(File file) throws IOException {
+        long valid = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            byte[] payload;
+            while ((payload = readRecord(in)) != null) {
+                valid += HEADER_BYTES + payload.length;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * @return the record payload, or null at end of segment / first torn or corrupt record
+     */
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            int crcValue = in.readInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return (int) crc.getValue() == crcValue ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static void skipFully(DataInputStream in, long bytes) throws IOException {
+        while (bytes > 0) {
+            long skipped = in.skip(bytes);
+            if (skipped <= 0) {
+                throw new EOFException("Cursor beyond end of segment");
+            }
+            bytes -= skipped;
+        }
+    }
+
+    private void readCursor() {
+        File file = new File(dir, CURSOR_FILE);
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            cursorSegment = in.readLong();
+            cursorOffset = in.readLong();
+        } catch (IOException e) {
+            Log.w(TAG, "Unreadable journal cursor - replaying from the oldest segment", e);
+            cursorSegment = 0;
+            cursorOffset = 0;
+        }
+    }
+
+    /**
+     * Write-to-temp then rename, so a crash never leaves a half-written cursor
+     */
+    private void writeCursor() throws IOException {
+        File tmp = new File(dir, CURSOR_FILE + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(fos)) {
+            out.writeLong(cursorSegment);
+            out.writeLong(cursorOffset);
+            out.flush();
+            fos.getFD().sync();
+        }
+        if (!tmp.renameTo(new File(dir, CURSOR_FILE))) {
+            throw new IOException("Failed to update journal cursor");
+        }
+    }
+}
@@ -133,6 +133,73 @@ public class Logger {
     public static void i(String tag, String message) {
         Log.i(tag, message);
     }
+
+    /**
+     * Lazy debug message - the supplier only runs in debug builds
+     */
+    public static void d(String tag, java.util.function.Supplier<String> message) {
+        if (debugEnabled) {
+            Log.i(tag, message.get());
+        }
+    }
+
+    /**
+     * Lazy info message - the supplier only runs when INFO is enabled (always in debug builds,
+     * otherwise per the LoggingConfig level)
+     */
+    public static void i(String tag, java.util.function.Supplier<String> message) {
+        if (isInfoEnabled()) {
+            Log.i(tag, message.get());
+        }
+    }
+
+    private static boolean isInfoEnabled() {
+        return debugEnabled || applicationContext == null
+                || LoggingConfig.getInstance(applicationContext).isLoggable(ServerLogger.INFO);
+    }
+
+    /**
+     * Build a flat JSON object from alternating key/value arguments, e.g.
+     * json("event", "QR_SCANNED", "sessionId", 42) -> {"event":"QR_SCANNED","sessionId":42}.
+     * Numbers and booleans are written bare, everything else as an escaped string.
+     * Meant to be called inside a lazy supplier so nothing is built for filtered entries.
+     */
+    public static String json(Object... keyValues) {
+        StringBuilder sb = new StringBuilder(16 * keyValues.length).append('{');
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            if (i > 0) sb.append(',');
+            appendJsonString(sb, String.valueOf(keyValues[i]));
+            sb.append(':');
+            Object value = keyValues[i + 1];
+            if (value instanceof Number || value instanceof Boolean) {
+                sb.append(value);
+            } else {
+                appendJsonString(sb, value == null ? "NULL" : value.toString());
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    private static void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
     
     /**
      * Log warning messages
@@ -19,9 +19,12 @@ public class LoggingConfig {
     
     private static LoggingConfig instance;
     private SharedPreferences prefs;
+    // Read on every log call - cached so gating never touches SharedPreferences
+    private volatile int logLevel;
     
     private LoggingConfig(Context context) {
         prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        logLevel = prefs.getInt(KEY_LOG_LEVEL, ServerLogger.INFO);
     }
     
     public static synchronized LoggingConfig getInstance(Context context) {
@@ -46,11 +49,19 @@ public class LoggingConfig {
      * Set minimum log level to send to server
      */
     public void setLogLevel(int level) {
+        logLevel = level;
         prefs.edit().putInt(KEY_LOG_LEVEL, level).apply();
     }
     
     public int getLogLevel() {
-        return prefs.getInt(KEY_LOG_LEVEL, ServerLogger.INFO);
+        return logLevel;
+    }
+
+    /**
+     * Whether an entry at this level should be sent to the server
+     */
+    public boolean isLoggable(int level) {
+        return level >= logLevel;
     }
     
     /**
@@ -101,6 +112,7 @@ public class LoggingConfig {
      * Reset to default settings
      */
     public void resetToDefaults() {
+        logLevel = ServerLogger.INFO;
         prefs.edit().clear().apply();
     }
 }
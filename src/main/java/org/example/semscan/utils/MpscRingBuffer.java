@@ -0,0 +1,112 @@
+package org.example.semscan.utils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer (sequence-per-slot design, after D. Vyukov).
+ *
+ * Many threads may offer() concurrently; a full buffer makes offer() return false instead of
+ * blocking. poll()/drainTo() are meant for a single consumer thread, but evicting producers may
+ * also poll() the oldest element - the per-slot sequence numbers keep that safe.
+ */
+public class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong(); // Next position to write
+    private final AtomicLong head = new AtomicLong(); // Next position to read
+
+    /**
+     * @param capacity rounded up to the next power of two
+     */
+    public MpscRingBuffer(int capacity) {
+        int size = 2;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Add an element without blocking
+     * @return false if the buffer is full
+     */
+    public boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, element);
+                    sequences.set(index, position + 1); // Publish
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false; // Slot not yet consumed - buffer full
+            }
+            // else another producer claimed this position, reload tail
+        }
+    }
+
+    /**
+     * Remove the oldest element
+     * @return null if the buffer is empty
+     */
+    public E poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - (position + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = slots.get(index);
+                    slots.lazySet(index, null);
+                    sequences.set(index, position + mask + 1); // Free the slot for the next lap
+                    return element;
+                }
+            } else if (diff < 0) {
+                return null; // Empty, or a producer has claimed the slot but not yet published
+            }
+        }
+    }
+
+    /**
+     * Move up to maxElements into the target list
+     * @return number of elements moved
+     */
+    public int drainTo(List<? super E> target, int maxElements) {
+        int count = 0;
+        E element;
+        while (count < maxElements && (element = poll()) != null) {
+            target.add(element);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Approximate number of buffered elements (exact when producers are quiet)
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -7,37 +7,265 @@ import org.example.semscan.data.model.QRPayload;
 
 public class QRUtils {
     private static final Gson gson = new Gson();
-    
+    // Keys of the payloads we generate (QrTokenSigner for the rotating ones)
+    private static final String SESSION_ID_KEY = "sessionId";
+    private static final String TIME_STEP_KEY = "t";
+    private static final String STEP_SECONDS_KEY = "p";
+    private static final String SIGNATURE_KEY = "sig";
+
+    /**
+     * Returned by parseSessionId when the content holds no session ID
+     */
+    public static final long NO_SESSION_ID = Long.MIN_VALUE;
+
     /**
      * Parse QR code content to QRPayload
      * @param qrContent The content scanned from QR code
      * @return QRPayload object or null if parsing fails
      */
     public static QRPayload parseQRContent(String qrContent) {
+        QRPayload payload = new QRPayload();
+        if (scan(qrContent, payload) != NO_SESSION_ID) {
+            return payload;
+        }
         try {
             return gson.fromJson(qrContent, QRPayload.class);
         } catch (JsonSyntaxException e) {
             return null;
         }
     }
-    
+
+    /**
+     * Extract the session ID from QR content without allocating.
+     * The static {"sessionId":N} and rotating {"sessionId":N,"t":..,"p":..,"sig":".."} payloads
+     * are scanned by hand; any other shape falls back to Gson.
+     * @param qrContent The content scanned from QR code
+     * @return the session ID, or NO_SESSION_ID if the content is invalid or has none
+     */
+    public static long parseSessionId(String qrContent) {
+        long sessionId = parseSessionIdFast(qrContent);
+        if (sessionId != NO_SESSION_ID) {
+            return sessionId;
+        }
+        QRPayload payload;
+        try {
+            payload = gson.fromJson(qrContent, QRPayload.class);
+        } catch (JsonSyntaxException e) {
+            return NO_SESSION_ID;
+        }
+        return payload != null && payload.getSessionId() != null ? payload.getSessionId() : NO_SESSION_ID;
+    }
+
+    /**
+     * Hand-parse the payloads we generate (see scan)
+     * @return the session ID, or NO_SESSION_ID if the content has any other shape
+     */
+    static long parseSessionIdFast(String s) {
+        return scan(s, null);
+    }
+
+    /**
+     * Match a flat object with a sessionId and optionally t, p and sig, each at most once and in
+     * any order (whitespace allowed between tokens). Numbers may be quoted; sig must be a plain
+     * string without escapes. Anything else - other keys, decimals, nulls, overflow - is left to Gson.
+     * @param out receives the parsed fields on success, may be null (then nothing is allocated)
+     * @return the session ID, or NO_SESSION_ID if the content has any other shape
+     */
+    private static long scan(String s, QRPayload out) {
+        if (s == null) {
+            return NO_SESSION_ID;
+        }
+        int length = s.length();
+        int i = skipWhitespace(s, 0);
+        if (i >= length || s.charAt(i) != '{') {
+            return NO_SESSION_ID;
+        }
+        long sessionId = NO_SESSION_ID;
+        long timeStep = 0;
+        long stepSeconds = 0;
+        int sigStart = -1;
+        int sigEnd = -1;
+        boolean hasTimeStep = false;
+        boolean hasStepSeconds = false;
+
+        i = skipWhitespace(s, i + 1);
+        while (true) {
+            int keyEnd = stringEnd(s, i);
+            if (keyEnd < 0) {
+                return NO_SESSION_ID;
+            }
+            int keyStart = i + 1;
+            int keyLength = keyEnd - 1 - keyStart;
+            i = skipWhitespace(s, keyEnd);
+            if (i >= length || s.charAt(i) != ':') {
+                return NO_SESSION_ID;
+            }
+            i = skipWhitespace(s, i + 1);
+
+            if (isKey(s, keyStart, keyLength, SESSION_ID_KEY) && sessionId == NO_SESSION_ID) {
+                int end = numberEnd(s, i);
+                sessionId = end < 0 ? NO_SESSION_ID : numberValue(s, i, end);
+                if (sessionId == NO_SESSION_ID) {
+                    return NO_SESSION_ID; // Malformed or overflow - let Gson report it
+                }
+                i = end;
+            } else if (isKey(s, keyStart, keyLength, TIME_STEP_KEY) && !hasTimeStep) {
+                int end = numberEnd(s, i);
+                timeStep = end < 0 ? NO_SESSION_ID : numberValue(s, i, end);
+                if (timeStep == NO_SESSION_ID) {
+                    return NO_SESSION_ID;
+                }
+                hasTimeStep = true;
+                i = end;
+            } else if (isKey(s, keyStart, keyLength, STEP_SECONDS_KEY) && !hasStepSeconds) {
+                int end = numberEnd(s, i);
+                stepSeconds = end < 0 ? NO_SESSION_ID : numberValue(s, i, end);
+                if (stepSeconds < Integer.MIN_VALUE || stepSeconds > Integer.MAX_VALUE) {
+                    return NO_SESSION_ID;
+                }
+                hasStepSeconds = true;
+                i = end;
+            } else if (isKey(s, keyStart, keyLength, SIGNATURE_KEY) && sigStart < 0) {
+                int end = stringEnd(s, i);
+                if (end < 0) {
+                    return NO_SESSION_ID;
+                }
+                sigStart = i + 1;
+                sigEnd = end - 1;
+                i = end;
+            } else {
+                return NO_SESSION_ID; // Unknown or repeated key
+            }
+
+            i = skipWhitespace(s, i);
+            if (i >= length) {
+                return NO_SESSION_ID;
+            }
+            if (s.charAt(i) == '}') {
+                break;
+            }
+            if (s.charAt(i) != ',') {
+                return NO_SESSION_ID;
+            }
+            i = skipWhitespace(s, i + 1);
+        }
+        if (sessionId == NO_SESSION_ID || skipWhitespace(s, i + 1) != length) {
+            return NO_SESSION_ID;
+        }
+
+        if (out != null) {
+            out.setSessionId(sessionId);
+            out.setTimeStep(hasTimeStep ? timeStep : null);
+            out.setStepSeconds(hasStepSeconds ? (int) stepSeconds : null);
+            out.setSignature(sigStart >= 0 ? s.substring(sigStart, sigEnd) : null);
+        }
+        return sessionId;
+    }
+
+    private static boolean isKey(String s, int start, int length, String key) {
+        return length == key.length() && s.startsWith(key, start);
+    }
+
+    /**
+     * End (exclusive) of the string token starting at i, or -1 if there is none or it has escapes
+     */
+    private static int stringEnd(String s, int i) {
+        if (i >= s.length() || s.charAt(i) != '"') {
+            return -1;
+        }
+        for (int j = i + 1; j < s.length(); j++) {
+            char c = s.charAt(j);
+            if (c == '"') {
+                return j + 1;
+            }
+            if (c == '\\' || c < ' ') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * End (exclusive) of an integer token - optionally negative, optionally quoted - at i, or -1
+     */
+    private static int numberEnd(String s, int i) {
+        int length = s.length();
+        boolean quoted = i < length && s.charAt(i) == '"';
+        if (quoted) {
+            i++;
+        }
+        if (i < length && s.charAt(i) == '-') {
+            i++;
+        }
+        int digitsStart = i;
+        while (i < length && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+            i++;
+        }
+        if (i == digitsStart) {
+            return -1;
+        }
+        if (quoted) {
+            if (i >= length || s.charAt(i) != '"') {
+                return -1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Value of a token accepted by numberEnd, or NO_SESSION_ID on overflow
+     */
+    private static long numberValue(String s, int start, int end) {
+        if (s.charAt(start) == '"') {
+            start++;
+            end--;
+        }
+        boolean negative = s.charAt(start) == '-';
+        if (negative) {
+            start++;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = s.charAt(i) - '0';
+            if (value > (Long.MAX_VALUE - digit) / 10) {
+                return NO_SESSION_ID;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private static int skipWhitespace(String s, int i) {
+        while (i < s.length()) {
+            char c = s.charAt(i);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
     /**
      * Generate QR code content from session ID
      * @param sessionId The session ID
      * @return JSON string for QR code
      */
     public static String generateQRContent(Long sessionId) {
+        if (sessionId != null) {
+            return "{\"sessionId\":" + sessionId + "}"; // Same output as Gson, without reflection
+        }
         QRPayload payload = new QRPayload(sessionId);
         return gson.toJson(payload);
     }
-    
+
     /**
      * Validate if QR content is valid
      * @param qrContent The content to validate
      * @return true if valid, false otherwise
      */
     public static boolean isValidQRContent(String qrContent) {
-        QRPayload payload = parseQRContent(qrContent);
-        return payload != null && payload.getSessionId() != null;
+        return parseSessionId(qrContent) != NO_SESSION_ID;
     }
 }
@@ -0,0 +1,113 @@
+package org.example.semscan.utils;
+
+import android.util.Base64;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Rotating, signed session QR tokens (TOTP-style).
+ *
+ * When attendance opens the server hands the presenter a per-session secret. The presenter screen
+ * then derives a new token every stepSeconds locally - HMAC-SHA256 over "sessionId:timeStep" -
+ * so the QR can rotate without any network round-trip:
+ *
+ *   {"sessionId":N,"t":timeStep,"p":stepSeconds,"sig":"base64url"}
+ *
+ * Students never hold the secret: the scanner forwards t/sig with the submission and the server
+ * verifies both signature and freshness. Phone clocks can be minutes off, so the scanner only
+ * rejects tokens that are far outside any plausible skew (see isFresh).
+ */
+public class QrTokenSigner {
+
+    public static final int DEFAULT_STEP_SECONDS = 15;
+    private static final int MIN_STEP_SECONDS = 5;
+    // How far a token may be behind/ahead of the scanner's clock; the tight check is the server's
+    private static final long MAX_CLOCK_SKEW_MS = 15 * 60 * 1000L;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_BYTES = 16; // Truncated HMAC keeps the QR small
+    private static final int BASE64_FLAGS = Base64.URL_SAFE | Base64.NO_WRAP | Base64.NO_PADDING;
+
+    private final Mac mac;
+    private final long sessionId;
+    private final int stepSeconds;
+
+    private QrTokenSigner(Mac mac, long sessionId, int stepSeconds) {
+        this.mac = mac;
+        this.sessionId = sessionId;
+        this.stepSeconds = stepSeconds;
+    }
+
+    /**
+     * @param secret base64 (standard or URL-safe) session secret from the open-attendance response
+     * @param stepSeconds rotation period; values below MIN_STEP_SECONDS fall back to the default
+     * @return a signer, or null if the secret is missing or invalid (caller shows the static QR)
+     */
+    public static QrTokenSigner create(String secret, long sessionId, int stepSeconds) {
+        if (secret == null || secret.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            byte[] key = Base64.decode(secret.trim().replace('+', '-').replace('/', '_'), BASE64_FLAGS);
+            if (key.length == 0) {
+                return null;
+            }
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+            int step = stepSeconds >= MIN_STEP_SECONDS ? stepSeconds : DEFAULT_STEP_SECONDS;
+            return new QrTokenSigner(mac, sessionId, step);
+        } catch (IllegalArgumentException | GeneralSecurityException e) {
+            Logger.w(Logger.TAG_QR, "Invalid QR token secret - falling back to static QR: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public int getStepSeconds() {
+        return stepSeconds;
+    }
+
+    public long currentStep(long nowMs) {
+        return timeStep(nowMs, stepSeconds);
+    }
+
+    /**
+     * Milliseconds until the next token rotation
+     */
+    public long millisUntilNextStep(long nowMs) {
+        long stepMs = stepSeconds * 1000L;
+        return stepMs - Math.floorMod(nowMs, stepMs);
+    }
+
+    /**
+     * QR content for the given time step. Not thread-safe (shares one Mac); call from the UI thread.
+     */
+    public String contentFor(long timeStep) {
+        byte[] digest = mac.doFinal((sessionId + ":" + timeStep).getBytes(StandardCharsets.UTF_8));
+        byte[] truncated = new byte[SIGNATURE_BYTES];
+        System.arraycopy(digest, 0, truncated, 0, SIGNATURE_BYTES);
+        return "{\"sessionId\":" + sessionId
+                + ",\"t\":" + timeStep
+                + ",\"p\":" + stepSeconds
+                + ",\"sig\":\"" + Base64.encodeToString(truncated, BASE64_FLAGS) + "\"}";
+    }
+
+    public static long timeStep(long nowMs, int stepSeconds) {
+        return Math.floorDiv(nowMs, stepSeconds * 1000L);
+    }
+
+    /**
+     * Scanner-side sanity check - freshness and signature are verified by the server
+     * @return false if the token's step lies more than MAX_CLOCK_SKEW_MS from the local clock
+     */
+    public static boolean isFresh(long timeStep, int stepSeconds, long nowMs) {
+        long stepMs = (stepSeconds >= MIN_STEP_SECONDS ? stepSeconds : DEFAULT_STEP_SECONDS) * 1000L;
+        if (timeStep < 0 || timeStep > Long.MAX_VALUE / stepMs - 1) {
+            return false;
+        }
+        long stepStartMs = timeStep * stepMs;
+        return nowMs >= stepStartMs - MAX_CLOCK_SKEW_MS && nowMs < stepStartMs + stepMs + MAX_CLOCK_SKEW_MS;
+    }
+}
@@ -118,11 +118,34 @@ public class ServerLogger {
     private final ApiService apiService;
     private final ScheduledExecutorService executorService;
     private final PreferencesManager preferencesManager;
-    private boolean serverLoggingEnabled = true;
+    private final String deviceInfo; // Constant per install - computed once, not per entry
+    private final String appVersion;
+    private final LoggingConfig loggingConfig;
+    private volatile boolean serverLoggingEnabled;
     private String bguUsername;
     private String userRole;
-    private final java.util.List<LogEntry> pendingLogs = new java.util.ArrayList<>();
+    // Producers (any thread) only touch the lock-free ring buffer; the journal and upload
+    // state are confined to the single executorService thread
+    private final MpscRingBuffer<LogEntry> ringBuffer = new MpscRingBuffer<>(RING_BUFFER_CAPACITY);
+    private final java.util.concurrent.atomic.AtomicBoolean persistScheduled = new java.util.concurrent.atomic.AtomicBoolean();
+    private final java.util.concurrent.atomic.AtomicBoolean sendScheduled = new java.util.concurrent.atomic.AtomicBoolean();
+    private final java.util.concurrent.atomic.AtomicInteger droppedLogs = new java.util.concurrent.atomic.AtomicInteger();
+    private final java.util.List<LogEntry> drainScratch = new java.util.ArrayList<>();
+    private LogJournal journal; // Pending entries on disk, in upload order (null if unavailable)
+    private final java.util.ArrayDeque<LogEntry> memoryPending = new java.util.ArrayDeque<>(); // Used while journal is null
+    private int inFlightCount = 0; // First inFlightCount pending entries are being uploaded
+    private boolean retryScheduled = false;
+    private int lastFailureCode = 0; // HTTP code of the last failed upload, 0 if it got no response
+    private static final int RING_BUFFER_CAPACITY = 512;
+    private static final String JOURNAL_DIR = "log_journal";
+    private static final int METERED_UPLOAD_BATCH = 50;
+    private static final int UNMETERED_UPLOAD_BATCH = 200;
+    private static final int MAX_UPLOAD_BATCH = 500;
+    private static final int METERED_THRESHOLD_FACTOR = 3;
+    private static final long PERSIST_DELAY_MS = 1000;
     private static final int BATCH_SIZE = 10;
+    private volatile int sendThreshold = BATCH_SIZE; // Adapted to network type by updateBatchSizing()
+    private int lastUploadSize = 0;
     private static final long BATCH_TIMEOUT_MS = 30000; // 30 seconds
     private static final int MAX_MESSAGE_LENGTH = 10000;
     private static final int MAX_RETRY_ATTEMPTS = 5;
@@ -130,7 +153,7 @@ public class ServerLogger {
     private static final long MAX_RETRY_DELAY_MS = 60000; // 60s
     private int currentRetryAttempt = 0;
     private final Gson gson = new Gson();
-    private long lastBatchTime = System.currentTimeMillis();
+    private volatile long lastBatchTime = System.currentTimeMillis();
     private ConnectivityManager connectivityManager;
     private ConnectivityManager.NetworkCallback networkCallback;
     private android.content.BroadcastReceiver networkReceiver;
@@ -141,7 +164,11 @@ public class ServerLogger {
         this.apiService = ApiClient.getInstance(context).getApiService();
         this.executorService = Executors.newSingleThreadScheduledExecutor();
         this.preferencesManager = PreferencesManager.getInstance(context);
+        this.loggingConfig = LoggingConfig.getInstance(context);
+        this.serverLoggingEnabled = loggingConfig.isServerLoggingEnabled();
         this.connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        this.deviceInfo = getDeviceInfo();
+        this.appVersion = getAppVersion();
         
         // Get user info for logging context (only once profile completed)
         this.bguUsername = shouldAttachUsername(preferencesManager.getUserName())
@@ -149,8 +176,8 @@ public class ServerLogger {
                 : null;
         this.userRole = preferencesManager.getUserRole();
 
-        // Load any persisted pending logs from previous runs
-        loadPendingLogs();
+        // Open the pending-log journal from previous runs (off the caller's thread)
+        executorService.execute(this::openJournal);
 
         // Register network connectivity listener
         registerNetworkListener();
@@ -196,6 +223,45 @@ public class ServerLogger {
         return value == null ? null : value.trim().toLowerCase(Locale.US);
     }
     
+    /**
+     * Whether a message at this level would be emitted anywhere (server per LoggingConfig,
+     * Logcat for WARN and above, and for everything in debug builds). Check this before
+     * building expensive messages.
+     */
+    public boolean isLoggable(int level) {
+        return isLogcatLoggable(level) || isServerLoggable(level);
+    }
+
+    private static boolean isLogcatLoggable(int level) {
+        return level >= WARN || Logger.isDebugEnabled();
+    }
+
+    private boolean isServerLoggable(int level) {
+        return serverLoggingEnabled && loggingConfig.isLoggable(level);
+    }
+
+    /**
+     * Lazy variants: the supplier only runs if the level is enabled, so call sites can build
+     * JSON / String.format messages without paying for them when the entry is filtered out.
+     */
+    public void d(String tag, java.util.function.Supplier<String> message) {
+        if (isLoggable(DEBUG)) {
+            log(DEBUG, tag, message.get(), null);
+        }
+    }
+
+    public void i(String tag, java.util.function.Supplier<String> message) {
+        if (isLoggable(INFO)) {
+            log(INFO, tag, message.get(), null);
+        }
+    }
+
+    public void w(String tag, java.util.function.Supplier<String> message) {
+        if (isLoggable(WARN)) {
+            log(WARN, tag, message.get(), null);
+        }
+    }
+    
     /**
      * Log verbose message
      */
@@ -242,6 +308,7 @@ public class ServerLogger {
      * Log API call
      */
     public void api(String method, String endpoint, String details) {
+        if (!isLoggable(INFO)) return;
         String message = String.format("API %s %s - %s", method, endpoint, details);
         log(INFO, TAG_API, message, null);
     }
@@ -250,6 +317,7 @@ public class ServerLogger {
      * Log API response
      */
     public void apiResponse(String method, String endpoint, int statusCode, String details) {
+        if (!isLoggable(INFO)) return;
         String message = String.format("API Response %s %s - Status: %d - %s", method, endpoint, statusCode, details);
         log(INFO, TAG_API, message, null);
     }
@@ -260,9 +328,10 @@ public class ServerLogger {
      * 5xx errors (server errors) → ERROR
      */
     public void apiError(String method, String endpoint, int statusCode, String error) {
-        String message = String.format("API Error %s %s - Status: %d - Error: %s", method, endpoint, statusCode, error);
         // 4xx = business/client errors (WARN), 5xx = server errors (ERROR)
         int level = (statusCode >= 500) ? ERROR : WARN;
+        if (!isLoggable(level)) return;
+        String message = String.format("API Error %s %s - Status: %d - Error: %s", method, endpoint, statusCode, error);
         log(level, TAG_API, message, null);
     }
     
@@ -270,6 +339,7 @@ public class ServerLogger {
      * Log user action
      */
     public void userAction(String action, String details) {
+        if (!isLoggable(INFO)) return;
         String message = String.format("User Action: %s - %s", action, details);
         log(INFO, TAG_UI, message, null);
     }
@@ -278,6 +348,7 @@ public class ServerLogger {
      * Log session event
      */
     public void session(String event, String details) {
+        if (!isLoggable(INFO)) return;
         String message = String.format("Session Event: %s - %s", event, details);
         log(INFO, TAG_SESSION, message, null);
     }
@@ -286,6 +357,7 @@ public class ServerLogger {
      * Log QR code event
      */
     public void qr(String event, String details) {
+        if (!isLoggable(INFO)) return;
         String message = String.format("QR Event: %s - %s", event, details);
         log(INFO, TAG_QR, message, null);
     }
@@ -294,6 +366,7 @@ public class ServerLogger {
      * Log attendance event
      */
     public void attendance(String event, String details) {
+        if (!isLoggable(INFO)) return;
         String message = String.format("Attendance Event: %s - %s", event, details);
         log(INFO, TAG_ATTENDANCE, message, null);
     }
@@ -302,6 +375,7 @@ public class ServerLogger {
      * Log security event
      */
     public void security(String event, String details) {
+        if (!isLoggable(WARN)) return;
         String message = String.format("Security Event: %s - %s", event, details);
         log(WARN, TAG_SECURITY, message, null);
     }
@@ -310,6 +384,7 @@ public class ServerLogger {
      * Log performance event
      */
     public void performance(String event, String details) {
+        if (!isLoggable(INFO)) return;
         String message = String.format("Performance Event: %s - %s", event, details);
         log(INFO, TAG_PERFORMANCE, message, null);
     }
@@ -318,6 +393,7 @@ public class ServerLogger {
      * Log preferences change
      */
     public void prefs(String key, String value) {
+        if (!isLoggable(DEBUG)) return;
         String message = String.format("Preference Changed: %s = %s", key, value);
         log(DEBUG, TAG_UI, message, null);
     }
@@ -326,15 +402,14 @@ public class ServerLogger {
      * Core logging method
      */
     private void log(int level, String tag, String message, Throwable throwable) {
-        // Create log entry
-        LogEntry logEntry = createLogEntry(level, tag, message, throwable);
-        
-        // Log to Android system
-        logToAndroid(level, tag, message, throwable);
+        // Log to Android system (warnings and errors even when the server filters them out)
+        if (isLogcatLoggable(level)) {
+            logToAndroid(level, tag, message, throwable);
+        }
         
-        // Send to server if enabled
-        if (serverLoggingEnabled) {
-            sendToServer(logEntry);
+        // Send to server if enabled for this level
+        if (isServerLoggable(level)) {
+            sendToServer(createLogEntry(level, tag, message, throwable));
         }
     }
     
@@ -349,8 +424,8 @@ public class ServerLogger {
         entry.message = truncate(message, MAX_MESSAGE_LENGTH);
         entry.bguUsername = this.bguUsername;
         entry.userRole = this.userRole;
-        entry.deviceInfo = getDeviceInfo();
-        entry.appVersion = getAppVersion();
+        entry.deviceInfo = this.deviceInfo;
+        entry.appVersion = this.appVersion;
         
         if (throwable != null) {
             entry.stackTrace = getStackTrace(throwable);
@@ -384,30 +459,144 @@ public class ServerLogger {
     }
     
     /**
-     * Send log to server (batched)
+     * Send log to server (batched). Never blocks: the entry goes into the ring buffer and the
+     * executor thread picks it up.
      */
     private void sendToServer(LogEntry logEntry) {
-        synchronized (pendingLogs) {
-            pendingLogs.add(logEntry);
-            persistPendingLogs();
-            
-            // Send immediately for errors or when batch is full
-            boolean shouldSend = logEntry.level.equals("ERROR") || 
-                               pendingLogs.size() >= BATCH_SIZE ||
-                               (System.currentTimeMillis() - lastBatchTime) > BATCH_TIMEOUT_MS;
-            
-            if (shouldSend) {
-                sendBatchedLogsToServer();
+        if (!ringBuffer.offer(logEntry)) {
+            handleOverflow(logEntry);
+        }
+
+        // Send immediately for errors or when batch is full, otherwise just persist shortly
+        boolean shouldSend = ERROR == levelOf(logEntry.level) ||
+                           ringBuffer.size() >= sendThreshold ||
+                           (System.currentTimeMillis() - lastBatchTime) > BATCH_TIMEOUT_MS;
+        requestDrain(shouldSend);
+    }
+
+    /**
+     * Ring buffer is full (executor stalled or far behind). Drop by level: WARN/ERROR evict the
+     * oldest buffered entry, lower levels are dropped themselves.
+     */
+    private void handleOverflow(LogEntry logEntry) {
+        if (levelOf(logEntry.level) >= WARN) {
+            for (int i = 0; i < 4; i++) {
+                if (ringBuffer.poll() != null) {
+                    droppedLogs.incrementAndGet();
+                }
+                if (ringBuffer.offer(logEntry)) {
+                    return;
+                }
             }
         }
+        droppedLogs.incrementAndGet();
     }
-    
+
     /**
-     * Send batched logs to server
+     * Wake the executor at most once per pending request
+     */
+    private void requestDrain(boolean send) {
+        try {
+            if (send) {
+                if (sendScheduled.compareAndSet(false, true)) {
+                    executorService.execute(() -> drain(true));
+                }
+            } else if (persistScheduled.compareAndSet(false, true)) {
+                executorService.schedule(() -> drain(false), PERSIST_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            // Logger already shut down - entry stays in memory only
+        }
+    }
+
+    /**
+     * Executor thread: move buffered entries to the journal and upload when due
+     */
+    private void drain(boolean send) {
+        (send ? sendScheduled : persistScheduled).set(false);
+        moveBufferedLogs();
+
+        int waiting = pendingCount() - inFlightCount;
+        boolean due = send || waiting >= sendThreshold
+                || (waiting > 0 && System.currentTimeMillis() - lastBatchTime > BATCH_TIMEOUT_MS);
+        if (due) {
+            sendBatchedLogsToServer();
+        }
+    }
+
+    /**
+     * Append everything in the ring buffer to the journal with a single fsync (or to memory,
+     * capped at RING_BUFFER_CAPACITY, if the journal could not be opened)
+     */
+    private void moveBufferedLogs() {
+        int dropped = droppedLogs.getAndSet(0);
+        if (dropped > 0) {
+            Log.w(TAG_API, "Log buffer full - dropped " + dropped + " entries");
+        }
+        if (ringBuffer.drainTo(drainScratch, Integer.MAX_VALUE) == 0) {
+            return;
+        }
+        try {
+            if (journal == null) {
+                memoryPending.addAll(drainScratch);
+                int overflow = memoryPending.size() - Math.max(RING_BUFFER_CAPACITY, inFlightCount);
+                for (int i = 0; i < overflow; i++) {
+                    memoryPending.pollLast();
+                }
+                if (overflow > 0) {
+                    Log.w(TAG_API, "Log journal unavailable and memory backlog full - dropped " + overflow + " entries");
+                }
+                return;
+            }
+            for (LogEntry entry : drainScratch) {
+                journal.append(entry);
+            }
+            journal.sync();
+        } catch (java.io.IOException e) {
+            Log.w(TAG_API, "Failed to persist pending logs", e);
+        } finally {
+            drainScratch.clear();
+        }
+    }
+
+    private int pendingCount() {
+        return journal != null ? journal.size() : memoryPending.size();
+    }
+
+    private java.util.List<LogEntry> peekPending(int max) throws java.io.IOException {
+        if (journal != null) {
+            return journal.peek(max, LogEntry.class);
+        }
+        java.util.List<LogEntry> entries = new java.util.ArrayList<>(Math.min(max, memoryPending.size()));
+        for (LogEntry entry : memoryPending) {
+            if (entries.size() >= max) {
+                break;
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private void acknowledgePending(int count) throws java.io.IOException {
+        if (journal != null) {
+            journal.acknowledge(count);
+            return;
+        }
+        for (int i = 0; i < count && !memoryPending.isEmpty(); i++) {
+            memoryPending.pollFirst();
+        }
+    }
+
+    /**
+     * Send batched logs to server (executor thread). Entries stay in the journal until the
+     * server acknowledges them, so a failed upload needs no re-insert.
      */
     private void sendBatchedLogsToServer() {
+        if (inFlightCount > 0) {
+            return; // One upload at a time - onBatchResult continues with the rest
+        }
         // Double-check to prevent sending empty requests
-        if (pendingLogs.isEmpty()) {
+        if (pendingCount() == 0) {
             Log.i(TAG_API, "No logs to send, skipping request");
             return;
         }
@@ -415,144 +604,173 @@ public class ServerLogger {
             scheduleRetry();
             return;
         }
-        
-        executorService.execute(() -> {
-            try {
-                // Create a copy of pending logs and clear the original
-                java.util.List<LogEntry> logsToSend;
-                synchronized (pendingLogs) {
-                    logsToSend = new java.util.ArrayList<>(pendingLogs);
-                    pendingLogs.clear();
-                    lastBatchTime = System.currentTimeMillis();
-                    persistPendingLogs();
+
+        try {
+            java.util.List<LogEntry> logsToSend = peekPending(updateBatchSizing());
+            if (logsToSend.isEmpty()) {
+                return;
+            }
+            inFlightCount = logsToSend.size();
+            lastUploadSize = inFlightCount;
+            lastBatchTime = System.currentTimeMillis();
+
+            // Debug logging
+            Log.i(TAG_API, "Sending " + logsToSend.size() + " logs to server");
+
+            // Create API request (per-device fields hoisted into the envelope if the backend supports it)
+            LogRequest request = ConfigManager.getInstance(context).isCompactLogUploadEnabled()
+                    ? LogRequest.hoisted(logsToSend) : new LogRequest(logsToSend);
+
+            // Send to server (no authentication required)
+            Call<LogResponse> call = apiService.sendLogs(request);
+            call.enqueue(new Callback<LogResponse>() {
+                @Override
+                public void onResponse(Call<LogResponse> call, Response<LogResponse> response) {
+                    if (response.isSuccessful()) {
+                        Log.i(TAG_API, "Logs sent successfully: " + logsToSend.size() + " entries");
+                    } else {
+                        Log.w(TAG_API, "Failed to send logs to server: " + response.code());
+                    }
+                    onBatchResult(response.isSuccessful(), response.code());
                 }
-                
-                // Final check to prevent sending empty requests
-                if (logsToSend.isEmpty()) {
-                    Log.i(TAG_API, "No logs to send after processing, skipping request");
+
+                @Override
+                public void onFailure(Call<LogResponse> call, Throwable t) {
+                    String errorMsg = String.format("Failed to send logs to server - Exception: %s, Message: %s",
+                        t.getClass().getSimpleName(), t.getMessage());
+                    Log.w(TAG_API, errorMsg, t);
+                    onBatchResult(false, 0);
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG_API, "Error sending logs to server", e);
+            inFlightCount = 0;
+            scheduleRetry();
+        }
+    }
+
+    /**
+     * Upload finished (callback thread) - hop back to the executor that owns the journal
+     */
+    private void onBatchResult(boolean success, int httpCode) {
+        try {
+            executorService.execute(() -> {
+                int sent = inFlightCount;
+                inFlightCount = 0;
+                if (!success) {
+                    lastFailureCode = httpCode;
+                    scheduleRetry();
                     return;
                 }
-                
-                // Debug logging
-                Log.i(TAG_API, "Sending " + logsToSend.size() + " logs to server");
-                
-                // Create API request
-                LogRequest request = new LogRequest(logsToSend);
-                
-                // Send to server (no authentication required)
-                Log.i(TAG_API, "Sending logs to server (no authentication required)");
-                Call<LogResponse> call = apiService.sendLogs(request);
-                call.enqueue(new Callback<LogResponse>() {
-                    @Override
-                    public void onResponse(Call<LogResponse> call, Response<LogResponse> response) {
-                        if (response.isSuccessful()) {
-                            Log.i(TAG_API, "Logs sent successfully: " + logsToSend.size() + " entries");
-                            currentRetryAttempt = 0; // reset backoff on success
-                        } else {
-                            Log.w(TAG_API, "Failed to send logs to server: " + response.code());
-                            // Re-add logs to pending list for retry
-                            synchronized (pendingLogs) {
-                                pendingLogs.addAll(0, logsToSend);
-                                persistPendingLogs();
-                            }
-                            scheduleRetry();
-                        }
-                    }
-                    
-                    @Override
-                    public void onFailure(Call<LogResponse> call, Throwable t) {
-                        // Log the network error itself (this will be queued if network is down)
-                        String errorMsg = String.format("Failed to send logs to server - Exception: %s, Message: %s",
-                            t.getClass().getSimpleName(), t.getMessage());
-                        Log.w(TAG_API, errorMsg, t);
-                        
-                        // Re-add logs to pending list for retry
-                        synchronized (pendingLogs) {
-                            pendingLogs.addAll(0, logsToSend);
-                            persistPendingLogs();
-                        }
-                        scheduleRetry();
-                    }
-                });
-            } catch (Exception e) {
-                Log.e(TAG_API, "Error sending logs to server", e);
-                scheduleRetry();
-            }
-        });
+                currentRetryAttempt = 0; // reset backoff on success
+                try {
+                    acknowledgePending(sent);
+                } catch (java.io.IOException e) {
+                    Log.w(TAG_API, "Failed to acknowledge uploaded logs", e);
+                }
+                if (pendingCount() > 0) {
+                    sendBatchedLogsToServer(); // Work through an offline backlog
+                }
+            });
+        } catch (java.util.concurrent.RejectedExecutionException e) {
+            // Shut down while the upload was running
+        }
     }
-    
+
     /**
      * Force send all pending logs
      */
     public void flushLogs() {
-        synchronized (pendingLogs) {
-            if (!pendingLogs.isEmpty()) {
-                sendBatchedLogsToServer();
-            }
-        }
+        requestDrain(true);
     }
 
     /**
-     * Exponential backoff scheduler for retries
+     * Exponential backoff scheduler for retries (executor thread)
      */
     private void scheduleRetry() {
-        if (pendingLogs.isEmpty()) return;
+        if (pendingCount() == 0 || retryScheduled) return;
         if (currentRetryAttempt >= MAX_RETRY_ATTEMPTS) {
-            Log.w(TAG_API, "Max retry attempts reached. Dropping " + pendingLogs.size() + " pending logs.");
-            synchronized (pendingLogs) {
-                pendingLogs.clear();
-                persistPendingLogs();
-            }
             currentRetryAttempt = 0;
+            if (lastFailureCode >= 400 && lastFailureCode < 500 && lastFailureCode != 408 && lastFailureCode != 429) {
+                // Server keeps rejecting this batch - drop it so it can't block the journal
+                int rejected = Math.max(1, lastUploadSize);
+                Log.w(TAG_API, "Max retry attempts reached (HTTP " + lastFailureCode + "). Dropping the oldest "
+                        + rejected + " pending logs.");
+                try {
+                    acknowledgePending(rejected);
+                } catch (java.io.IOException e) {
+                    Log.w(TAG_API, "Failed to drop rejected logs", e);
+                }
+            } else {
+                // Offline or server trouble: keep the backlog and wait for the network callback / next flush
+                Log.w(TAG_API, "Max retry attempts reached. Keeping " + pendingCount() + " logs for the next flush.");
+            }
             return;
         }
 
         long delay = (long) Math.min(MAX_RETRY_DELAY_MS, BASE_RETRY_DELAY_MS * Math.pow(2, currentRetryAttempt));
         currentRetryAttempt++;
+        retryScheduled = true;
         Log.i(TAG_API, "Scheduling retry attempt " + currentRetryAttempt + " in " + delay + "ms");
         executorService.schedule(() -> {
-            synchronized (pendingLogs) {
-                if (!pendingLogs.isEmpty()) {
-                    sendBatchedLogsToServer();
-                }
-            }
+            retryScheduled = false;
+            moveBufferedLogs();
+            sendBatchedLogsToServer();
         }, delay, TimeUnit.MILLISECONDS);
     }
 
     /**
-     * Persist pending logs to local storage for offline durability
+     * Open the on-disk journal and migrate any backlog left in SharedPreferences by older
+     * versions (executor thread)
      */
-    private void persistPendingLogs() {
+    private void openJournal() {
         try {
-            String json = gson.toJson(pendingLogs);
-            context.getSharedPreferences("semscan_logs", Context.MODE_PRIVATE)
-                    .edit()
-                    .putString("pending_logs", json)
-                    .apply();
-        } catch (Exception e) {
-            Log.w(TAG_API, "Failed to persist pending logs", e);
+            LogJournal opened = new LogJournal(new java.io.File(context.getFilesDir(), JOURNAL_DIR), gson);
+            opened.open();
+            journal = opened;
+        } catch (java.io.IOException e) {
+            Log.w(TAG_API, "Failed to open log journal", e);
+            return;
         }
-    }
 
-    /**
-     * Load pending logs from local storage
-     */
-    private void loadPendingLogs() {
+        android.content.SharedPreferences prefs = context.getSharedPreferences("semscan_logs", Context.MODE_PRIVATE);
+        String json = prefs.getString("pending_logs", null);
+        if (json == null) {
+            return;
+        }
         try {
-            String json = context.getSharedPreferences("semscan_logs", Context.MODE_PRIVATE)
-                    .getString("pending_logs", null);
-            if (json != null && !json.isEmpty()) {
+            if (!json.isEmpty()) {
                 java.lang.reflect.Type listType = new TypeToken<java.util.List<LogEntry>>() {}.getType();
                 java.util.List<LogEntry> restored = gson.fromJson(json, listType);
-                if (restored != null && !restored.isEmpty()) {
-                    synchronized (pendingLogs) {
-                        pendingLogs.addAll(restored);
+                if (restored != null) {
+                    for (LogEntry entry : restored) {
+                        journal.append(entry);
                     }
+                    journal.sync();
                 }
             }
         } catch (Exception e) {
-            Log.w(TAG_API, "Failed to load persisted pending logs", e);
+            Log.w(TAG_API, "Failed to migrate persisted pending logs", e);
+        }
+        prefs.edit().remove("pending_logs").apply();
+    }
+
+    /**
+     * Adapt batching to the current network (executor thread). Metered networks collect more
+     * entries per radio wake-up and send smaller requests; unmetered networks send larger ones.
+     * A growing backlog doubles the upload size so an offline device catches up in fewer calls.
+     * @return number of entries to put in the next upload
+     */
+    private int updateBatchSizing() {
+        boolean metered = connectivityManager == null || connectivityManager.isActiveNetworkMetered();
+        int base = Math.max(1, LoggingConfig.getInstance(context).getBatchSize());
+        sendThreshold = metered ? base * METERED_THRESHOLD_FACTOR : base;
+
+        int uploadSize = metered ? METERED_UPLOAD_BATCH : UNMETERED_UPLOAD_BATCH;
+        if (pendingCount() > uploadSize * 4) {
+            uploadSize = Math.min(MAX_UPLOAD_BATCH, uploadSize * 2);
         }
+        return uploadSize;
     }
 
     /**
@@ -596,6 +814,20 @@ public class ServerLogger {
         }
     }
     
+    /**
+     * Inverse of getLevelString (entries restored from disk only carry the string)
+     */
+    private static int levelOf(String level) {
+        if (level == null) return INFO;
+        switch (level) {
+            case "VERBOSE": return VERBOSE;
+            case "DEBUG": return DEBUG;
+            case "WARN": return WARN;
+            case "ERROR": return ERROR;
+            default: return INFO;
+        }
+    }
+    
     /**
      * Get device information
      */
@@ -660,6 +892,16 @@ public class ServerLogger {
             this.appVersion = appVersion;
         }
         
+        /**
+         * Field-by-field copy, so a request can be shaped without touching the queued entry
+         */
+        LogEntry copy() {
+            LogEntry copy = new LogEntry(timestamp, level, tag, message, bguUsername, userRole, deviceInfo, appVersion);
+            copy.stackTrace = stackTrace;
+            copy.exceptionType = exceptionType;
+            return copy;
+        }
+
         // Getters and setters for JSON serialization
         public Long getTimestamp() { return timestamp; }
         public void setTimestamp(Long timestamp) { this.timestamp = timestamp; }
@@ -697,12 +939,54 @@ public class ServerLogger {
      */
     public static class LogRequest {
         public java.util.List<LogEntry> logs;
+
+        // Batch envelope: defaults for entries that omit these fields
+        public String deviceInfo;
+        public String appVersion;
+        public String bguUsername;
+        public String userRole;
         
         public LogRequest() {}
         
         public LogRequest(java.util.List<LogEntry> logs) {
             this.logs = logs;
         }
+
+        /**
+         * Build a request that hoists fields shared by every entry (device, app version, user,
+         * role) into the envelope and clears them on copies of the entries (Gson skips nulls).
+         * A field that differs between entries - e.g. logs from before login - stays per entry.
+         * The given entries are never modified: a failed batch is retried from them, possibly
+         * together with newer entries whose fields differ.
+         */
+        public static LogRequest hoisted(java.util.List<LogEntry> logs) {
+            if (logs.isEmpty()) {
+                return new LogRequest(logs);
+            }
+            LogEntry first = logs.get(0);
+            boolean sameDevice = true, sameVersion = true, sameUser = true, sameRole = true;
+            for (LogEntry entry : logs) {
+                sameDevice &= java.util.Objects.equals(entry.deviceInfo, first.deviceInfo);
+                sameVersion &= java.util.Objects.equals(entry.appVersion, first.appVersion);
+                sameUser &= java.util.Objects.equals(entry.bguUsername, first.bguUsername);
+                sameRole &= java.util.Objects.equals(entry.userRole, first.userRole);
+            }
+            java.util.List<LogEntry> copies = new java.util.ArrayList<>(logs.size());
+            for (LogEntry entry : logs) {
+                LogEntry copy = entry.copy();
+                if (sameDevice) copy.deviceInfo = null;
+                if (sameVersion) copy.appVersion = null;
+                if (sameUser) copy.bguUsername = null;
+                if (sameRole) copy.userRole = null;
+                copies.add(copy);
+            }
+            LogRequest request = new LogRequest(copies);
+            if (sameDevice) request.deviceInfo = first.deviceInfo;
+            if (sameVersion) request.appVersion = first.appVersion;
+            if (sameUser) request.bguUsername = first.bguUsername;
+            if (sameRole) request.userRole = first.userRole;
+            return request;
+        }
         
         public java.util.List<LogEntry> getLogs() { return logs; }
         public void setLogs(java.util.List<LogEntry> logs) { this.logs = logs; }
@@ -724,13 +1008,7 @@ public class ServerLogger {
                     @Override
                     public void onAvailable(android.net.Network network) {
                         Log.i(TAG_API, "Network available - attempting to send queued logs");
-                        executorService.execute(() -> {
-                            synchronized (pendingLogs) {
-                                if (!pendingLogs.isEmpty()) {
-                                    flushLogs();
-                                }
-                            }
-                        });
+                        flushLogs();
                     }
                     
                     @Override
@@ -752,13 +1030,7 @@ public class ServerLogger {
                     public void onReceive(Context context, Intent intent) {
                         if (isNetworkAvailable()) {
                             Log.i(TAG_API, "Network available (broadcast) - attempting to send queued logs");
-                            executorService.execute(() -> {
-                                synchronized (pendingLogs) {
-                                    if (!pendingLogs.isEmpty()) {
-                                        flushLogs();
-                                    }
-                                }
-                            });
+                            flushLogs();
                         }
                     }
                 };
@@ -786,11 +1058,13 @@ public class ServerLogger {
 
         // First, try to flush any pending logs
         try {
-            synchronized (pendingLogs) {
-                if (!pendingLogs.isEmpty()) {
-                    persistPendingLogs(); // Save to disk in case we can't send
+            // Save to disk in case we can't send; runs before the executor drains and stops
+            executorService.execute(() -> {
+                moveBufferedLogs();
+                if (journal != null) {
+                    journal.close();
                 }
-            }
+            });
         } catch (Exception e) {
             Log.w(TAG_API, "Failed to flush logs during shutdown", e);
         }
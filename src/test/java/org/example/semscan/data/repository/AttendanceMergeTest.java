@@ -0,0 +1,116 @@
+package org.example.semscan.data.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.Gson;
+
+import org.example.semscan.data.model.Attendance;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class AttendanceMergeTest {
+
+    private final Gson gson = new Gson();
+
+    @Test
+    public void fullFetchInsertsUpdatesAndDeletes() {
+        Attendance kept = record(1L, "2025-01-10T10:00:00");
+        Attendance changed = record(2L, "2025-01-11T10:00:00");
+        Map<Long, AttendanceMerge.StoredRow> stored = new HashMap<>();
+        stored.put(1L, stored(kept));
+        stored.put(2L, stored(changed));
+        stored.put(3L, stored(record(3L, "2025-01-12T10:00:00")));
+
+        Attendance changedNow = record(2L, "2025-01-11T10:00:00");
+        changedNow.setRequestStatus("confirmed");
+        Attendance added = record(4L, "2025-01-13T10:00:00");
+
+        AttendanceMerge merge = AttendanceMerge.plan(stored, Arrays.asList(kept, changedNow, added), null, gson);
+
+        assertTrue(merge.fullList);
+        assertEquals(Collections.singletonList(added), merge.inserts);
+        assertEquals(Collections.singletonList(changedNow), merge.updates);
+        assertEquals(Collections.singletonList(3L), merge.deletes);
+    }
+
+    @Test
+    public void windowDeletesOnlyRowsInsideTheWindow() {
+        long since = AttendanceMerge.parseTime("2025-01-10T00:00:00");
+        Map<Long, AttendanceMerge.StoredRow> stored = new HashMap<>();
+        stored.put(1L, stored(record(1L, "2025-01-01T10:00:00"))); // before the window, not returned
+        stored.put(2L, stored(record(2L, "2025-01-12T10:00:00"))); // in the window, gone on the server
+        Attendance recent = record(3L, "2025-01-13T10:00:00");
+        stored.put(3L, stored(recent));
+
+        AttendanceMerge merge = AttendanceMerge.plan(stored, Collections.singletonList(recent), since, gson);
+
+        assertFalse(merge.fullList);
+        assertTrue(merge.inserts.isEmpty());
+        assertTrue(merge.updates.isEmpty());
+        assertEquals(Collections.singletonList(2L), merge.deletes);
+    }
+
+    @Test
+    public void lateRecordWithOlderTimeInsideWindowIsInserted() {
+        // An outbox replay or late approval lands behind the newest stored record
+        long since = AttendanceMerge.parseTime("2025-01-06T10:00:00");
+        Attendance newest = record(5L, "2025-01-13T10:00:00");
+        Map<Long, AttendanceMerge.StoredRow> stored = new HashMap<>();
+        stored.put(5L, stored(newest));
+        Attendance late = record(6L, "2025-01-12T09:00:00");
+
+        AttendanceMerge merge = AttendanceMerge.plan(stored, Arrays.asList(late, newest), since, gson);
+
+        assertFalse(merge.fullList);
+        assertEquals(Collections.singletonList(late), merge.inserts);
+        assertTrue(merge.deletes.isEmpty());
+    }
+
+    @Test
+    public void recordsOlderThanWindowMeanServerIgnoredFilter() {
+        long since = AttendanceMerge.parseTime("2025-01-10T00:00:00");
+        Attendance old = record(1L, "2025-01-01T10:00:00");
+        Map<Long, AttendanceMerge.StoredRow> stored = new HashMap<>();
+        stored.put(1L, stored(old));
+        stored.put(2L, stored(record(2L, "2025-01-02T10:00:00")));
+
+        AttendanceMerge merge = AttendanceMerge.plan(stored, Collections.singletonList(old), since, gson);
+
+        assertTrue(merge.fullList);
+        assertEquals(Collections.singletonList(2L), merge.deletes);
+    }
+
+    @Test
+    public void duplicateAndIdlessRecordsAreSkipped() {
+        Attendance record = record(1L, "2025-01-10T10:00:00");
+        List<Attendance> records = Arrays.asList(record, record(1L, "2025-01-10T10:00:00"),
+                record(null, "2025-01-10T11:00:00"), null);
+
+        AttendanceMerge merge = AttendanceMerge.plan(new HashMap<>(), records, null, gson);
+
+        assertEquals(Collections.singletonList(record), merge.inserts);
+    }
+
+    @Test
+    public void timeRoundTripsIndependentOfDeviceZone() {
+        String time = "2025-03-30T02:30:00"; // Inside a DST gap in several zones
+        assertEquals(time, AttendanceMerge.formatTime(AttendanceMerge.parseTime(time)));
+        assertEquals(0, AttendanceMerge.parseTime("not a time"));
+        assertEquals(0, AttendanceMerge.parseTime(null));
+    }
+
+    private AttendanceMerge.StoredRow stored(Attendance record) {
+        return new AttendanceMerge.StoredRow(AttendanceMerge.parseTime(record.getAttendanceTime()), gson.toJson(record));
+    }
+
+    private static Attendance record(Long attendanceId, String attendanceTime) {
+        return new Attendance(attendanceId, 100L, "student", attendanceTime, "QR_SCAN");
+    }
+}
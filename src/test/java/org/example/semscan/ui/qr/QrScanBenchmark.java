@@ -0,0 +1,410 @@
+package org.example.semscan.ui.qr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import android.graphics.ImageFormat;
+import android.graphics.Rect;
+
+import androidx.camera.core.ImageInfo;
+import androidx.camera.core.ImageProxy;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+import org.example.semscan.data.model.QRPayload;
+import org.example.semscan.utils.QRUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Offline benchmark for the scanner pipeline on recorded camera frames.
+ *
+ * Each frame goes through the production code: the frame is wrapped in an ImageProxy and handed
+ * to QrDecoder.decode, whose QrFrameCropper picks the region (toSensorRect, with its
+ * every-FULL_FRAME_INTERVAL full frame), then QRUtils.parseQRContent. The decoder comes from a
+ * DecoderFactory, so any QrDecoder can be measured; the report lists success rate, decode latency
+ * percentiles and bytes allocated per frame (on the calling thread), per category and overall.
+ *
+ * On the JVM only ZXing runs. ML Kit's detector is native Play services code that Robolectric
+ * cannot load, and MlKitQrDecoder needs a real android.media.Image (ImageProxy.getImage()), so
+ * the ML Kit path has to be measured as an instrumented test on a device (src/androidTest) with
+ * camera frames and a factory like cropper -> new MlKitQrDecoder(scanner, cropper, executor, warmup).
+ *
+ * Frames: raw YUV files (.yuv, .nv21 or .y - only the leading Y plane is read) named
+ * "<anything>_<width>x<height>.<ext>". The sub-directory is the category, e.g.
+ * frames/near/..., frames/far/..., frames/blur/..., frames/glare/...
+ *
+ * The benchmark only runs when QR_BENCHMARK_FRAMES points at a frames directory:
+ *   QR_BENCHMARK_FRAMES=/path/to/frames ./gradlew testDebugUnitTest --tests '*QrScanBenchmark*' -i
+ * Optional: QR_BENCHMARK_REPEAT, QR_BENCHMARK_WARMUP, QR_BENCHMARK_SCAN_FRAME (scan frame as a
+ * fraction of the shorter side, 0 = no scan frame), QR_BENCHMARK_ROTATION, QR_BENCHMARK_EXPECT
+ * (session ID that counts as success).
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class QrScanBenchmark {
+
+    private static final Pattern SIZE_PATTERN = Pattern.compile("_(\\d+)x(\\d+)\\.(yuv|nv21|y)$");
+    private static final String ALL = "ALL";
+    private static final long DECODE_TIMEOUT_MS = 5000;
+
+    /**
+     * Creates the decoder under test; it must pick its regions through the given cropper
+     */
+    interface DecoderFactory {
+        QrDecoder create(QrFrameCropper cropper);
+    }
+
+    static final DecoderFactory ZXING = ZxingQrDecoder::new;
+
+    /**
+     * One recorded frame (Y plane)
+     */
+    private static class Frame {
+        final String category;
+        final byte[] luminance;
+        final int width;
+        final int height;
+
+        Frame(String category, byte[] luminance, int width, int height) {
+            this.category = category;
+            this.luminance = luminance;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    @Test
+    public void decodesGeneratedFrameThroughCropPath() throws Exception {
+        // A 640x480 frame with a session QR in the middle, scan frame covering it
+        Frame frame = generatedFrame("{\"sessionId\":42}", 640, 480, 200);
+
+        assertEquals(1, countSuccesses(Collections.singletonList(frame), ZXING, 0.6f, 0, 42L));
+    }
+
+    @Test
+    public void benchmarkRecordedFrames() throws IOException {
+        String dir = System.getenv("QR_BENCHMARK_FRAMES");
+        assumeTrue("QR_BENCHMARK_FRAMES not set", dir != null && !dir.isEmpty());
+
+        List<Frame> frames = loadFrames(new File(dir));
+        assumeTrue("No frames found under " + dir, !frames.isEmpty());
+        System.out.println(run(frames, ZXING, intEnv("QR_BENCHMARK_REPEAT", 5), intEnv("QR_BENCHMARK_WARMUP", 2),
+                Float.parseFloat(env("QR_BENCHMARK_SCAN_FRAME", "0")), intEnv("QR_BENCHMARK_ROTATION", 0),
+                Long.parseLong(env("QR_BENCHMARK_EXPECT", String.valueOf(QRUtils.NO_SESSION_ID)))));
+    }
+
+    /**
+     * Run the pipeline over every frame and return a text report
+     * @param scanFrame centered square scan frame as a fraction of the shorter side (0 = none, full frames)
+     * @param expectedSessionId count only this session ID as success (NO_SESSION_ID = any valid payload)
+     */
+    private static String run(List<Frame> frames, DecoderFactory factory, int repeat, int warmup, float scanFrame,
+                              int rotation, long expectedSessionId) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        stats.put(ALL, new Stats());
+        QrFrameCropper cropper = new QrFrameCropper();
+        QrDecoder decoder = factory.create(cropper);
+        List<ImageProxy> images = frameImages(frames, rotation);
+        Result result = new Result();
+
+        try {
+            for (int pass = 0; pass < warmup + repeat; pass++) {
+                boolean measured = pass >= warmup;
+                for (int i = 0; i < frames.size(); i++) {
+                    Frame frame = frames.get(i);
+                    setScanFrame(cropper, frame, scanFrame, rotation);
+
+                    long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+                    long start = System.nanoTime();
+                    boolean success = decodeFrame(decoder, images.get(i), result, expectedSessionId);
+                    long elapsedNanos = System.nanoTime() - start;
+                    long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+                    if (measured) {
+                        stats.get(ALL).add(elapsedNanos, allocated, success);
+                        stats.computeIfAbsent(frame.category, category -> new Stats()).add(elapsedNanos, allocated, success);
+                    }
+                }
+            }
+        } finally {
+            decoder.close();
+        }
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.US, "Decoder: %s, frames: %d, repeat: %d, warmup: %d, scan frame: %s, rotation: %d%n",
+                decoder.name(), frames.size(), repeat, warmup, scanFrame > 0 ? String.valueOf(scanFrame) : "off", rotation));
+        report.append(String.format(Locale.US, "%-12s %7s %8s %8s %8s %8s %8s %12s%n",
+                "category", "frames", "success", "p50ms", "p90ms", "p99ms", "maxms", "alloc/frame"));
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            if (!entry.getKey().equals(ALL)) {
+                report.append(entry.getValue().format(entry.getKey()));
+            }
+        }
+        report.append(stats.get(ALL).format(ALL));
+        return report.toString();
+    }
+
+    private static int countSuccesses(List<Frame> frames, DecoderFactory factory, float scanFrame, int rotation,
+                                      long expectedSessionId) {
+        QrFrameCropper cropper = new QrFrameCropper();
+        QrDecoder decoder = factory.create(cropper);
+        List<ImageProxy> images = frameImages(frames, rotation);
+        Result result = new Result();
+        int successes = 0;
+        try {
+            for (int i = 0; i < frames.size(); i++) {
+                setScanFrame(cropper, frames.get(i), scanFrame, rotation);
+                if (decodeFrame(decoder, images.get(i), result, expectedSessionId)) {
+                    successes++;
+                }
+            }
+        } finally {
+            decoder.close();
+        }
+        return successes;
+    }
+
+    /**
+     * Decode one frame the way the analyzer does (waiting for an asynchronous callback), then parse
+     */
+    private static boolean decodeFrame(QrDecoder decoder, ImageProxy image, Result result, long expectedSessionId) {
+        try {
+            result.reset();
+            decoder.decode(image, result);
+            String text = result.await();
+            QRPayload payload = text != null ? QRUtils.parseQRContent(text) : null;
+            Long sessionId = payload != null ? payload.getSessionId() : null;
+            return sessionId != null
+                    && (expectedSessionId == QRUtils.NO_SESSION_ID || sessionId == expectedSessionId);
+        } catch (RuntimeException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Callback reused for every frame, so waiting for the result allocates nothing
+     */
+    private static final class Result implements QrDecoder.Callback {
+        private String text;
+        private boolean done;
+
+        synchronized void reset() {
+            text = null;
+            done = false;
+        }
+
+        @Override
+        public synchronized void onComplete(String text, Exception error) {
+            this.text = text;
+            done = true;
+            notifyAll();
+        }
+
+        /**
+         * @return the decoded text, or null if none (or the decoder did not answer in time)
+         */
+        synchronized String await() throws InterruptedException {
+            long deadline = System.currentTimeMillis() + DECODE_TIMEOUT_MS;
+            while (!done) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return null;
+                }
+                wait(remaining);
+            }
+            return text;
+        }
+    }
+
+    private static List<ImageProxy> frameImages(List<Frame> frames, int rotation) {
+        List<ImageProxy> images = new ArrayList<>(frames.size());
+        for (Frame frame : frames) {
+            images.add(frameImage(frame, rotation));
+        }
+        return images;
+    }
+
+    /**
+     * A YUV_420_888 ImageProxy over the recorded Y plane. Only what the decoders read from a
+     * frame is answered; anything else (getImage(), ...) throws.
+     */
+    private static ImageProxy frameImage(Frame frame, int rotation) {
+        ByteBuffer yPlane = ByteBuffer.wrap(frame.luminance);
+
+        Map<String, Object> plane = new HashMap<>();
+        plane.put("getBuffer", yPlane);
+        plane.put("getRowStride", frame.width);
+        plane.put("getPixelStride", 1);
+
+        Map<String, Object> info = new HashMap<>();
+        info.put("getRotationDegrees", rotation);
+        info.put("getTimestamp", 0L);
+
+        Map<String, Object> image = new HashMap<>();
+        image.put("getFormat", ImageFormat.YUV_420_888);
+        image.put("getWidth", frame.width);
+        image.put("getHeight", frame.height);
+        image.put("getPlanes", new ImageProxy.PlaneProxy[]{fake(ImageProxy.PlaneProxy.class, plane)});
+        image.put("getImageInfo", fake(ImageInfo.class, info));
+        image.put("getCropRect", new Rect(0, 0, frame.width, frame.height));
+        image.put("close", null);
+        return fake(ImageProxy.class, image);
+    }
+
+    private static <T> T fake(Class<T> type, Map<String, Object> answers) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return self == args[0];
+                case "hashCode":
+                    return System.identityHashCode(self);
+                case "toString":
+                    return "Fake" + type.getSimpleName();
+                default:
+                    if (!answers.containsKey(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName() + " is not available on recorded frames");
+                    }
+                    return answers.get(method.getName());
+            }
+        });
+        return type.cast(proxy);
+    }
+
+    /**
+     * A preview exactly covering the upright frame, with a centered square scan frame
+     */
+    private static void setScanFrame(QrFrameCropper cropper, Frame frame, float scanFrame, int rotation) {
+        boolean swap = rotation == 90 || rotation == 270;
+        int viewWidth = swap ? frame.height : frame.width;
+        int viewHeight = swap ? frame.width : frame.height;
+        if (scanFrame <= 0) {
+            cropper.setScanRegion(null, viewWidth, viewHeight);
+            return;
+        }
+        int size = (int) (Math.min(viewWidth, viewHeight) * Math.min(1f, scanFrame));
+        int left = (viewWidth - size) / 2;
+        int top = (viewHeight - size) / 2;
+        cropper.setScanRegion(new Rect(left, top, left + size, top + size), viewWidth, viewHeight);
+    }
+
+    private static Frame generatedFrame(String content, int width, int height, int qrSize) throws Exception {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.MARGIN, 2);
+        BitMatrix matrix = new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, qrSize, qrSize, hints);
+        byte[] luminance = new byte[width * height];
+        Arrays.fill(luminance, (byte) 200);
+        int left = (width - qrSize) / 2;
+        int top = (height - qrSize) / 2;
+        for (int y = 0; y < qrSize; y++) {
+            for (int x = 0; x < qrSize; x++) {
+                luminance[(top + y) * width + left + x] = matrix.get(x, y) ? (byte) 20 : (byte) 230;
+            }
+        }
+        return new Frame("generated", luminance, width, height);
+    }
+
+    /**
+     * Load every *_WxH.yuv|nv21|y file below root; the parent directory name is the category
+     */
+    private static List<Frame> loadFrames(File root) throws IOException {
+        List<Frame> frames = new ArrayList<>();
+        collect(root, root, frames);
+        return frames;
+    }
+
+    private static void collect(File root, File dir, List<Frame> out) throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            if (file.isDirectory()) {
+                collect(root, file, out);
+                continue;
+            }
+            Matcher matcher = SIZE_PATTERN.matcher(file.getName());
+            if (!matcher.find()) {
+                continue;
+            }
+            int width = Integer.parseInt(matcher.group(1));
+            int height = Integer.parseInt(matcher.group(2));
+            byte[] data = Files.readAllBytes(file.toPath());
+            if (data.length < width * height) {
+                continue; // Truncated recording
+            }
+            String category = dir.equals(root) ? "default" : dir.getName();
+            out.add(new Frame(category, data, width, height));
+        }
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : fallback;
+    }
+
+    private static int intEnv(String name, int fallback) {
+        return Integer.parseInt(env(name, String.valueOf(fallback)));
+    }
+
+    private static class Stats {
+        private final List<Long> latencies = new ArrayList<>();
+        private long allocatedBytes;
+        private int successes;
+
+        void add(long nanos, long allocated, boolean success) {
+            latencies.add(nanos);
+            allocatedBytes += allocated;
+            if (success) {
+                successes++;
+            }
+        }
+
+        String format(String label) {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            int count = sorted.size();
+            return String.format(Locale.US, "%-12s %7d %7.1f%% %8.2f %8.2f %8.2f %8.2f %12s%n",
+                    label, count, count == 0 ? 0 : 100.0 * successes / count,
+                    percentileMs(sorted, 50), percentileMs(sorted, 90), percentileMs(sorted, 99),
+                    percentileMs(sorted, 100), count > 0 ? String.valueOf(allocatedBytes / count) : "n/a");
+        }
+
+        private static double percentileMs(List<Long> sorted, int percentile) {
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+            return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1))) / 1_000_000.0;
+        }
+    }
+}
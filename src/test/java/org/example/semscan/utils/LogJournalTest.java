@@ -0,0 +1,164 @@
+package org.example.semscan.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.Gson;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class LogJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Gson gson = new Gson();
+    private File dir;
+
+    static class Entry {
+        int n;
+        String message;
+
+        Entry(int n, String message) {
+            this.n = n;
+            this.message = message;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        dir = new File(folder.getRoot(), "journal");
+    }
+
+    @Test
+    public void peekDoesNotConsumeAndAcknowledgeDoes() throws IOException {
+        LogJournal journal = open();
+        append(journal, 0, 5);
+
+        assertEquals(5, journal.size());
+        assertEquals(Arrays.asList(0, 1, 2), numbers(journal.peek(3, Entry.class)));
+        assertEquals(Arrays.asList(0, 1, 2), numbers(journal.peek(3, Entry.class)));
+
+        journal.acknowledge(2);
+
+        assertEquals(3, journal.size());
+        assertEquals(Arrays.asList(2, 3, 4), numbers(journal.peek(10, Entry.class)));
+    }
+
+    @Test
+    public void reopenKeepsUnacknowledgedRecords() throws IOException {
+        LogJournal journal = open();
+        append(journal, 0, 4);
+        journal.sync();
+        journal.peek(3, Entry.class);
+        journal.acknowledge(3);
+        journal.close();
+
+        LogJournal reopened = open();
+
+        assertEquals(1, reopened.size());
+        assertEquals(Arrays.asList(3), numbers(reopened.peek(10, Entry.class)));
+    }
+
+    @Test
+    public void tornTailIsTruncatedOnOpen() throws IOException {
+        LogJournal journal = open();
+        append(journal, 0, 2);
+        journal.close();
+        try (FileOutputStream out = new FileOutputStream(new File(dir, "segment-0.log"), true)) {
+            out.write(new byte[]{0, 0, 0, 50, 1, 2, 3}); // Header of a record that never got written
+        }
+
+        LogJournal reopened = open();
+        append(reopened, 2, 1);
+
+        assertEquals(3, reopened.size());
+        assertEquals(Arrays.asList(0, 1, 2), numbers(reopened.peek(10, Entry.class)));
+    }
+
+    @Test
+    public void acknowledgedSegmentsAreDeleted() throws IOException {
+        LogJournal journal = open();
+        String large = repeat('x', 100_000); // Two records per 256 KB segment
+        for (int i = 0; i < 6; i++) {
+            journal.append(new Entry(i, large));
+        }
+        assertEquals(3, segmentFiles().length);
+
+        journal.peek(6, Entry.class);
+        journal.acknowledge(6);
+
+        assertEquals(0, journal.size());
+        assertEquals(1, segmentFiles().length); // Only the active segment is left
+    }
+
+    @Test
+    public void oldestSegmentsAreDroppedOverTheLimit() throws IOException {
+        LogJournal journal = open();
+        String large = repeat('x', 100_000);
+        for (int i = 0; i < 40; i++) {
+            journal.append(new Entry(i, large));
+        }
+
+        // 20 segments of two records, capped at 16: records 0-7 are gone
+        assertEquals(16, segmentFiles().length);
+        assertEquals(32, journal.size());
+        assertEquals(8, journal.peek(1, Entry.class).get(0).n);
+    }
+
+    @Test
+    public void clearDropsEverything() throws IOException {
+        LogJournal journal = open();
+        append(journal, 0, 3);
+
+        journal.clear();
+
+        assertEquals(0, journal.size());
+        assertTrue(journal.peek(10, Entry.class).isEmpty());
+        assertEquals(0, open().size());
+    }
+
+    private LogJournal open() throws IOException {
+        LogJournal journal = new LogJournal(dir, gson);
+        journal.open();
+        return journal;
+    }
+
+    private static void append(LogJournal journal, int first, int count) throws IOException {
+        for (int i = first; i < first + count; i++) {
+            journal.append(new Entry(i, "message " + i));
+        }
+    }
+
+    private static List<Integer> numbers(List<Entry> entries) {
+        Integer[] result = new Integer[entries.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = entries.get(i).n;
+        }
+        return Arrays.asList(result);
+    }
+
+    private File[] segmentFiles() {
+        return dir.listFiles((parent, name) -> name.startsWith("segment-"));
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.semscan.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class MpscRingBufferTest {
+
+    @Test
+    public void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(2, new MpscRingBuffer<Integer>(1).capacity());
+        assertEquals(8, new MpscRingBuffer<Integer>(5).capacity());
+        assertEquals(8, new MpscRingBuffer<Integer>(8).capacity());
+    }
+
+    @Test
+    public void pollReturnsElementsInOfferOrder() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        assertTrue(buffer.isEmpty());
+        assertNull(buffer.poll());
+
+        buffer.offer(1);
+        buffer.offer(2);
+        buffer.offer(3);
+
+        assertEquals(3, buffer.size());
+        assertEquals(Integer.valueOf(1), buffer.poll());
+        assertEquals(Integer.valueOf(2), buffer.poll());
+        assertEquals(Integer.valueOf(3), buffer.poll());
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void offerFailsWhenFullAndSucceedsAfterPoll() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        assertFalse(buffer.offer(4));
+        assertEquals(Integer.valueOf(0), buffer.poll());
+        assertTrue(buffer.offer(4));
+        assertEquals(4, buffer.size());
+    }
+
+    @Test
+    public void wrapsAroundOverManyLaps() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(buffer.offer(i));
+            assertTrue(buffer.offer(-i));
+            assertEquals(Integer.valueOf(i), buffer.poll());
+            assertEquals(Integer.valueOf(-i), buffer.poll());
+        }
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void drainToStopsAtMaxElements() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(8);
+        for (int i = 0; i < 5; i++) {
+            buffer.offer(i);
+        }
+        List<Integer> drained = new ArrayList<>();
+
+        assertEquals(3, buffer.drainTo(drained, 3));
+        assertEquals(Arrays.asList(0, 1, 2), drained);
+        assertEquals(2, buffer.drainTo(drained, 10));
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), drained);
+    }
+
+    @Test
+    public void concurrentProducersLoseNothingAndKeepPerThreadOrder() throws Exception {
+        final int producers = 4;
+        final int perProducer = 20_000;
+        final MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(producer * perProducer + i)) {
+                        Thread.yield(); // Full - wait for the consumer
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        int[] lastSeen = new int[producers];
+        Arrays.fill(lastSeen, -1);
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < producers * perProducer && System.nanoTime() < deadline) {
+            Integer value = buffer.poll();
+            if (value == null) {
+                Thread.yield();
+                continue;
+            }
+            int producer = value / perProducer;
+            int sequence = value % perProducer;
+            assertTrue("out of order for producer " + producer, sequence > lastSeen[producer]);
+            lastSeen[producer] = sequence;
+            received++;
+        }
+        executor.shutdown();
+
+        assertEquals(producers * perProducer, received);
+        assertNull(buffer.poll());
+    }
+}
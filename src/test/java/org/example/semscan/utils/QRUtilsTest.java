@@ -0,0 +1,101 @@
+package org.example.semscan.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.Gson;
+
+import org.example.semscan.data.model.QRPayload;
+import org.junit.Test;
+
+public class QRUtilsTest {
+
+    @Test
+    public void parsesStaticPayload() {
+        QRPayload payload = QRUtils.parseQRContent("{\"sessionId\":42}");
+
+        assertNotNull(payload);
+        assertEquals(Long.valueOf(42L), payload.getSessionId());
+        assertFalse(payload.isSigned());
+    }
+
+    @Test
+    public void parsesStaticPayloadWithWhitespaceAndQuotedId() {
+        assertEquals(Long.valueOf(7L), QRUtils.parseQRContent(" { \"sessionId\" : \"7\" }\n").getSessionId());
+        assertEquals(-3L, QRUtils.parseSessionIdFast("{\"sessionId\":-3}"));
+    }
+
+    @Test
+    public void parsesSignedPayloadWithoutGson() {
+        String content = "{\"sessionId\":42,\"t\":117333333,\"p\":15,\"sig\":\"abc_-\"}";
+        QRPayload payload = QRUtils.parseQRContent(content);
+
+        assertEquals(42L, QRUtils.parseSessionIdFast(content));
+        assertNotNull(payload);
+        assertEquals(Long.valueOf(42L), payload.getSessionId());
+        assertEquals(Long.valueOf(117333333L), payload.getTimeStep());
+        assertEquals(Integer.valueOf(15), payload.getStepSeconds());
+        assertEquals("abc_-", payload.getSignature());
+        assertTrue(payload.isSigned());
+    }
+
+    @Test
+    public void signedPayloadFieldsMayComeInAnyOrder() {
+        QRPayload payload = QRUtils.parseQRContent("{ \"sig\" : \"xyz\", \"p\":\"30\", \"t\":7, \"sessionId\":\"9\" }");
+
+        assertNotNull(payload);
+        assertEquals(Long.valueOf(9L), payload.getSessionId());
+        assertEquals(Long.valueOf(7L), payload.getTimeStep());
+        assertEquals(Integer.valueOf(30), payload.getStepSeconds());
+        assertEquals("xyz", payload.getSignature());
+    }
+
+    @Test
+    public void fastPathMatchesGsonOnSignerOutput() {
+        String content = "{\"sessionId\":123,\"t\":117333333,\"p\":15,\"sig\":\"Zm9vYmFyYmF6cXV4MTIzNA\"}";
+        QRPayload fast = QRUtils.parseQRContent(content);
+        QRPayload gson = new Gson().fromJson(content, QRPayload.class);
+
+        assertEquals(gson.getSessionId(), fast.getSessionId());
+        assertEquals(gson.getTimeStep(), fast.getTimeStep());
+        assertEquals(gson.getStepSeconds(), fast.getStepSeconds());
+        assertEquals(gson.getSignature(), fast.getSignature());
+    }
+
+    @Test
+    public void fastPathLeavesOtherShapesToGson() {
+        assertEquals(QRUtils.NO_SESSION_ID, QRUtils.parseSessionIdFast("{\"sessionId\":42,\"other\":1}"));
+        assertEquals(QRUtils.NO_SESSION_ID, QRUtils.parseSessionIdFast("{\"sessionId\":42,\"t\":1,\"t\":2}"));
+        assertEquals(QRUtils.NO_SESSION_ID, QRUtils.parseSessionIdFast("{\"sessionId\":42,\"sig\":\"a\\\"b\"}"));
+        assertEquals(QRUtils.NO_SESSION_ID, QRUtils.parseSessionIdFast("{\"sessionId\":42,\"sig\":null}"));
+        assertEquals(QRUtils.NO_SESSION_ID, QRUtils.parseSessionIdFast("{\"sessionId\":42,\"p\":99999999999}"));
+        assertEquals(QRUtils.NO_SESSION_ID, QRUtils.parseSessionIdFast("{\"t\":1,\"sig\":\"abc\"}"));
+        assertEquals(QRUtils.NO_SESSION_ID, QRUtils.parseSessionIdFast("{\"sessionId\":42,}"));
+        assertEquals(QRUtils.NO_SESSION_ID, QRUtils.parseSessionIdFast("{}"));
+        assertEquals(QRUtils.NO_SESSION_ID, QRUtils.parseSessionIdFast("{\"sessionId\":4.5}"));
+        assertEquals(QRUtils.NO_SESSION_ID, QRUtils.parseSessionIdFast("{\"sessionId\":\"42}"));
+        assertEquals(QRUtils.NO_SESSION_ID, QRUtils.parseSessionIdFast("{\"sessionId\":42} x"));
+        assertEquals(QRUtils.NO_SESSION_ID, QRUtils.parseSessionIdFast("{\"sessionId\":99999999999999999999}"));
+        assertEquals(QRUtils.NO_SESSION_ID, QRUtils.parseSessionIdFast(null));
+    }
+
+    @Test
+    public void invalidContentHasNoSession() {
+        assertNull(QRUtils.parseQRContent("{\"sessionId\":"));
+        assertEquals(QRUtils.NO_SESSION_ID, QRUtils.parseSessionId("{}"));
+        assertEquals(QRUtils.NO_SESSION_ID, QRUtils.parseSessionId("{\"sessionId\":[1]}"));
+        assertFalse(QRUtils.isValidQRContent("{\"other\":1}"));
+    }
+
+    @Test
+    public void generatedContentRoundTrips() {
+        String content = QRUtils.generateQRContent(123L);
+
+        assertEquals("{\"sessionId\":123}", content);
+        assertEquals(123L, QRUtils.parseSessionId(content));
+        assertTrue(QRUtils.isValidQRContent(content));
+    }
+}
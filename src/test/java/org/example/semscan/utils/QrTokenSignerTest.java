@@ -0,0 +1,124 @@
+package org.example.semscan.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class QrTokenSignerTest {
+
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final int STEP_SECONDS = 15;
+    private static final long STEP_MS = STEP_SECONDS * 1000L;
+    private static final long NOW_MS = 1_759_999_995_000L; // Start of a 15s step
+
+    @Test
+    public void createRejectsMissingOrEmptySecret() {
+        assertNull(QrTokenSigner.create(null, 1L, STEP_SECONDS));
+        assertNull(QrTokenSigner.create("   ", 1L, STEP_SECONDS));
+        assertNull(QrTokenSigner.create("", 1L, STEP_SECONDS));
+    }
+
+    @Test
+    public void createFallsBackToDefaultStepBelowMinimum() {
+        QrTokenSigner signer = QrTokenSigner.create(standardBase64(KEY), 1L, 1);
+
+        assertNotNull(signer);
+        assertEquals(QrTokenSigner.DEFAULT_STEP_SECONDS, signer.getStepSeconds());
+    }
+
+    @Test
+    public void signatureIsTruncatedHmacOverSessionAndStep() throws Exception {
+        QrTokenSigner signer = QrTokenSigner.create(standardBase64(KEY), 42L, STEP_SECONDS);
+        long step = signer.currentStep(NOW_MS);
+
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(KEY, "HmacSHA256"));
+        byte[] digest = mac.doFinal(("42:" + step).getBytes(StandardCharsets.UTF_8));
+        String expectedSig = Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+
+        assertEquals("{\"sessionId\":42,\"t\":" + step + ",\"p\":15,\"sig\":\"" + expectedSig + "\"}",
+                signer.contentFor(step));
+    }
+
+    @Test
+    public void standardAndUrlSafeSecretsSignTheSame() {
+        byte[] key = new byte[32];
+        Arrays.fill(key, (byte) 0xFB); // Encodes to '+' and '/' in standard base64
+        QrTokenSigner standard = QrTokenSigner.create(standardBase64(key), 7L, STEP_SECONDS);
+        QrTokenSigner urlSafe = QrTokenSigner.create(Base64.getUrlEncoder().encodeToString(key), 7L, STEP_SECONDS);
+
+        assertEquals(standard.contentFor(100L), urlSafe.contentFor(100L));
+    }
+
+    @Test
+    public void tokenChangesEveryStep() {
+        QrTokenSigner signer = QrTokenSigner.create(standardBase64(KEY), 42L, STEP_SECONDS);
+        long step = signer.currentStep(NOW_MS);
+
+        assertNotEquals(signer.contentFor(step), signer.contentFor(step + 1));
+        assertEquals(signer.contentFor(step), signer.contentFor(step));
+    }
+
+    @Test
+    public void timeStepAndRotationDelay() {
+        QrTokenSigner signer = QrTokenSigner.create(standardBase64(KEY), 1L, STEP_SECONDS);
+
+        assertEquals(NOW_MS / STEP_MS, QrTokenSigner.timeStep(NOW_MS, STEP_SECONDS));
+        assertEquals(STEP_MS, signer.millisUntilNextStep(NOW_MS));
+        assertEquals(1L, signer.millisUntilNextStep(NOW_MS + STEP_MS - 1));
+    }
+
+    @Test
+    public void isFreshAcceptsCurrentAndSkewedSteps() {
+        long step = QrTokenSigner.timeStep(NOW_MS, STEP_SECONDS);
+
+        assertTrue(QrTokenSigner.isFresh(step, STEP_SECONDS, NOW_MS));
+        // Presenter phone 10 minutes ahead / behind the scanner
+        assertTrue(QrTokenSigner.isFresh(step + 40, STEP_SECONDS, NOW_MS));
+        assertTrue(QrTokenSigner.isFresh(step - 40, STEP_SECONDS, NOW_MS));
+    }
+
+    @Test
+    public void isFreshRejectsStepsBeyondClockSkew() {
+        long step = QrTokenSigner.timeStep(NOW_MS, STEP_SECONDS);
+
+        // 20 minutes either way
+        assertFalse(QrTokenSigner.isFresh(step + 80, STEP_SECONDS, NOW_MS));
+        assertFalse(QrTokenSigner.isFresh(step - 80, STEP_SECONDS, NOW_MS));
+    }
+
+    @Test
+    public void isFreshRejectsNegativeAndOverflowingSteps() {
+        assertFalse(QrTokenSigner.isFresh(-1L, STEP_SECONDS, NOW_MS));
+        assertFalse(QrTokenSigner.isFresh(Long.MAX_VALUE, STEP_SECONDS, NOW_MS));
+        assertFalse(QrTokenSigner.isFresh(Long.MAX_VALUE / STEP_MS, STEP_SECONDS, NOW_MS));
+    }
+
+    @Test
+    public void isFreshUsesDefaultStepForInvalidPeriod() {
+        long step = QrTokenSigner.timeStep(NOW_MS, QrTokenSigner.DEFAULT_STEP_SECONDS);
+
+        assertTrue(QrTokenSigner.isFresh(step, 0, NOW_MS));
+    }
+
+    private static String standardBase64(byte[] bytes) {
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}